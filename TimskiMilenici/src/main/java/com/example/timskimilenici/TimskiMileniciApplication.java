@@ -2,8 +2,10 @@ package com.example.timskimilenici;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
 
 @SpringBootApplication
+@PropertySource("classpath:server-defaults.properties")
 public class TimskiMileniciApplication {
 
     public static void main(String[] args) {
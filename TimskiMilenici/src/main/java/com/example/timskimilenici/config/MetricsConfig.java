@@ -0,0 +1,59 @@
+package com.example.timskimilenici.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import java.time.Duration;
+
+/**
+ * Micrometer wiring. {@code @Timed} on a service class records every public
+ * method under {@value #SERVICE_TIMER} (tagged with class and method); hot
+ * paths carry their own {@code @Timed} names. Repository calls are timed by
+ * Spring Boot as {@code spring.data.repository.invocations}, and requests as
+ * {@code http.server.requests}. Only the named {@code petpal.*} timers publish
+ * histogram buckets, so Prometheus can compute their percentiles across
+ * instances; the per-method, per-repository and per-URI timers would
+ * multiply the bucket series by their tag cardinality.
+ *
+ * <p>Also exposes the health and Prometheus endpoints by default, from
+ * {@code metrics-defaults.properties}.
+ */
+@Configuration
+@PropertySource("classpath:metrics-defaults.properties")
+public class MetricsConfig {
+
+    /** Timer name for class-level {@code @Timed} services. */
+    public static final String SERVICE_TIMER = "petpal.service";
+
+    private static final String HISTOGRAM_PREFIX = "petpal.";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || !id.getName().startsWith(HISTOGRAM_PREFIX)
+                        || id.getName().equals(SERVICE_TIMER)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(60).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.timskimilenici.config;
+
+import com.example.timskimilenici.services.ResponseCache;
+import com.example.timskimilenici.services.ResponseCache.Region;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serves the public catalogue listings from {@link ResponseCache} and adds
+ * ETag / If-None-Match handling. A hit never reaches the controller, so it
+ * costs neither a query nor JSON serialization, and a client already holding
+ * the current ETag gets an empty 304. Responses carry
+ * {@code Cache-Control: no-cache} so browsers always revalidate and see
+ * invalidations immediately.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Map<String, Region> CACHEABLE = Map.of(
+            "/api/businesses", Region.BUSINESSES,
+            "/api/businesses/top", Region.BUSINESSES,
+            "/api/products", Region.PRODUCTS,
+            "/api/products/top", Region.PRODUCT_RANKING,
+            "/api/products/promoted", Region.PRODUCTS,
+            "/api/services", Region.SERVICES,
+            "/api/services/top", Region.SERVICE_RANKING,
+            "/api/services/promoted", Region.SERVICES
+    );
+
+    private final ResponseCache cache;
+
+    public ResponseCacheFilter(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !CACHEABLE.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        String key = request.getQueryString() == null ? path : path + "?" + request.getQueryString();
+
+        ResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            if (!notModified(request, response, cached.etag())) {
+                response.setContentType(cached.contentType());
+                response.setContentLength(cached.body().length);
+                response.getOutputStream().write(cached.body());
+            }
+            return;
+        }
+
+        Region region = CACHEABLE.get(path);
+        long generation = cache.generation(region);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            byte[] body = wrapper.getContentAsByteArray();
+            String etag = "\"0" + DigestUtils.md5DigestAsHex(body) + "\"";
+            cache.put(key, new ResponseCache.Entry(region, body, wrapper.getContentType(), etag), generation);
+            if (notModified(request, wrapper, etag)) {
+                wrapper.resetBuffer();
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /** Set the validator headers; answer 304 and return true when the client already has this version. */
+    private static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.timskimilenici.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (rating reconciliation, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
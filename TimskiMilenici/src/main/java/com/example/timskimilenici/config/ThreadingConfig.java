@@ -0,0 +1,67 @@
+package com.example.timskimilenici.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.util.Collections;
+
+/**
+ * Reports which threading mode the app runs in. Virtual threads are opt-in
+ * with {@code spring.threads.virtual.enabled=true} and need a Java 21+
+ * runtime; Spring Boot then serves Tomcat requests and runs
+ * {@code @Scheduled}/{@code @Async} work on virtual threads, so requests
+ * blocked on Ollama, Mapbox or JDBC no longer hold a pooled platform thread.
+ * The code itself keeps the Java 17 baseline.
+ *
+ * <p>A virtual thread that blocks while holding a monitor pins its carrier.
+ * Our own {@code synchronized} sections never do I/O, and HikariCP 5.1 is
+ * lock-based, so the remaining risk is an old PostgreSQL driver: releases
+ * before 42.6 guard socket I/O with {@code synchronized}. That is checked
+ * here when virtual threads are on.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+    private static final String VIRTUAL_PROPERTY = "spring.threads.virtual.enabled";
+
+    private final Environment environment;
+
+    public ThreadingConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode() {
+        boolean requested = environment.getProperty(VIRTUAL_PROPERTY, Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Virtual threads enabled for request handling and scheduled/async tasks.");
+            warnOnPinningJdbcDriver();
+        } else if (requested) {
+            log.warn("{}=true needs Java 21+, but this runtime is Java {}; using platform threads.",
+                    VIRTUAL_PROPERTY, JavaVersion.getJavaVersion());
+        } else {
+            log.info("Using platform threads; set {}=true on Java 21+ for virtual threads.", VIRTUAL_PROPERTY);
+        }
+    }
+
+    private static void warnOnPinningJdbcDriver() {
+        for (Driver driver : Collections.list(DriverManager.getDrivers())) {
+            if (!driver.getClass().getName().equals("org.postgresql.Driver")) continue;
+            int major = driver.getMajorVersion();
+            int minor = driver.getMinorVersion();
+            if (major < 42 || (major == 42 && minor < 6)) {
+                log.warn("PostgreSQL driver {}.{} synchronizes on socket I/O and will pin virtual threads; "
+                        + "upgrade to 42.6 or newer.", major, minor);
+            }
+        }
+    }
+}
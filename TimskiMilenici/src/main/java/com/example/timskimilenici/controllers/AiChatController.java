@@ -1,72 +1,239 @@
 package com.example.timskimilenici.controllers;
 
 import com.example.timskimilenici.entities.Role;
-import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.services.AiChatService;
-import com.example.timskimilenici.services.UserService;
+import com.example.timskimilenici.services.ai.LlmBusyException;
+import com.example.timskimilenici.services.ai.LlmScheduler;
+import com.example.timskimilenici.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/chat")
 public class AiChatController {
 
     private static final Logger log = LoggerFactory.getLogger(AiChatController.class);
+    private static final String FAILURE_REPLY = "Sorry, I'm having trouble right now. Please try again later.";
+
     private final AiChatService aiChatService;
-    private final UserService userService;
+    private final LlmScheduler llmScheduler;
+    private final long streamTimeoutMillis;
 
-    public AiChatController(AiChatService aiChatService, UserService userService) {
+    public AiChatController(AiChatService aiChatService,
+                            LlmScheduler llmScheduler,
+                            @Value("${ai.chat.stream-timeout-seconds:180}") long streamTimeoutSeconds) {
         this.aiChatService = aiChatService;
-        this.userService = userService;
+        this.llmScheduler = llmScheduler;
+        this.streamTimeoutMillis = Duration.ofSeconds(streamTimeoutSeconds).toMillis();
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Blocking chat. A repeated customer question is answered from the chat
+     * cache; otherwise the call waits for a model slot from
+     * {@link LlmScheduler}, and when none can be had the reply is a 429 with
+     * {@code Retry-After}.
+     */
     @PostMapping
     public ResponseEntity<Map<String, String>> chat(
-            @AuthenticationPrincipal UserDetails userDetails,
-            @RequestBody Map<String, Object> request
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody Map<String, Object> request,
+            HttpServletRequest httpRequest
     ) {
-        String message = (String) request.get("message");
-        List<Map<String, String>> history = (List<Map<String, String>>) request.get("history");
-        Map<String, Object> storeContext = (Map<String, Object>) request.get("storeContext");
-        String rawMode = request.get("mode") instanceof String s ? s : null;
-
-        if (message == null || message.isBlank()) {
-            return ResponseEntity.badRequest().body(Map.of("reply", "Please provide a message."));
+        ChatCall call;
+        try {
+            call = ChatCall.parse(request, currentUser);
+        } catch (ChatRejected e) {
+            return ResponseEntity.status(e.status).body(Map.of("reply", e.getMessage()));
         }
 
-        AiChatService.ChatMode mode = AiChatService.ChatMode.CUSTOMER;
-        Long ownerUserId = null;
-        if ("owner".equalsIgnoreCase(rawMode)) {
-            if (userDetails == null) {
-                return ResponseEntity.status(401).body(Map.of("reply", "Sign in as an owner to use dashboard chat."));
-            }
-            User user = userService.getUserByIdentifier(userDetails.getUsername());
-            if (user == null || !hasOwnerRole(user)) {
-                return ResponseEntity.status(403).body(Map.of("reply", "Owner dashboard chat is restricted to store owners."));
-            }
-            mode = AiChatService.ChatMode.OWNER;
-            ownerUserId = user.getId();
+        Optional<String> cached = aiChatService.cachedReply(call.message(), call.history(), call.storeContext(), call.mode());
+        if (cached.isPresent()) {
+            return ResponseEntity.ok(Map.of("reply", cached.get()));
         }
 
-        try {
-            String reply = aiChatService.chat(message, history, storeContext, mode, ownerUserId);
+        try (LlmScheduler.Permit permit = llmScheduler.acquire(callerKey(currentUser, httpRequest))) {
+            String reply = aiChatService.chat(call.message(), call.history(), call.storeContext(), call.mode(), call.ownerUserId());
             return ResponseEntity.ok(Map.of("reply", reply));
+        } catch (LlmBusyException e) {
+            return busy(e).body(Map.of("reply", e.getMessage()));
         } catch (Exception e) {
             log.error("AI chat error", e);
             return ResponseEntity.internalServerError()
-                    .body(Map.of("reply", "Sorry, I'm having trouble right now. Please try again later."));
+                    .body(Map.of("reply", FAILURE_REPLY));
+        }
+    }
+
+    /**
+     * Streaming variant of {@code POST /api/chat} over Server-Sent Events.
+     * Emits {@code token} events with {@code {"text": "..."}} as the reply is
+     * generated, then one {@code done} event; on failure a single
+     * {@code error} event with {@code {"reply": "..."}} ends the stream. Text
+     * travels as JSON because SSE clients strip a leading space from raw
+     * data lines, which would glue words together. The servlet thread waits
+     * for a model slot, then is released as soon as the stream is set up; the
+     * slot is held until the generation ends. A client disconnect or the
+     * stream timeout cancels the generation. A refused slot is a 429 with a
+     * single {@code error} event; a cached reply arrives as one {@code token}
+     * event without taking a slot.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody Map<String, Object> request,
+            HttpServletRequest httpRequest
+    ) {
+        ChatCall call;
+        try {
+            call = ChatCall.parse(request, currentUser);
+        } catch (ChatRejected e) {
+            return ResponseEntity.status(e.status).body(errorOnly(e.getMessage()));
+        }
+
+        Optional<String> cached = aiChatService.cachedReply(call.message(), call.history(), call.storeContext(), call.mode());
+        if (cached.isPresent()) {
+            SseEmitter emitter = new SseEmitter();
+            sendQuietly(emitter, SseEmitter.event().name("token").data(Map.of("text", cached.get())));
+            sendQuietly(emitter, SseEmitter.event().name("done").data(Map.of()));
+            emitter.complete();
+            return ResponseEntity.ok(emitter);
+        }
+
+        LlmScheduler.Permit permit;
+        try {
+            permit = llmScheduler.acquire(callerKey(currentUser, httpRequest));
+        } catch (LlmBusyException e) {
+            return busy(e).body(errorOnly(e.getMessage()));
+        }
+
+        Flux<String> reply;
+        try {
+            reply = aiChatService.stream(call.message(), call.history(), call.storeContext(), call.mode(), call.ownerUserId())
+                    .doFinally(signal -> permit.close());
+        } catch (Exception e) {
+            permit.close();
+            log.error("AI chat error", e);
+            return ResponseEntity.internalServerError().body(errorOnly(FAILURE_REPLY));
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Disposable generation = reply.subscribe(
+                chunk -> sendQuietly(emitter, SseEmitter.event().name("token").data(Map.of("text", chunk))),
+                error -> {
+                    log.error("AI chat stream error", error);
+                    sendQuietly(emitter, errorEvent(FAILURE_REPLY));
+                    emitter.complete();
+                },
+                () -> {
+                    sendQuietly(emitter, SseEmitter.event().name("done").data(Map.of()));
+                    emitter.complete();
+                });
+        emitter.onTimeout(() -> {
+            log.warn("AI chat stream timed out after {} ms", streamTimeoutMillis);
+            generation.dispose();
+            emitter.complete();
+        });
+        emitter.onError(error -> generation.dispose());
+        emitter.onCompletion(generation::dispose);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Signed-in users are scheduled by account, anonymous shoppers by client
+     * address. Behind the proxy that address comes from
+     * {@code X-Forwarded-For} (see {@code server-defaults.properties}), so
+     * anonymous shoppers do not all share the proxy's quota.
+     */
+    private static String callerKey(AuthenticatedUser currentUser, HttpServletRequest httpRequest) {
+        return currentUser != null ? "user:" + currentUser.getId() : "ip:" + httpRequest.getRemoteAddr();
+    }
+
+    private static ResponseEntity.BodyBuilder busy(LlmBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+    }
+
+    /** An already-finished stream holding just one {@code error} event. */
+    private static SseEmitter errorOnly(String reply) {
+        SseEmitter emitter = new SseEmitter();
+        sendQuietly(emitter, errorEvent(reply));
+        emitter.complete();
+        return emitter;
+    }
+
+    private static SseEmitter.SseEventBuilder errorEvent(String reply) {
+        return SseEmitter.event().name("error").data(Map.of("reply", reply));
+    }
+
+    /**
+     * Send one event, dropping it if the client has already disconnected.
+     * The emitter's own error/completion callbacks cancel the generation.
+     */
+    private static void sendQuietly(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping chat event, stream closed: {}", e.getMessage());
         }
     }
 
-    private static boolean hasOwnerRole(User user) {
-        return user.getRole() == Role.OWNER;
+    /** A validated chat request: the message, its context and the resolved mode. */
+    private record ChatCall(String message,
+                            List<Map<String, String>> history,
+                            Map<String, Object> storeContext,
+                            AiChatService.ChatMode mode,
+                            Long ownerUserId) {
+
+        @SuppressWarnings("unchecked")
+        static ChatCall parse(Map<String, Object> request, AuthenticatedUser currentUser) {
+            String message = (String) request.get("message");
+            List<Map<String, String>> history = (List<Map<String, String>>) request.get("history");
+            Map<String, Object> storeContext = (Map<String, Object>) request.get("storeContext");
+            String rawMode = request.get("mode") instanceof String s ? s : null;
+
+            if (message == null || message.isBlank()) {
+                throw new ChatRejected(400, "Please provide a message.");
+            }
+
+            AiChatService.ChatMode mode = AiChatService.ChatMode.CUSTOMER;
+            Long ownerUserId = null;
+            if ("owner".equalsIgnoreCase(rawMode)) {
+                if (currentUser == null) {
+                    throw new ChatRejected(401, "Sign in as an owner to use dashboard chat.");
+                }
+                if (currentUser.getRole() != Role.OWNER) {
+                    throw new ChatRejected(403, "Owner dashboard chat is restricted to store owners.");
+                }
+                mode = AiChatService.ChatMode.OWNER;
+                ownerUserId = currentUser.getId();
+            }
+            return new ChatCall(message, history, storeContext, mode, ownerUserId);
+        }
+    }
+
+    /** A request the chat endpoints refuse before calling the model; the message is the user-facing reply. */
+    private static final class ChatRejected extends RuntimeException {
+        private final int status;
+
+        ChatRejected(int status, String reply) {
+            super(reply);
+            this.status = status;
+        }
     }
 }
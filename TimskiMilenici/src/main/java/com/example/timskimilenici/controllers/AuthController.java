@@ -1,5 +1,6 @@
 package com.example.timskimilenici.controllers;
 
+import com.example.timskimilenici.security.AuthenticatedUser;
 import com.example.timskimilenici.security.JwtUtils;
 import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.services.UserService;
@@ -8,8 +9,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -21,14 +20,11 @@ public class AuthController {
 
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtUtils jwtUtils;
 
-    public AuthController(UserService userService, AuthenticationManager authenticationManager, 
-                          UserDetailsService userDetailsService, JwtUtils jwtUtils) {
+    public AuthController(UserService userService, AuthenticationManager authenticationManager, JwtUtils jwtUtils) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
         this.jwtUtils = jwtUtils;
     }
 
@@ -52,11 +48,11 @@ public class AuthController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        if (userDetails == null) {
+    public ResponseEntity<Map<String, Object>> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
+        User user = userService.getUserById(currentUser.getId());
         
         Map<String, Object> response = new HashMap<>();
         response.put("userId", user.getId());
@@ -76,10 +72,8 @@ public class AuthController {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getIdentifier(), request.getPassword())
         );
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getIdentifier());
-        final String jwt = jwtUtils.generateToken(userDetails);
-        
         User user = userService.getUserByIdentifier(request.getIdentifier());
+        final String jwt = jwtUtils.generateToken(user);
         
         Map<String, Object> response = new HashMap<>();
         response.put("token", jwt);
@@ -143,14 +137,13 @@ public class AuthController {
     }
 
     @DeleteMapping("/delete-account")
-    public ResponseEntity<?> deleteAccount(@AuthenticationPrincipal UserDetails userDetails) {
-        if (userDetails == null) {
+    public ResponseEntity<?> deleteAccount(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
 
         try {
-            User user = userService.getUserByIdentifier(userDetails.getUsername());
-            userService.deleteUserById(user.getId());
+            userService.deleteUserById(currentUser.getId());
             Map<String, String> response = new HashMap<>();
             response.put("message", "Account deleted successfully");
             return ResponseEntity.ok(response);
@@ -1,8 +1,10 @@
 package com.example.timskimilenici.controllers;
 
+import com.example.timskimilenici.dto.BookingView;
 import com.example.timskimilenici.entities.Booking;
 import com.example.timskimilenici.services.BookingService;
 import com.example.timskimilenici.services.NotificationService;
+import com.example.timskimilenici.util.CursorPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -45,23 +47,57 @@ public class BookingController {
         return bookingService.getFullDates(serviceId, start, end);
     }
 
+    /**
+     * Remaining capacity per day for a service, including closed days (with
+     * {@code open=false}). GET /api/bookings/availability/{serviceId}?start=YYYY-MM-DD&end=YYYY-MM-DD
+     */
+    @GetMapping("/availability/{serviceId}")
+    public List<BookingService.DayAvailability> getAvailability(
+            @PathVariable Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return bookingService.getAvailability(serviceId, start, end);
+    }
+
     @GetMapping("/user/{userId}")
-    public List<Booking> getByUser(@PathVariable Long userId) {
+    public List<BookingView> getByUser(@PathVariable Long userId) {
         return bookingService.getBookingsByUser(userId);
     }
 
     @GetMapping("/business/{businessId}")
-    public List<Booking> getByBusiness(@PathVariable Long businessId) {
+    public List<BookingView> getByBusiness(@PathVariable Long businessId) {
         return bookingService.getBookingsByBusiness(businessId);
     }
 
+    /**
+     * Keyset-paginated variant of {@code /user/{userId}}, newest first.
+     * GET /api/bookings/user/{userId}/page?cursor=&size=
+     */
+    @GetMapping("/user/{userId}/page")
+    public CursorPage<BookingView> getByUserPage(@PathVariable Long userId,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return bookingService.getBookingsByUserPage(userId, cursor, CursorPage.clampSize(size));
+    }
+
+    /**
+     * Keyset-paginated variant of {@code /business/{businessId}}, newest first.
+     * GET /api/bookings/business/{businessId}/page?cursor=&size=
+     */
+    @GetMapping("/business/{businessId}/page")
+    public CursorPage<BookingView> getByBusinessPage(@PathVariable Long businessId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        return bookingService.getBookingsByBusinessPage(businessId, cursor, CursorPage.clampSize(size));
+    }
+
     /**
      * Get bookings for a store (business). Optional: single date or date range.
      * GET /api/bookings/store/{storeId}?date=YYYY-MM-DD
      * GET /api/bookings/store/{storeId}?start=YYYY-MM-DD&end=YYYY-MM-DD
      */
     @GetMapping("/store/{storeId}")
-    public List<Booking> getByStore(
+    public List<BookingView> getByStore(
             @PathVariable Long storeId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
@@ -1,8 +1,15 @@
 package com.example.timskimilenici.controllers;
 
+import com.example.timskimilenici.dto.BusinessCard;
+import com.example.timskimilenici.dto.BusinessDetail;
+import com.example.timskimilenici.dto.BusinessOwnerView;
 import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.JobCheckpoint;
 import com.example.timskimilenici.services.BusinessService;
+import com.example.timskimilenici.services.BusinessViewService;
 import com.example.timskimilenici.services.BusinessWithDistance;
+import com.example.timskimilenici.services.geo.CoordinateBackfillJob;
+import com.example.timskimilenici.util.CursorPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -14,20 +21,39 @@ import java.util.Map;
 @RequestMapping("/api/businesses")
 public class BusinessController {
 
+    private static final int DEFAULT_TOP_LIMIT = 12;
+    private static final int MAX_TOP_LIMIT = 50;
+
     private final BusinessService businessService;
+    private final BusinessViewService businessViewService;
+    private final CoordinateBackfillJob backfillJob;
 
-    public BusinessController(BusinessService businessService) {
+    public BusinessController(BusinessService businessService,
+                              BusinessViewService businessViewService,
+                              CoordinateBackfillJob backfillJob) {
         this.businessService = businessService;
+        this.businessViewService = businessViewService;
+        this.backfillJob = backfillJob;
     }
 
     @GetMapping
-    public List<Business> getAll() {
-        return businessService.getAllBusinesses();
+    public List<BusinessCard> getAll() {
+        return businessViewService.getCards();
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getAll()}, in id order.
+     * GET /api/businesses/page?cursor=&size=
+     */
+    @GetMapping("/page")
+    public CursorPage<BusinessCard> getPage(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        return businessViewService.getCardPage(cursor, CursorPage.clampSize(size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Business> getById(@PathVariable Long id) {
-        return businessService.getBusinessById(id)
+    public ResponseEntity<BusinessDetail> getById(@PathVariable Long id) {
+        return businessViewService.getDetail(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -40,8 +66,8 @@ public class BusinessController {
 
     @GetMapping("/my-business/{ownerId}")
     @PreAuthorize("hasRole('OWNER')")
-    public ResponseEntity<List<Business>> getByOwnerId(@PathVariable Long ownerId) {
-        return ResponseEntity.ok(businessService.getBusinessByOwnerId(ownerId));
+    public ResponseEntity<List<BusinessOwnerView>> getByOwnerId(@PathVariable Long ownerId) {
+        return ResponseEntity.ok(businessViewService.getOwnerViews(ownerId));
     }
 
     @GetMapping("/search")
@@ -62,12 +88,14 @@ public class BusinessController {
      */
     /**
      * Top stores ranked by their average review rating (then by review volume,
-     * then alphabetically). The aggregate runs as a single batch query so this
-     * endpoint stays cheap regardless of how many stores exist.
+     * then alphabetically). Served from the indexed rating summaries with a
+     * LIMIT, so this endpoint stays cheap regardless of how many stores exist.
+     * Limit is capped server-side so a client can't ask for an unbounded list.
      */
     @GetMapping("/top")
-    public List<Business> top(@RequestParam(required = false) Integer limit) {
-        return businessService.getTopBusinesses(limit);
+    public List<BusinessCard> top(@RequestParam(required = false) Integer limit) {
+        int cap = limit == null || limit <= 0 ? DEFAULT_TOP_LIMIT : Math.min(limit, MAX_TOP_LIMIT);
+        return businessViewService.getTopCards(cap);
     }
 
     @GetMapping("/nearby")
@@ -75,23 +103,45 @@ public class BusinessController {
                                              @RequestParam double lng,
                                              @RequestParam(defaultValue = "10") double radiusKm,
                                              @RequestParam(required = false) Integer limit) {
-        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
-            return List.of();
-        }
         return businessService.findNearby(lat, lng, radiusKm, limit);
     }
 
     /**
      * Admin-style hook to fill in lat/lng for every existing business that
      * still has null coordinates. Owners only so it's not trivially DoS'd.
+     * Starts (or resumes) the background job and returns immediately; poll
+     * the GET endpoint for progress.
      */
     @PostMapping("/backfill-coordinates")
     @PreAuthorize("hasRole('OWNER')")
-    public ResponseEntity<Map<String, Object>> backfillCoordinates() {
-        int updated = businessService.backfillMissingCoordinates();
+    public ResponseEntity<Map<String, Object>> backfillCoordinates(
+            @RequestParam(defaultValue = "false") boolean restart) {
+        JobCheckpoint checkpoint = backfillJob.start(restart);
+        return ResponseEntity.accepted().body(backfillStatusBody(checkpoint));
+    }
+
+    @GetMapping("/backfill-coordinates")
+    @PreAuthorize("hasRole('OWNER')")
+    public ResponseEntity<Map<String, Object>> backfillCoordinatesStatus() {
+        return ResponseEntity.ok(backfillStatusBody(backfillJob.status()));
+    }
+
+    private Map<String, Object> backfillStatusBody(JobCheckpoint checkpoint) {
         Map<String, Object> body = new HashMap<>();
-        body.put("updated", updated);
-        return ResponseEntity.ok(body);
+        body.put("running", backfillJob.isRunning());
+        if (checkpoint == null) {
+            body.put("state", "NEVER_RUN");
+            return body;
+        }
+        body.put("state", checkpoint.getState().name());
+        body.put("processed", checkpoint.getProcessed());
+        body.put("updated", checkpoint.getUpdated());
+        body.put("failed", checkpoint.getFailed());
+        body.put("lastProcessedId", checkpoint.getLastProcessedId());
+        body.put("startedAt", checkpoint.getStartedAt());
+        body.put("finishedAt", checkpoint.getFinishedAt());
+        body.put("lastError", checkpoint.getLastError());
+        return body;
     }
 
     @DeleteMapping("/{id}")
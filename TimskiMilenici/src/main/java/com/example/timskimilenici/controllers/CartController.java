@@ -1,12 +1,10 @@
 package com.example.timskimilenici.controllers;
 
-import com.example.timskimilenici.entities.Cart;
-import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.dto.CartView;
 import com.example.timskimilenici.services.CartService;
-import com.example.timskimilenici.services.UserService;
+import com.example.timskimilenici.security.AuthenticatedUser;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -16,58 +14,53 @@ import java.util.Map;
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
 
-    public CartController(CartService cartService, UserService userService) {
+    public CartController(CartService cartService) {
         this.cartService = cartService;
-        this.userService = userService;
     }
 
-    private Long currentUserId(UserDetails userDetails) {
-        if (userDetails == null) return null;
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
-        return user.getId();
+    private Long currentUserId(AuthenticatedUser currentUser) {
+        return currentUser == null ? null : currentUser.getId();
     }
 
     @GetMapping
-    public ResponseEntity<Cart> getCart(@AuthenticationPrincipal UserDetails userDetails) {
-        Long userId = currentUserId(userDetails);
+    public ResponseEntity<CartView> getCart(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
-        Cart cart = cartService.getOrCreateCart(userId);
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(cartService.getCartView(userId));
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Integer>> getItemCount(@AuthenticationPrincipal UserDetails userDetails) {
-        Long userId = currentUserId(userDetails);
+    public ResponseEntity<Map<String, Integer>> getItemCount(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
         int count = cartService.getItemCount(userId);
         return ResponseEntity.ok(Map.of("count", count));
     }
 
     @PostMapping("/items")
-    public ResponseEntity<Cart> addItem(
-            @AuthenticationPrincipal UserDetails userDetails,
+    public ResponseEntity<CartView> addItem(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestBody Map<String, Object> body) {
-        Long userId = currentUserId(userDetails);
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
         Long productId = Long.valueOf(body.get("productId").toString());
         int quantity = body.containsKey("quantity") ? Integer.parseInt(body.get("quantity").toString()) : 1;
-        Cart cart = cartService.addItem(userId, productId, quantity);
-        return ResponseEntity.ok(cart);
+        cartService.addItem(userId, productId, quantity);
+        return ResponseEntity.ok(cartService.getCartView(userId));
     }
 
     @PatchMapping("/items/{cartItemId}")
-    public ResponseEntity<Cart> updateItemQuantity(
-            @AuthenticationPrincipal UserDetails userDetails,
+    public ResponseEntity<CartView> updateItemQuantity(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long cartItemId,
             @RequestBody Map<String, Object> body) {
-        Long userId = currentUserId(userDetails);
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
         int quantity = body.containsKey("quantity") ? Integer.parseInt(body.get("quantity").toString()) : 1;
         try {
-            Cart cart = cartService.updateItemQuantity(userId, cartItemId, quantity);
-            return ResponseEntity.ok(cart);
+            cartService.updateItemQuantity(userId, cartItemId, quantity);
+            return ResponseEntity.ok(cartService.getCartView(userId));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -75,17 +68,17 @@ public class CartController {
 
     @DeleteMapping("/items/{cartItemId}")
     public ResponseEntity<Void> removeItem(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long cartItemId) {
-        Long userId = currentUserId(userDetails);
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
         cartService.removeItem(userId, cartItemId);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/checkout")
-    public ResponseEntity<?> checkout(@AuthenticationPrincipal UserDetails userDetails) {
-        Long userId = currentUserId(userDetails);
+    public ResponseEntity<?> checkout(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
         try {
             var order = cartService.checkout(userId);
@@ -1,12 +1,10 @@
 package com.example.timskimilenici.controllers;
 
 import com.example.timskimilenici.entities.Notification;
-import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.services.NotificationService;
-import com.example.timskimilenici.services.UserService;
+import com.example.timskimilenici.security.AuthenticatedUser;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,40 +14,35 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final UserService userService;
 
-    public NotificationController(NotificationService notificationService, UserService userService) {
+    public NotificationController(NotificationService notificationService) {
         this.notificationService = notificationService;
-        this.userService = userService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Notification>> getMyNotifications(@AuthenticationPrincipal UserDetails userDetails) {
-        if (userDetails == null) {
+    public ResponseEntity<List<Notification>> getMyNotifications(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
-        List<Notification> list = notificationService.getByReceiver(user.getId());
+        List<Notification> list = notificationService.getByReceiver(currentUser.getId());
         return ResponseEntity.ok(list);
     }
 
     @PatchMapping("/{id}/dismiss")
-    public ResponseEntity<Void> dismiss(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        if (userDetails == null) {
+    public ResponseEntity<Void> dismiss(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
-        notificationService.dismiss(id, user.getId());
+        notificationService.dismiss(id, currentUser.getId());
         return ResponseEntity.noContent().build();
     }
 
     @PatchMapping("/dismiss-all")
-    public ResponseEntity<Void> dismissAll(@AuthenticationPrincipal UserDetails userDetails) {
-        if (userDetails == null) {
+    public ResponseEntity<Void> dismissAll(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
-        notificationService.dismissAllForUser(user.getId());
+        notificationService.dismissAllForUser(currentUser.getId());
         return ResponseEntity.noContent().build();
     }
 }
@@ -5,10 +5,9 @@ import com.example.timskimilenici.entities.OrderItem;
 import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.services.BusinessService;
 import com.example.timskimilenici.services.OrderService;
-import com.example.timskimilenici.services.UserService;
+import com.example.timskimilenici.security.AuthenticatedUser;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -20,18 +19,14 @@ public class OrderController {
 
     private final OrderService orderService;
     private final BusinessService businessService;
-    private final UserService userService;
 
-    public OrderController(OrderService orderService, BusinessService businessService, UserService userService) {
+    public OrderController(OrderService orderService, BusinessService businessService) {
         this.orderService = orderService;
         this.businessService = businessService;
-        this.userService = userService;
     }
 
-    private Long currentUserId(UserDetails userDetails) {
-        if (userDetails == null) return null;
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
-        return user == null ? null : user.getId();
+    private Long currentUserId(AuthenticatedUser currentUser) {
+        return currentUser == null ? null : currentUser.getId();
     }
 
     /**
@@ -40,9 +35,9 @@ public class OrderController {
      */
     @GetMapping("/business/{businessId}")
     public ResponseEntity<?> getOrdersByBusiness(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long businessId) {
-        Long userId = currentUserId(userDetails);
+        Long userId = currentUserId(currentUser);
         if (userId == null) return ResponseEntity.status(401).build();
         return businessService.getBusinessById(businessId)
                 .filter(b -> b.getOwner() != null && b.getOwner().getId().equals(userId))
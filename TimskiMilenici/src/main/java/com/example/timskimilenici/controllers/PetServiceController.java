@@ -1,7 +1,11 @@
 package com.example.timskimilenici.controllers;
 
+import com.example.timskimilenici.dto.ServiceCard;
 import com.example.timskimilenici.entities.PetService;
 import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.services.ResponseCache;
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import com.example.timskimilenici.util.CursorPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,19 +23,37 @@ public class PetServiceController {
         private static final int MAX_TOP_LIMIT = 50;
 
         private final PetServiceRepository petServiceRepository;
+        private final CatalogueIndex catalogueIndex;
+        private final ResponseCache responseCache;
 
-        public PetServiceController(PetServiceRepository petServiceRepository) {
+        public PetServiceController(PetServiceRepository petServiceRepository,
+                                    CatalogueIndex catalogueIndex,
+                                    ResponseCache responseCache) {
             this.petServiceRepository = petServiceRepository;
+            this.catalogueIndex = catalogueIndex;
+            this.responseCache = responseCache;
         }
 
         @GetMapping
-        public List<PetService> getAll() {
-            return petServiceRepository.findAll();
+        public List<ServiceCard> getAll() {
+            return petServiceRepository.findAllCards();
+        }
+
+        /**
+         * Keyset-paginated variant of {@link #getAll()}, in id order.
+         * GET /api/services/page?cursor=&size=
+         */
+        @GetMapping("/page")
+        public CursorPage<ServiceCard> getPage(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+            int pageSize = CursorPage.clampSize(size);
+            List<ServiceCard> rows = petServiceRepository.findCardPageAfter(CursorPage.decodeId(cursor), CursorPage.probe(pageSize));
+            return CursorPage.of(rows, pageSize, s -> CursorPage.encode(s.id()));
         }
 
         @GetMapping("/promoted")
-        public List<PetService> getPromoted() {
-            return petServiceRepository.findPromotedServices();
+        public List<ServiceCard> getPromoted() {
+            return petServiceRepository.findPromotedCards();
         }
 
         /**
@@ -40,7 +62,7 @@ public class PetServiceController {
          * load only the ranked rows. Limit is capped server-side.
          */
         @GetMapping("/top")
-        public List<PetService> getTop(@RequestParam(required = false) Integer limit) {
+        public List<ServiceCard> getTop(@RequestParam(required = false) Integer limit) {
             int cap = limit == null || limit <= 0 ? DEFAULT_TOP_LIMIT : Math.min(limit, MAX_TOP_LIMIT);
             List<Object[]> ranked = petServiceRepository.findTopServiceIdsByBookings(cap);
             if (ranked.isEmpty()) return List.of();
@@ -51,26 +73,26 @@ public class PetServiceController {
                     ids.add(((Number) row[0]).longValue());
                 }
             }
-            Map<Long, PetService> byId = new HashMap<>();
-            for (PetService s : petServiceRepository.findAllById(ids)) {
-                byId.put(s.getId(), s);
+            Map<Long, ServiceCard> byId = new HashMap<>();
+            for (ServiceCard s : petServiceRepository.findCardsByIds(ids)) {
+                byId.put(s.id(), s);
             }
-            List<PetService> ordered = new ArrayList<>(ids.size());
+            List<ServiceCard> ordered = new ArrayList<>(ids.size());
             for (Long id : ids) {
-                PetService s = byId.get(id);
+                ServiceCard s = byId.get(id);
                 if (s != null) ordered.add(s);
             }
             return ordered;
         }
 
         @GetMapping("/business/{businessId}")
-        public List<PetService> getByBusiness(@PathVariable Long businessId) {
-            return petServiceRepository.findByBusinessId(businessId);
+        public List<ServiceCard> getByBusiness(@PathVariable Long businessId) {
+            return petServiceRepository.findCardsByBusinessId(businessId);
         }
 
         @GetMapping("/{id}")
-        public ResponseEntity<PetService> getById(@PathVariable Long id) {
-            return petServiceRepository.findById(id)
+        public ResponseEntity<ServiceCard> getById(@PathVariable Long id) {
+            return petServiceRepository.findCardById(id)
                     .map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
         }
@@ -78,7 +100,10 @@ public class PetServiceController {
         @PostMapping
         @PreAuthorize("hasRole('OWNER')")
         public PetService create(@RequestBody PetService service) {
-            return petServiceRepository.save(service);
+            PetService saved = petServiceRepository.save(service);
+            catalogueIndex.upsertService(saved);
+            invalidateCachedListings();
+            return saved;
         }
 
         @PutMapping("/{id}")
@@ -91,7 +116,10 @@ public class PetServiceController {
                 service.setPromotionPrice(serviceDetails.getPromotionPrice());
                 service.setCapacity(serviceDetails.getCapacity());
                 service.setDurationMinutes(serviceDetails.getDurationMinutes());
-                return ResponseEntity.ok(petServiceRepository.save(service));
+                PetService saved = petServiceRepository.save(service);
+                catalogueIndex.upsertService(saved);
+                invalidateCachedListings();
+                return ResponseEntity.ok(saved);
             }).orElse(ResponseEntity.notFound().build());
         }
 
@@ -100,8 +128,15 @@ public class PetServiceController {
         public ResponseEntity<Void> delete(@PathVariable Long id) {
             if (petServiceRepository.existsById(id)) {
                 petServiceRepository.deleteById(id);
+                catalogueIndex.removeService(id);
+                invalidateCachedListings();
                 return ResponseEntity.noContent().build();
             }
             return ResponseEntity.notFound().build();
         }
+
+        /** Store cards do not carry items, so only the service listings and ranking go stale. */
+        private void invalidateCachedListings() {
+            responseCache.invalidate(ResponseCache.Region.SERVICES, ResponseCache.Region.SERVICE_RANKING);
+        }
     }
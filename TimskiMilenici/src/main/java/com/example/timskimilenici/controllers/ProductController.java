@@ -1,7 +1,11 @@
 package com.example.timskimilenici.controllers;
 
+import com.example.timskimilenici.dto.ProductCard;
 import com.example.timskimilenici.entities.Product;
 import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.services.ResponseCache;
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import com.example.timskimilenici.util.CursorPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,30 +23,48 @@ public class ProductController {
     private static final int MAX_TOP_LIMIT = 50;
 
     private final ProductRepository productRepository;
+    private final CatalogueIndex catalogueIndex;
+    private final ResponseCache responseCache;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository,
+                             CatalogueIndex catalogueIndex,
+                             ResponseCache responseCache) {
         this.productRepository = productRepository;
+        this.catalogueIndex = catalogueIndex;
+        this.responseCache = responseCache;
     }
 
     @GetMapping
-    public List<Product> getAll() {
-        return productRepository.findAll();
+    public List<ProductCard> getAll() {
+        return productRepository.findAllCards();
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getAll()}, in id order.
+     * GET /api/products/page?cursor=&size=
+     */
+    @GetMapping("/page")
+    public CursorPage<ProductCard> getPage(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<ProductCard> rows = productRepository.findCardPageAfter(CursorPage.decodeId(cursor), CursorPage.probe(pageSize));
+        return CursorPage.of(rows, pageSize, p -> CursorPage.encode(p.id()));
     }
 
     @GetMapping("/promoted")
-    public List<Product> getPromoted() {
-        return productRepository.findPromotedProducts();
+    public List<ProductCard> getPromoted() {
+        return productRepository.findPromotedCards();
     }
 
     /**
      * Top products globally, ranked by total units sold across every order.
      * The repository runs a single aggregating query (one DB round trip) and
-     * we then load only the matching {@link Product} rows in their ranked
+     * we then load only the matching {@link ProductCard} rows in their ranked
      * order. Limit is capped server-side so a malicious client can't ask for
      * an unbounded scan.
      */
     @GetMapping("/top")
-    public List<Product> getTop(@RequestParam(required = false) Integer limit) {
+    public List<ProductCard> getTop(@RequestParam(required = false) Integer limit) {
         int cap = limit == null || limit <= 0 ? DEFAULT_TOP_LIMIT : Math.min(limit, MAX_TOP_LIMIT);
         List<Object[]> ranked = productRepository.findTopProductIdsBySales(cap);
         if (ranked.isEmpty()) return List.of();
@@ -53,27 +75,27 @@ public class ProductController {
                 ids.add(((Number) row[0]).longValue());
             }
         }
-        Map<Long, Product> byId = new HashMap<>();
-        for (Product p : productRepository.findAllById(ids)) {
-            byId.put(p.getId(), p);
+        Map<Long, ProductCard> byId = new HashMap<>();
+        for (ProductCard p : productRepository.findCardsByIds(ids)) {
+            byId.put(p.id(), p);
         }
         // Preserve the ranked order from the aggregate query.
-        List<Product> ordered = new ArrayList<>(ids.size());
+        List<ProductCard> ordered = new ArrayList<>(ids.size());
         for (Long id : ids) {
-            Product p = byId.get(id);
+            ProductCard p = byId.get(id);
             if (p != null) ordered.add(p);
         }
         return ordered;
     }
 
     @GetMapping("/business/{businessId}")
-    public List<Product> getByBusiness(@PathVariable Long businessId) {
-        return productRepository.findByBusinessId(businessId);
+    public List<ProductCard> getByBusiness(@PathVariable Long businessId) {
+        return productRepository.findCardsByBusinessId(businessId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getById(@PathVariable Long id) {
-        return productRepository.findById(id)
+    public ResponseEntity<ProductCard> getById(@PathVariable Long id) {
+        return productRepository.findCardById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -81,7 +103,10 @@ public class ProductController {
     @PostMapping
     @PreAuthorize("hasRole('OWNER')")
     public Product create(@RequestBody Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogueIndex.upsertProduct(saved);
+        invalidateCachedListings();
+        return saved;
     }
 
     @PutMapping("/{id}")
@@ -93,7 +118,10 @@ public class ProductController {
             product.setOriginalPrice(productDetails.getOriginalPrice());
             product.setPromotionPrice(productDetails.getPromotionPrice());
             product.setStockQuantity(productDetails.getStockQuantity());
-            return ResponseEntity.ok(productRepository.save(product));
+            Product saved = productRepository.save(product);
+            catalogueIndex.upsertProduct(saved);
+            invalidateCachedListings();
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
@@ -102,8 +130,15 @@ public class ProductController {
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            catalogueIndex.removeProduct(id);
+            invalidateCachedListings();
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
+
+    /** Store cards do not carry items, so only the product listings and ranking go stale. */
+    private void invalidateCachedListings() {
+        responseCache.invalidate(ResponseCache.Region.PRODUCTS, ResponseCache.Region.PRODUCT_RANKING);
+    }
 }
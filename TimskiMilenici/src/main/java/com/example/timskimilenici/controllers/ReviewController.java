@@ -1,12 +1,10 @@
 package com.example.timskimilenici.controllers;
 
 import com.example.timskimilenici.entities.Review;
-import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.services.ReviewService;
-import com.example.timskimilenici.services.UserService;
+import com.example.timskimilenici.security.AuthenticatedUser;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -17,11 +15,9 @@ import java.util.Map;
 public class ReviewController {
 
     private final ReviewService reviewService;
-    private final UserService userService;
 
-    public ReviewController(ReviewService reviewService, UserService userService) {
+    public ReviewController(ReviewService reviewService) {
         this.reviewService = reviewService;
-        this.userService = userService;
     }
 
     @GetMapping("/business/{businessId}")
@@ -33,15 +29,14 @@ public class ReviewController {
 
     @PostMapping("/business/{businessId}")
     public ResponseEntity<Review> addReview(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long businessId,
             @RequestBody CreateReviewRequest request
     ) {
-        if (userDetails == null) {
+        if (currentUser == null) {
             return ResponseEntity.status(401).build();
         }
-        User user = userService.getUserByIdentifier(userDetails.getUsername());
-        Review created = reviewService.addReview(businessId, user.getId(), request.rating(), request.comment());
+        Review created = reviewService.addReview(businessId, currentUser.getId(), request.rating(), request.comment());
         return ResponseEntity.ok(created);
     }
 }
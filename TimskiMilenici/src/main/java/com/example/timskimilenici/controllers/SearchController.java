@@ -0,0 +1,63 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.services.search.CatalogueSearchService;
+import com.example.timskimilenici.services.search.SearchHit;
+import com.example.timskimilenici.services.search.SearchPage;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final CatalogueSearchService searchService;
+
+    public SearchController(CatalogueSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Ranked search across stores, products and services. {@code type} narrows
+     * the kinds searched (e.g. {@code type=product,service}); all kinds by
+     * default. Page size is capped server-side.
+     */
+    @GetMapping
+    public SearchPage search(@RequestParam String q,
+                             @RequestParam(required = false) List<String> type,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(required = false) Integer size) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must not be negative");
+        }
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        return searchService.search(q, parseKinds(type), page, pageSize);
+    }
+
+    private static Set<SearchHit.Kind> parseKinds(List<String> types) {
+        if (types == null || types.isEmpty()) {
+            return EnumSet.allOf(SearchHit.Kind.class);
+        }
+        Set<SearchHit.Kind> kinds = EnumSet.noneOf(SearchHit.Kind.class);
+        for (String t : types) {
+            try {
+                kinds.add(SearchHit.Kind.valueOf(t.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown search type '" + t + "'; use store, product or service");
+            }
+        }
+        return kinds;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.timskimilenici.dto;
+
+import com.example.timskimilenici.entities.Booking;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A booking as shown in booking lists, with the booked service and the
+ * customer reduced to the fields those lists display. Keeps the
+ * {@code service} and {@code user} object shape of the entity's JSON.
+ */
+public record BookingView(
+        Long id,
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime bookingTime,
+        Booking.BookingStatus status,
+        String notes,
+        ServiceRef service,
+        CustomerRef user
+) {
+    public record ServiceRef(
+            Long id,
+            String name,
+            BigDecimal originalPrice,
+            BigDecimal promotionPrice,
+            Integer durationMinutes,
+            Long businessId,
+            String businessName
+    ) {
+        @JsonProperty("currentPrice")
+        public BigDecimal currentPrice() {
+            return ItemPricing.currentPrice(originalPrice, promotionPrice);
+        }
+    }
+
+    public record CustomerRef(Long id, String username, String fullName, String phoneNumber) {}
+}
@@ -0,0 +1,24 @@
+package com.example.timskimilenici.dto;
+
+import java.util.List;
+
+/**
+ * What a store tile needs: identity, categories, location, images and
+ * rating. Unlike the {@code Business} entity it never carries the store's
+ * services, products, schedule or owner, so listing N stores costs a fixed
+ * handful of queries rather than several per store.
+ */
+public record BusinessCard(
+        Long id,
+        String name,
+        String description,
+        String category,
+        List<String> categories,
+        String address,
+        Double latitude,
+        Double longitude,
+        String mainImageUrl,
+        List<String> imageUrls,
+        Double averageRating,
+        Long reviewCount
+) {}
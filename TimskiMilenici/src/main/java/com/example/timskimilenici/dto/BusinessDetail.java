@@ -0,0 +1,21 @@
+package com.example.timskimilenici.dto;
+
+import com.example.timskimilenici.entities.WorkingDaySlot;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A store page: the card fields (flattened into the same JSON object) plus
+ * contact details, opening hours and the store's items as cards.
+ */
+public record BusinessDetail(
+        @JsonUnwrapped BusinessCard card,
+        String contactPhone,
+        String contactEmail,
+        Map<DayOfWeek, WorkingDaySlot> workingSchedule,
+        List<ServiceCard> services,
+        List<ProductCard> products
+) {}
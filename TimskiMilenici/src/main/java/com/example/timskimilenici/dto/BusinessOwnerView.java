@@ -0,0 +1,13 @@
+package com.example.timskimilenici.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.time.LocalDateTime;
+
+/** The owner dashboard's view of one of their stores: the detail view plus bookkeeping fields. */
+public record BusinessOwnerView(
+        @JsonUnwrapped BusinessDetail detail,
+        Long ownerId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
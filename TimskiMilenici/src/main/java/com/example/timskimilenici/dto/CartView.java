@@ -0,0 +1,9 @@
+package com.example.timskimilenici.dto;
+
+import java.util.List;
+
+/** A cart with each line's product as a {@link ProductCard}. */
+public record CartView(Long id, List<Line> items) {
+
+    public record Line(Long id, Integer quantity, ProductCard product) {}
+}
@@ -0,0 +1,19 @@
+package com.example.timskimilenici.dto;
+
+import java.math.BigDecimal;
+
+/** Price rules shared by the item views; the same as {@code BaseItem#getCurrentPrice()} and {@code hasSpecialOffer()}. */
+final class ItemPricing {
+
+    private ItemPricing() {}
+
+    static boolean onSale(BigDecimal originalPrice, BigDecimal promotionPrice) {
+        return promotionPrice != null
+                && originalPrice != null
+                && promotionPrice.compareTo(originalPrice) < 0;
+    }
+
+    static BigDecimal currentPrice(BigDecimal originalPrice, BigDecimal promotionPrice) {
+        return onSale(originalPrice, promotionPrice) ? promotionPrice : originalPrice;
+    }
+}
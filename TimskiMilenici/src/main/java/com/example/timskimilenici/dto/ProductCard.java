@@ -0,0 +1,32 @@
+package com.example.timskimilenici.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * A product as listed in the catalogue, with just the owning store's id and
+ * name instead of the store entity. Built by a constructor expression in
+ * {@code ProductRepository}, so a listing is one query with no lazy loads.
+ * Field names match the {@code Product} entity's JSON.
+ */
+public record ProductCard(
+        Long id,
+        String name,
+        String description,
+        BigDecimal originalPrice,
+        BigDecimal promotionPrice,
+        Integer stockQuantity,
+        Long businessId,
+        String businessName
+) {
+    @JsonProperty("currentPrice")
+    public BigDecimal currentPrice() {
+        return ItemPricing.currentPrice(originalPrice, promotionPrice);
+    }
+
+    @JsonProperty("onSale")
+    public boolean onSale() {
+        return ItemPricing.onSale(originalPrice, promotionPrice);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.timskimilenici.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * A pet service as listed in the catalogue; the service counterpart of
+ * {@link ProductCard}. Field names match the {@code PetService} entity's JSON.
+ */
+public record ServiceCard(
+        Long id,
+        String name,
+        String description,
+        BigDecimal originalPrice,
+        BigDecimal promotionPrice,
+        Integer capacity,
+        Integer durationMinutes,
+        Long businessId,
+        String businessName
+) {
+    @JsonProperty("currentPrice")
+    public BigDecimal currentPrice() {
+        return ItemPricing.currentPrice(originalPrice, promotionPrice);
+    }
+
+    @JsonProperty("onSale")
+    public boolean onSale() {
+        return ItemPricing.onSale(originalPrice, promotionPrice);
+    }
+}
@@ -5,7 +5,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Keyset paging of a user's bookings, newest first.
+        @Index(name = "idx_bookings_user_time", columnList = "user_id, booking_time DESC, id DESC"),
+        // Keyset paging of a business's bookings; filters on the copied business_id, not a join.
+        @Index(name = "idx_bookings_business_time", columnList = "business_id, booking_time DESC, id DESC"),
+        @Index(name = "idx_bookings_service_time", columnList = "service_id, booking_time DESC, id DESC")
+})
 public class Booking {
 
     @Id
@@ -22,6 +28,14 @@ public class Booking {
     @JsonIgnoreProperties({"business", "services", "products"})
     private PetService service;
 
+    /**
+     * Copy of {@code service.business.id}, set on save. Services never move
+     * between businesses, so it can't go stale; rows from before the column
+     * existed are filled in on startup by {@code BookingService}.
+     */
+    @Column(name = "business_id")
+    private Long businessId;
+
     @Column(nullable = false)
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime bookingTime;
@@ -43,6 +57,14 @@ public class Booking {
         this.notes = notes;
     }
 
+    @PrePersist
+    @PreUpdate
+    void copyBusinessId() {
+        if (service != null && service.getBusiness() != null) {
+            businessId = service.getBusiness().getId();
+        }
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public User getUser() { return user; }
@@ -2,6 +2,7 @@ package com.example.timskimilenici.entities;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.EnumMap;
@@ -12,6 +13,13 @@ import java.util.Map;
 @Table(name = "businesses")
 public class Business {
 
+    /**
+     * How many businesses' collections Hibernate loads per query once one of
+     * them is touched. Listing a page of businesses then costs one query per
+     * collection rather than one per business per collection.
+     */
+    static final int BATCH_SIZE = 64;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,6 +41,7 @@ public class Business {
      * One business can belong to multiple categories/types (e.g. Grooming, Veterinary).
      */
     @ElementCollection
+    @BatchSize(size = BATCH_SIZE)
     @CollectionTable(name = "business_categories", joinColumns = @JoinColumn(name = "business_id"))
     @Column(name = "category")
     private List<String> categories;
@@ -50,6 +59,7 @@ public class Business {
     private Double longitude;
 
     @ElementCollection
+    @BatchSize(size = BATCH_SIZE)
     @CollectionTable(name = "business_images", joinColumns = @JoinColumn(name = "business_id"))
     @Column(name = "image_url")
     private List<String> imageUrls;
@@ -68,10 +78,12 @@ public class Business {
     private User owner;
 
     @OneToMany(mappedBy = "business", cascade = CascadeType.ALL)
+    @BatchSize(size = BATCH_SIZE)
     @JsonManagedReference
     private List<PetService> services;
 
     @OneToMany(mappedBy = "business", cascade = CascadeType.ALL)
+    @BatchSize(size = BATCH_SIZE)
     @JsonManagedReference
     private List<Product> products;
 
@@ -85,16 +97,17 @@ public class Business {
      * Weekly opening hours. Keys are {@link DayOfWeek} (serialized as MONDAY, TUESDAY, ... in JSON).
      */
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = BATCH_SIZE)
     @CollectionTable(name = "business_working_schedule", joinColumns = @JoinColumn(name = "business_id"))
     @MapKeyColumn(name = "day_of_week")
     @MapKeyEnumerated(EnumType.STRING)
     private Map<DayOfWeek, WorkingDaySlot> workingSchedule = new EnumMap<>(DayOfWeek.class);
 
     /**
-     * Average review rating, hydrated by {@code BusinessService} via a single
-     * aggregate query. Not persisted — review data lives in the {@code reviews}
-     * table and is summarized on read so the listing payload always reflects
-     * the latest counts without N+1 queries.
+     * Average review rating, hydrated by {@code BusinessService} from the
+     * {@code business_rating_summaries} table. Not persisted on this entity —
+     * the summary row is kept current by {@code RatingSummaryService} whenever
+     * a review is written, so listings avoid N+1 queries and full review scans.
      */
     @Transient
     private Double averageRating;
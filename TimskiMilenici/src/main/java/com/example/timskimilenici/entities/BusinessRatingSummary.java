@@ -0,0 +1,42 @@
+package com.example.timskimilenici.entities;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted per-business review aggregate. Maintained incrementally whenever a
+ * review is written and periodically reconciled against the {@code reviews}
+ * table, so listing screens can read ratings by primary key instead of
+ * grouping the whole review table on every request.
+ */
+@Entity
+@Table(name = "business_rating_summaries",
+        indexes = @Index(name = "idx_rating_summary_rank", columnList = "average_rating DESC, review_count DESC"))
+public class BusinessRatingSummary {
+
+    /** Same value as the owning {@link Business#getId()}; not generated. */
+    @Id
+    @Column(name = "business_id")
+    private Long businessId;
+
+    @Column(name = "rating_sum", nullable = false, precision = 14, scale = 1)
+    private BigDecimal ratingSum;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "average_rating", nullable = false)
+    private double averageRating;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected BusinessRatingSummary() {}
+
+    public Long getBusinessId() { return businessId; }
+    public BigDecimal getRatingSum() { return ratingSum; }
+    public long getReviewCount() { return reviewCount; }
+    public double getAverageRating() { return averageRating; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,46 @@
+package com.example.timskimilenici.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted geocoding result keyed by normalized address. A row with null
+ * coordinates records a confirmed miss ("provider has no match") so it isn't
+ * looked up again until it expires.
+ */
+@Entity
+@Table(name = "geocode_cache")
+public class GeocodeCacheEntry {
+
+    @Id
+    @Column(name = "address_key", length = 1024)
+    private String addressKey;
+
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
+    @Column(nullable = false)
+    private LocalDateTime resolvedAt;
+
+    protected GeocodeCacheEntry() {}
+
+    public GeocodeCacheEntry(String addressKey, Double latitude, Double longitude, LocalDateTime resolvedAt) {
+        this.addressKey = addressKey;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.resolvedAt = resolvedAt;
+    }
+
+    public String getAddressKey() { return addressKey; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+
+    /** True when this row records a confirmed "no match" rather than coordinates. */
+    public boolean isMiss() {
+        return latitude == null || longitude == null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.timskimilenici.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker for a resumable background job. Jobs walk their rows in id
+ * order and record the last id committed, so a restart (or a crash mid-run)
+ * resumes after that id instead of starting over.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private State state;
+
+    @Column(nullable = false)
+    private long lastProcessedId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long updated;
+
+    /** Rows this pass examined but could not complete; a later pass retries them. */
+    @Column(columnDefinition = "bigint not null default 0")
+    private long failed;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column
+    private LocalDateTime startedAt;
+
+    @Column
+    private LocalDateTime finishedAt;
+
+    @Column
+    private LocalDateTime updatedAt;
+
+    protected JobCheckpoint() {}
+
+    public JobCheckpoint(String jobName) {
+        this.jobName = jobName;
+        restart();
+    }
+
+    /** Reset counters and cursor for a fresh run. */
+    public void restart() {
+        this.state = State.RUNNING;
+        this.lastProcessedId = 0;
+        this.processed = 0;
+        this.updated = 0;
+        this.failed = 0;
+        this.lastError = null;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /** Record one committed chunk. */
+    public void advance(long lastProcessedId, int processedInChunk, int updatedInChunk, int failedInChunk) {
+        this.lastProcessedId = lastProcessedId;
+        this.processed += processedInChunk;
+        this.updated += updatedInChunk;
+        this.failed += failedInChunk;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public String getJobName() { return jobName; }
+    public State getState() { return state; }
+    public void setState(State state) {
+        this.state = state;
+        this.updatedAt = LocalDateTime.now();
+        if (state != State.RUNNING) {
+            this.finishedAt = LocalDateTime.now();
+        } else {
+            this.finishedAt = null;
+        }
+    }
+    public long getLastProcessedId() { return lastProcessedId; }
+    public long getProcessed() { return processed; }
+    public long getUpdated() { return updated; }
+    public long getFailed() { return failed; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
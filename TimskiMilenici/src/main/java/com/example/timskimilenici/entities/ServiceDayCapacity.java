@@ -0,0 +1,65 @@
+package com.example.timskimilenici.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Running count of non-cancelled bookings for one service on one day. The
+ * row is locked while a booking is taken, so the capacity check and the
+ * insert are atomic even when many requests race for the last place.
+ */
+@Entity
+@Table(name = "service_day_capacity")
+public class ServiceDayCapacity {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long booked;
+
+    protected ServiceDayCapacity() {}
+
+    public ServiceDayCapacity(Long serviceId, LocalDate day, long booked) {
+        this.id = new Key(serviceId, day);
+        this.booked = booked;
+    }
+
+    public Key getId() { return id; }
+    public long getBooked() { return booked; }
+    public void setBooked(long booked) { this.booked = booked; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "service_id", nullable = false)
+        private Long serviceId;
+
+        @Column(name = "booking_date", nullable = false)
+        private LocalDate day;
+
+        protected Key() {}
+
+        public Key(Long serviceId, LocalDate day) {
+            this.serviceId = serviceId;
+            this.day = day;
+        }
+
+        public Long getServiceId() { return serviceId; }
+        public LocalDate getDay() { return day; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(serviceId, other.serviceId) && Objects.equals(day, other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(serviceId, day);
+        }
+    }
+}
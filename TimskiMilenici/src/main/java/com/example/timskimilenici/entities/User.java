@@ -1,10 +1,13 @@
 package com.example.timskimilenici.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+// Business owners are eager to-one references; batch them when a listing loads many businesses.
+@BatchSize(size = 64)
 public class User {
 
     @Id
@@ -1,7 +1,9 @@
 package com.example.timskimilenici.repositories;
 
 import com.example.timskimilenici.entities.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,13 +14,83 @@ import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByUserId(Long userId);
     List<Booking> findByServiceBusinessId(Long businessId);
-    List<Booking> findByService_Business_IdAndBookingTimeBetween(Long businessId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Select clause for booking list rows: {@code [id, bookingTime, status,
+     * notes, serviceId, serviceName, originalPrice, promotionPrice,
+     * durationMinutes, businessId, businessName, userId, username, fullName,
+     * phoneNumber]}. One join across service, store and customer, so a list
+     * of N bookings is a single query.
+     */
+    String VIEW_SELECT = "SELECT b.id, b.bookingTime, b.status, b.notes, " +
+            "s.id, s.name, s.originalPrice, s.promotionPrice, s.durationMinutes, biz.id, biz.name, " +
+            "u.id, u.username, u.fullName, u.phoneNumber " +
+            "FROM Booking b JOIN b.service s JOIN s.business biz JOIN b.user u ";
+
+    /** Fill in {@code business_id} on bookings saved before the column existed. */
+    @Modifying
+    @Query(value = "UPDATE bookings SET business_id = " +
+                   "(SELECT ps.business_id FROM pet_services ps WHERE ps.id = bookings.service_id) " +
+                   "WHERE business_id IS NULL", nativeQuery = true)
+    int backfillBusinessIds();
+
+    @Query(VIEW_SELECT + "WHERE u.id = :userId ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Object[]> findViewRowsByUserId(@Param("userId") Long userId);
+
+    @Query(VIEW_SELECT + "WHERE biz.id = :businessId ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Object[]> findViewRowsByBusinessId(@Param("businessId") Long businessId);
+
+    @Query(VIEW_SELECT + "WHERE biz.id = :businessId AND b.bookingTime BETWEEN :start AND :end ORDER BY b.bookingTime, b.id")
+    List<Object[]> findViewRowsByBusinessIdAndBookingTimeBetween(@Param("businessId") Long businessId,
+                                                                 @Param("start") LocalDateTime start,
+                                                                 @Param("end") LocalDateTime end);
+
+    /*
+     * Keyset pages of a user's or a business's bookings, newest first. The
+     * sort key is (bookingTime, id) so bookings at the same time still page
+     * deterministically; the "Before" variants continue after a cursor row.
+     */
+    @Query(VIEW_SELECT + "WHERE u.id = :userId ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Object[]> findViewPageByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(VIEW_SELECT + "WHERE u.id = :userId " +
+           "AND (b.bookingTime < :time OR (b.bookingTime = :time AND b.id < :id)) " +
+           "ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Object[]> findViewPageByUserBefore(@Param("userId") Long userId, @Param("time") LocalDateTime time,
+                                            @Param("id") long id, Pageable pageable);
+
+    // Business pages filter on b.businessId so they are served by idx_bookings_business_time.
+    @Query(VIEW_SELECT + "WHERE b.businessId = :businessId ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Object[]> findViewPageByBusiness(@Param("businessId") Long businessId, Pageable pageable);
+
+    @Query(VIEW_SELECT + "WHERE b.businessId = :businessId " +
+           "AND (b.bookingTime < :time OR (b.bookingTime = :time AND b.id < :id)) " +
+           "ORDER BY b.bookingTime DESC, b.id DESC")
+    List<Object[]> findViewPageByBusinessBefore(@Param("businessId") Long businessId, @Param("time") LocalDateTime time,
+                                                @Param("id") long id, Pageable pageable);
 
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.service.id = :serviceId AND b.bookingTime >= :start AND b.bookingTime < :end AND b.status != 'CANCELLED'")
     long countByServiceIdAndBookingTimeBetween(@Param("serviceId") Long serviceId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
+    /**
+     * Non-cancelled bookings per calendar day for one service over
+     * {@code [start, end)}, as {@code [day, count]} rows. Days without
+     * bookings are absent.
+     */
+    @Query("""
+           SELECT CAST(b.bookingTime AS LocalDate) AS day, COUNT(b) AS bookings
+           FROM Booking b
+           WHERE b.service.id = :serviceId
+             AND b.bookingTime >= :start
+             AND b.bookingTime < :end
+             AND b.status != 'CANCELLED'
+           GROUP BY CAST(b.bookingTime AS LocalDate)
+           """)
+    List<Object[]> countActiveByServiceGroupedByDay(@Param("serviceId") Long serviceId,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end);
+
     /** Load booking with service and user only (for notification; business/owner loaded via separate query). */
     @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.service LEFT JOIN FETCH b.user WHERE b.id = :id")
     Optional<Booking> findByIdWithServiceAndUser(@Param("id") Long id);
@@ -31,7 +103,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findByIdWithServiceBusinessOwnerAndUser(@Param("id") Long id);
 
     @Query("""
-           SELECT DATE(b.bookingTime) AS day,
+           SELECT CAST(b.bookingTime AS LocalDate) AS day,
                   COUNT(b) AS bookings,
                   SUM(CASE WHEN b.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed,
                   SUM(CASE WHEN b.status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelled,
@@ -43,7 +115,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
              AND b.bookingTime >= :from
              AND b.bookingTime <= :to
              AND (:businessId IS NULL OR biz.id = :businessId)
-           GROUP BY DATE(b.bookingTime)
+           GROUP BY CAST(b.bookingTime AS LocalDate)
            ORDER BY day ASC
            """)
     List<Object[]> aggregateOverviewByOwnerAndDate(@Param("ownerId") Long ownerId,
@@ -75,7 +147,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     @Query(value = """
            SELECT EXTRACT(DOW FROM b.booking_time)  AS dow,
-                  EXTRACT(HOUR FROM b.booking_time) AS hour,
+                  EXTRACT(HOUR FROM b.booking_time) AS hour_of_day,
                   COUNT(b.id)                       AS bookings
            FROM bookings b
            JOIN pet_services ps ON ps.id = b.service_id
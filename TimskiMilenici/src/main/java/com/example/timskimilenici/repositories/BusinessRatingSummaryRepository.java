@@ -0,0 +1,105 @@
+package com.example.timskimilenici.repositories;
+
+import com.example.timskimilenici.entities.BusinessRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface BusinessRatingSummaryRepository extends JpaRepository<BusinessRatingSummary, Long> {
+
+    /**
+     * Apply a delta to an existing summary. Returns 0 when the business has
+     * no summary row yet; see {@code RatingSummaryService#recordReviewAdded}.
+     * Plain {@code UPDATE} so it runs on PostgreSQL and the H2 test database.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE business_rating_summaries
+               SET rating_sum     = rating_sum + :sumDelta,
+                   review_count   = review_count + :countDelta,
+                   average_rating = COALESCE((rating_sum + :sumDelta) / NULLIF(review_count + :countDelta, 0), 0),
+                   updated_at     = CURRENT_TIMESTAMP
+             WHERE business_id = :businessId
+            """, nativeQuery = true)
+    int applyDelta(@Param("businessId") Long businessId,
+                   @Param("sumDelta") BigDecimal sumDelta,
+                   @Param("countDelta") long countDelta);
+
+    /** Create a business's first summary row. Returns 0 if one already exists. */
+    @Modifying
+    @Query(value = """
+            INSERT INTO business_rating_summaries (business_id, rating_sum, review_count, average_rating, updated_at)
+            SELECT :businessId, :ratingSum, :reviewCount,
+                   COALESCE(:ratingSum / NULLIF(:reviewCount, 0), 0), CURRENT_TIMESTAMP
+             WHERE NOT EXISTS (SELECT 1 FROM business_rating_summaries WHERE business_id = :businessId)
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("businessId") Long businessId,
+                       @Param("ratingSum") BigDecimal ratingSum,
+                       @Param("reviewCount") long reviewCount);
+
+    /**
+     * Lock the business row ({@code SELECT ... FOR UPDATE}) until the caller's
+     * transaction ends, so two first reviews for a business can't both insert
+     * its summary.
+     */
+    @Query(value = "SELECT id FROM businesses WHERE id = :businessId FOR UPDATE", nativeQuery = true)
+    Long lockBusiness(@Param("businessId") Long businessId);
+
+    /**
+     * Ids of the best-rated businesses: average rating desc, then review count
+     * desc, then name. Walks {@code idx_rating_summary_rank} and stops after
+     * {@code limit} rows, so the cost tracks the page size, not the catalogue.
+     */
+    @Query(value = """
+            SELECT s.business_id
+              FROM business_rating_summaries s
+              JOIN businesses b ON b.id = s.business_id
+             ORDER BY s.average_rating DESC, s.review_count DESC, LOWER(b.name) ASC
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findTopRatedBusinessIds(@Param("limit") int limit);
+
+    /**
+     * Rewrite summaries whose stored totals differ from the {@code reviews}
+     * table. Returns the number of summaries that had drifted. Together with
+     * {@link #insertMissingFromReviews()} this rebuilds the table with
+     * portable SQL (no {@code ON CONFLICT}), so it also runs on H2.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE business_rating_summaries s
+               SET rating_sum     = (SELECT SUM(r.rating) FROM reviews r WHERE r.business_id = s.business_id),
+                   review_count   = (SELECT COUNT(*) FROM reviews r WHERE r.business_id = s.business_id),
+                   average_rating = (SELECT AVG(r.rating) FROM reviews r WHERE r.business_id = s.business_id),
+                   updated_at     = CURRENT_TIMESTAMP
+             WHERE EXISTS (SELECT 1 FROM reviews r WHERE r.business_id = s.business_id)
+               AND (s.rating_sum <> (SELECT SUM(r.rating) FROM reviews r WHERE r.business_id = s.business_id)
+                 OR s.review_count <> (SELECT COUNT(*) FROM reviews r WHERE r.business_id = s.business_id))
+            """, nativeQuery = true)
+    int reconcileFromReviews();
+
+    /** Create summaries for businesses that have reviews but no summary row. */
+    @Modifying
+    @Query(value = """
+            INSERT INTO business_rating_summaries (business_id, rating_sum, review_count, average_rating, updated_at)
+            SELECT r.business_id, SUM(r.rating), COUNT(*), AVG(r.rating), CURRENT_TIMESTAMP
+              FROM reviews r
+             WHERE NOT EXISTS (SELECT 1 FROM business_rating_summaries s WHERE s.business_id = r.business_id)
+             GROUP BY r.business_id
+            """, nativeQuery = true)
+    int insertMissingFromReviews();
+
+    /** Remove summaries for businesses that no longer have any review. */
+    @Modifying
+    @Query(value = """
+            DELETE FROM business_rating_summaries s
+             WHERE NOT EXISTS (SELECT 1 FROM reviews r WHERE r.business_id = s.business_id)
+            """, nativeQuery = true)
+    int deleteOrphaned();
+}
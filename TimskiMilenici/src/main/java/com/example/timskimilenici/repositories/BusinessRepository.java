@@ -1,8 +1,13 @@
 package com.example.timskimilenici.repositories;
 
 import com.example.timskimilenici.entities.Business;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,8 +17,90 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
     List<Business> findByAddressContainingIgnoreCase(String address);
     List<Business> findByOwnerId(Long ownerId);
 
+    /**
+     * Select clause for store card rows: {@code [id, name, description,
+     * category, address, latitude, longitude, mainImageUrl]}. The categories
+     * and images collections are fetched separately for the whole batch.
+     */
+    String CARD_SELECT = "SELECT b.id, b.name, b.description, b.category, b.address, " +
+            "b.latitude, b.longitude, b.mainImageUrl FROM Business b ";
+
+    @Query(CARD_SELECT + "ORDER BY b.id")
+    List<Object[]> findAllCardRows();
+
+    /** Keyset page in id order: businesses after {@code afterId}, as many as {@code pageable} allows. */
+    @Query(CARD_SELECT + "WHERE b.id > :afterId ORDER BY b.id")
+    List<Object[]> findCardRowsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE b.id IN :ids")
+    List<Object[]> findCardRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /** Rows of {@code [businessId, category]} for the given businesses. */
+    @Query("SELECT b.id, c FROM Business b JOIN b.categories c WHERE b.id IN :ids")
+    List<Object[]> findCategoryRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /** Rows of {@code [businessId, imageUrl]} for every business. */
+    @Query("SELECT b.id, i FROM Business b JOIN b.imageUrls i")
+    List<Object[]> findAllImageRows();
+
+    /** Rows of {@code [businessId, imageUrl]} for the given businesses. */
+    @Query("SELECT b.id, i FROM Business b JOIN b.imageUrls i WHERE b.id IN :ids")
+    List<Object[]> findImageRowsByIds(@Param("ids") Collection<Long> ids);
+
     /** Bounding-box pre-filter for nearby searches. */
     List<Business> findByLatitudeBetweenAndLongitudeBetween(
             Double minLatitude, Double maxLatitude,
             Double minLongitude, Double maxLongitude);
+
+    /** Rows of {@code [id, latitude, longitude]} for every geocoded business; feeds the in-memory geo index. */
+    @Query("SELECT b.id, b.latitude, b.longitude FROM Business b WHERE b.latitude IS NOT NULL AND b.longitude IS NOT NULL")
+    List<Object[]> findAllCoordinates();
+
+    /** Rows of {@code [id, name, category, address, description, contactPhone, contactEmail]}; feeds the catalogue search index. */
+    @Query("SELECT b.id, b.name, b.category, b.address, b.description, b.contactPhone, b.contactEmail FROM Business b")
+    List<Object[]> findAllCatalogueRows();
+
+    /** Rows of {@code [businessId, category]} for every multi-category entry. */
+    @Query("SELECT b.id, c FROM Business b JOIN b.categories c")
+    List<Object[]> findAllCategoryRows();
+
+    /**
+     * Ids of businesses without any review, alphabetically. Used to pad the
+     * "Top Stores" list when fewer than {@code limit} stores have been rated.
+     */
+    @Query(value = """
+            SELECT b.id
+              FROM businesses b
+             WHERE NOT EXISTS (SELECT 1 FROM business_rating_summaries s WHERE s.business_id = b.id)
+             ORDER BY LOWER(b.name) ASC
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findUnratedBusinessIdsByName(@Param("limit") int limit);
+
+    /**
+     * Next page of {@code [id, address]} rows that have an address but no
+     * coordinates, in id order after {@code afterId}. Keyset paging keeps each
+     * page an index range scan however far the backfill has progressed.
+     */
+    @Query("""
+           SELECT b.id, b.address FROM Business b
+            WHERE (b.latitude IS NULL OR b.longitude IS NULL)
+              AND b.address IS NOT NULL AND b.address <> ''
+              AND b.id > :afterId
+            ORDER BY b.id ASC
+           """)
+    List<Object[]> findMissingCoordinatesAfter(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Set coordinates only if the row is still missing them, so a backfill
+     * never overwrites coordinates an owner saved in the meantime.
+     */
+    @Modifying
+    @Query("""
+           UPDATE Business b SET b.latitude = :latitude, b.longitude = :longitude
+            WHERE b.id = :id AND (b.latitude IS NULL OR b.longitude IS NULL)
+           """)
+    int fillMissingCoordinates(@Param("id") Long id,
+                               @Param("latitude") Double latitude,
+                               @Param("longitude") Double longitude);
 }
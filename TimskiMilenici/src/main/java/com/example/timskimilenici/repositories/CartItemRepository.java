@@ -2,8 +2,23 @@ package com.example.timskimilenici.repositories;
 
 import com.example.timskimilenici.entities.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    /**
+     * Rows of {@code [itemId, quantity, productId, name, description,
+     * originalPrice, promotionPrice, stockQuantity, businessId, businessName]}
+     * for one cart, in the order items were added.
+     */
+    @Query("SELECT ci.id, ci.quantity, p.id, p.name, p.description, p.originalPrice, p.promotionPrice, " +
+           "p.stockQuantity, b.id, b.name " +
+           "FROM CartItem ci JOIN ci.product p JOIN p.business b " +
+           "WHERE ci.cart.id = :cartId ORDER BY ci.id")
+    List<Object[]> findViewRowsByCartId(@Param("cartId") Long cartId);
 }
@@ -0,0 +1,101 @@
+package com.example.timskimilenici.repositories;
+
+import com.example.timskimilenici.services.search.SearchHit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ranked catalogue search over the Postgres {@code search_vector} columns
+ * created by {@code FullTextSearchSchema}. Plain JDBC rather than a Spring
+ * Data interface because one query spans three tables and its shape depends
+ * on which kinds are requested. One round trip per page: the total match
+ * count rides along on every row as a window aggregate. The H2 test build
+ * never reaches this SQL; it is tested by {@code CatalogueSearchPostgresTest}
+ * ({@code mvn -Ppostgres test}, needs Docker).
+ */
+@Repository
+public class CatalogueSearchRepository {
+
+    private static final String STORE_BRANCH = """
+            SELECT 'STORE' AS kind, b.id, b.name, b.description, b.id AS store_id, b.name AS store_name,
+                   CAST(NULL AS numeric) AS original_price, CAST(NULL AS numeric) AS promotion_price,
+                   ts_rank_cd(b.search_vector, q.query) %s AS rank
+              FROM businesses b CROSS JOIN q
+             WHERE b.search_vector @@ q.query %s
+            """;
+    // Fuzzy address match: the query words against the address, served by idx_businesses_address_trgm.
+    private static final String STORE_TRIGRAM_RANK = "+ word_similarity(upper(:raw), upper(b.address))";
+    private static final String STORE_TRIGRAM_MATCH = "OR upper(:raw) <% upper(b.address)";
+
+    private static final String ITEM_BRANCH = """
+            SELECT '%s' AS kind, i.id, i.name, i.description, b.id AS store_id, b.name AS store_name,
+                   i.price AS original_price, i.promotion_price,
+                   ts_rank_cd(i.search_vector, q.query) AS rank
+              FROM %s i JOIN businesses b ON b.id = i.business_id CROSS JOIN q
+             WHERE i.search_vector @@ q.query
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public CatalogueSearchRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public record Result(List<SearchHit> hits, long total) {}
+
+    /**
+     * @param tsQuery  a {@code to_tsquery} expression built from sanitized tokens
+     * @param rawQuery the user's query as typed, for trigram address matching
+     * @param trigram  whether {@code pg_trgm} is installed
+     */
+    public Result search(String tsQuery, String rawQuery, Set<SearchHit.Kind> kinds,
+                         boolean trigram, int limit, long offset) {
+        List<String> branches = new ArrayList<>(3);
+        if (kinds.contains(SearchHit.Kind.STORE)) {
+            branches.add(trigram
+                    ? STORE_BRANCH.formatted(STORE_TRIGRAM_RANK, STORE_TRIGRAM_MATCH)
+                    : STORE_BRANCH.formatted("", ""));
+        }
+        if (kinds.contains(SearchHit.Kind.PRODUCT)) {
+            branches.add(ITEM_BRANCH.formatted("PRODUCT", "products"));
+        }
+        if (kinds.contains(SearchHit.Kind.SERVICE)) {
+            branches.add(ITEM_BRANCH.formatted("SERVICE", "pet_services"));
+        }
+        if (branches.isEmpty()) return new Result(List.of(), 0);
+
+        String sql = "WITH q AS (SELECT to_tsquery('english', :tsquery) AS query) "
+                + "SELECT hits.*, COUNT(*) OVER () AS total FROM ("
+                + String.join(" UNION ALL ", branches)
+                + ") hits ORDER BY rank DESC, kind, id LIMIT :limit OFFSET :offset";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tsquery", tsQuery)
+                .addValue("raw", rawQuery)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+
+        long[] total = {0};
+        List<SearchHit> hits = jdbc.query(sql, params, (rs, rowNum) -> {
+            total[0] = rs.getLong("total");
+            BigDecimal original = rs.getBigDecimal("original_price");
+            BigDecimal promotion = rs.getBigDecimal("promotion_price");
+            return new SearchHit(
+                    SearchHit.Kind.valueOf(rs.getString("kind")),
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getLong("store_id"),
+                    rs.getString("store_name"),
+                    original,
+                    original == null ? null : SearchHit.currentPrice(original, promotion),
+                    rs.getDouble("rank"));
+        });
+        return new Result(hits, total[0]);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.timskimilenici.repositories;
+
+import com.example.timskimilenici.entities.GeocodeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+}
@@ -0,0 +1,9 @@
+package com.example.timskimilenici.repositories;
+
+import com.example.timskimilenici.entities.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -1,11 +1,14 @@
 package com.example.timskimilenici.repositories;
 
+import com.example.timskimilenici.dto.ServiceCard;
 import com.example.timskimilenici.entities.PetService;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,8 +16,36 @@ import java.util.Optional;
 public interface PetServiceRepository extends JpaRepository<PetService, Long> {
     List<PetService> findByBusinessId(Long businessId);
 
-    @Query("SELECT s FROM PetService s WHERE s.promotionPrice IS NOT NULL AND s.promotionPrice < s.originalPrice")
-    List<PetService> findPromotedServices();
+    /** Select clause for {@link ServiceCard} queries: the service plus its store's id and name, in one join. */
+    String CARD_SELECT = "SELECT new com.example.timskimilenici.dto.ServiceCard(" +
+            "s.id, s.name, s.description, s.originalPrice, s.promotionPrice, s.capacity, s.durationMinutes, b.id, b.name) " +
+            "FROM PetService s JOIN s.business b ";
+
+    @Query(CARD_SELECT + "ORDER BY s.id")
+    List<ServiceCard> findAllCards();
+
+    /** Keyset page in id order: services after {@code afterId}, as many as {@code pageable} allows. */
+    @Query(CARD_SELECT + "WHERE s.id > :afterId ORDER BY s.id")
+    List<ServiceCard> findCardPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE b.id = :businessId ORDER BY s.id")
+    List<ServiceCard> findCardsByBusinessId(@Param("businessId") Long businessId);
+
+    @Query(CARD_SELECT + "WHERE b.id IN :businessIds ORDER BY s.id")
+    List<ServiceCard> findCardsByBusinessIds(@Param("businessIds") Collection<Long> businessIds);
+
+    @Query(CARD_SELECT + "WHERE s.id IN :ids")
+    List<ServiceCard> findCardsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + "WHERE s.id = :id")
+    Optional<ServiceCard> findCardById(@Param("id") Long id);
+
+    @Query(CARD_SELECT + "WHERE s.promotionPrice IS NOT NULL AND s.promotionPrice < s.originalPrice")
+    List<ServiceCard> findPromotedCards();
+
+    /** Rows of {@code [id, businessId, name, description, originalPrice, promotionPrice]}; feeds the catalogue search index. */
+    @Query("SELECT s.id, s.business.id, s.name, s.description, s.originalPrice, s.promotionPrice FROM PetService s")
+    List<Object[]> findAllCatalogueRows();
 
     /** Load service with business and owner (for notifications). */
     @Query("SELECT s FROM PetService s LEFT JOIN FETCH s.business b LEFT JOIN FETCH b.owner WHERE s.id = :id")
@@ -1,19 +1,51 @@
 package com.example.timskimilenici.repositories;
 
+import com.example.timskimilenici.dto.ProductCard;
 import com.example.timskimilenici.entities.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByBusinessId(Long businessId);
 
-    @Query("SELECT p FROM Product p WHERE p.promotionPrice IS NOT NULL AND p.promotionPrice < p.originalPrice")
-    List<Product> findPromotedProducts();
+    /** Select clause for {@link ProductCard} queries: the product plus its store's id and name, in one join. */
+    String CARD_SELECT = "SELECT new com.example.timskimilenici.dto.ProductCard(" +
+            "p.id, p.name, p.description, p.originalPrice, p.promotionPrice, p.stockQuantity, b.id, b.name) " +
+            "FROM Product p JOIN p.business b ";
+
+    @Query(CARD_SELECT + "ORDER BY p.id")
+    List<ProductCard> findAllCards();
+
+    /** Keyset page in id order: products after {@code afterId}, as many as {@code pageable} allows. */
+    @Query(CARD_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductCard> findCardPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query(CARD_SELECT + "WHERE b.id = :businessId ORDER BY p.id")
+    List<ProductCard> findCardsByBusinessId(@Param("businessId") Long businessId);
+
+    @Query(CARD_SELECT + "WHERE b.id IN :businessIds ORDER BY p.id")
+    List<ProductCard> findCardsByBusinessIds(@Param("businessIds") Collection<Long> businessIds);
+
+    @Query(CARD_SELECT + "WHERE p.id IN :ids")
+    List<ProductCard> findCardsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + "WHERE p.id = :id")
+    Optional<ProductCard> findCardById(@Param("id") Long id);
+
+    @Query(CARD_SELECT + "WHERE p.promotionPrice IS NOT NULL AND p.promotionPrice < p.originalPrice")
+    List<ProductCard> findPromotedCards();
+
+    /** Rows of {@code [id, businessId, name, description, originalPrice, promotionPrice]}; feeds the catalogue search index. */
+    @Query("SELECT p.id, p.business.id, p.name, p.description, p.originalPrice, p.promotionPrice FROM Product p")
+    List<Object[]> findAllCatalogueRows();
 
     /**
      * Top products globally, ranked by units sold across all orders. Products
@@ -0,0 +1,53 @@
+package com.example.timskimilenici.repositories;
+
+import com.example.timskimilenici.entities.ServiceDayCapacity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ServiceDayCapacityRepository extends JpaRepository<ServiceDayCapacity, ServiceDayCapacity.Key> {
+
+    /**
+     * Create the counter for a service/day if it doesn't exist yet, seeded
+     * with the bookings already on that day. {@code ON CONFLICT DO NOTHING}
+     * makes concurrent first bookings for the same day safe without a
+     * separate transaction: the loser waits for the winner's row and moves on.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO service_day_capacity (service_id, booking_date, booked)
+            SELECT :serviceId, :day, COUNT(b.id)
+              FROM bookings b
+             WHERE b.service_id = :serviceId
+               AND b.booking_time >= :start
+               AND b.booking_time < :end
+               AND b.status <> 'CANCELLED'
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int seedIfAbsent(@Param("serviceId") Long serviceId,
+                     @Param("day") LocalDate day,
+                     @Param("start") LocalDateTime start,
+                     @Param("end") LocalDateTime end);
+
+    /** Read the counter with {@code SELECT ... FOR UPDATE}; held until the caller's transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ServiceDayCapacity c WHERE c.id = :id")
+    Optional<ServiceDayCapacity> findForUpdate(@Param("id") ServiceDayCapacity.Key id);
+
+    /** Give a place back after a cancellation or deletion. Never goes below zero. */
+    @Modifying
+    @Query("""
+           UPDATE ServiceDayCapacity c SET c.booked = c.booked - 1
+            WHERE c.id.serviceId = :serviceId AND c.id.day = :day AND c.booked > 0
+           """)
+    int decrement(@Param("serviceId") Long serviceId, @Param("day") LocalDate day);
+}
@@ -0,0 +1,48 @@
+package com.example.timskimilenici.security;
+
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal for JWT-authenticated requests. Carries the user id and role so
+ * controllers can take {@code @AuthenticationPrincipal AuthenticatedUser} and
+ * use {@link #getId()} directly instead of looking the user up again.
+ * {@link #getUsername()} is the email, matching {@link CustomUserDetailsService}.
+ */
+public final class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String email, Role role) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    public Long getId() { return id; }
+    public Role getRole() { return role; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+
+    /** Tokens replace passwords after login; the hash is never carried on the principal. */
+    @Override
+    public String getPassword() { return null; }
+
+    @Override
+    public String getUsername() { return email; }
+}
@@ -1,5 +1,7 @@
 package com.example.timskimilenici.security;
 
+import com.example.timskimilenici.entities.Role;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,8 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,11 +19,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, PrincipalCache principalCache) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -35,7 +35,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final Claims claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -44,7 +44,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            userEmail = jwtUtils.extractUsername(jwt);
+            // Signature and expiry are verified here; the claims are trusted from this point on.
+            claims = jwtUtils.parseClaims(jwt);
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
             filterChain.doFilter(request, response);
             return;
@@ -53,13 +54,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtUtils.validateToken(jwt, userDetails)) {
+        if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser principal = resolvePrincipal(claims);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities()
+                        principal.getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -67,4 +68,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * The account the token was issued to, as it is now. The principal cache
+     * is the revocation check: a deleted account, or one whose role changed
+     * since the token was issued, is not authenticated. The cached principal
+     * is returned rather than one built from the claims, so an email changed
+     * since login is not carried on. Tokens issued before the id and role
+     * claims existed are resolved by subject, through the same cache.
+     */
+    private AuthenticatedUser resolvePrincipal(Claims claims) {
+        Long userId = jwtUtils.extractUserId(claims);
+        Role role = jwtUtils.extractRole(claims);
+        if (userId == null || role == null) {
+            return principalCache.getBySubject(claims.getSubject()).orElse(null);
+        }
+        AuthenticatedUser current = principalCache.get(userId).orElse(null);
+        if (current == null || current.getRole() != role) {
+            return null;
+        }
+        return current;
+    }
 }
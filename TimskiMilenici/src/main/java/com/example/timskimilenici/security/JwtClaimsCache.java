@@ -0,0 +1,92 @@
+package com.example.timskimilenici.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of verified token claims, so a client replaying the same bearer
+ * token skips the HMAC check and JSON decoding on every request. Entries are
+ * keyed by a SHA-256 of the token (raw tokens are never held) and are only
+ * served until the token's own {@code exp}; they never outlive the token.
+ * Only successfully verified tokens are ever stored.
+ */
+class JwtClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    /** {@code maxEntries <= 0} disables caching. */
+    JwtClaimsCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /** Cached claims for {@code token}, or {@code null} if absent or the token has expired. */
+    Claims get(String token, long nowMillis) {
+        if (!isEnabled()) return null;
+        String key = key(token);
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAtMillis <= nowMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    void put(String token, Claims claims) {
+        if (!isEnabled() || claims.getExpiration() == null) return;
+        entries.put(key(token), new Entry(claims, claims.getExpiration().getTime()));
+    }
+
+    /** Drop every entry whose token has expired. Returns the number removed. */
+    int evictExpired(long nowMillis) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAtMillis <= nowMillis) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String key(String token) {
+        byte[] digest = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private record Entry(Claims claims, long expiresAtMillis) {}
+}
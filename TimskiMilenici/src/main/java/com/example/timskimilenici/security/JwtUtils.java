@@ -1,11 +1,14 @@
 package com.example.timskimilenici.security;
 
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
@@ -13,48 +16,90 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Component
 public class JwtUtils {
 
+    /** Claim carrying the user's database id. */
+    public static final String CLAIM_USER_ID = "uid";
+    /** Claim carrying the user's {@link Role} name. */
+    public static final String CLAIM_ROLE = "role";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries;
+
     private Key key;
+    /** Immutable and thread-safe once built, so one instance serves every request. */
+    private JwtParser parser;
+    private JwtClaimsCache claimsCache;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.claimsCache = new JwtClaimsCache(claimsCacheMaxEntries);
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verify the signature and expiry and return the token's claims. Throws
+     * {@link io.jsonwebtoken.JwtException} (including {@code ExpiredJwtException})
+     * if the token is not acceptable. Callers should parse once per request
+     * and read everything they need from the returned claims; repeat
+     * presentations of the same token are answered from the claims cache
+     * until it expires. The returned claims are shared and must not be modified.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /** User id claim, or {@code null} for tokens issued before it was added. */
+    public Long extractUserId(Claims claims) {
+        Object uid = claims.get(CLAIM_USER_ID);
+        return uid instanceof Number n ? n.longValue() : null;
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /** Role claim, or {@code null} if absent or not a known role. */
+    public Role extractRole(Claims claims) {
+        Object role = claims.get(CLAIM_ROLE);
+        if (!(role instanceof String name)) return null;
+        try {
+            return Role.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        Claims cached = claimsCache.get(token, System.currentTimeMillis());
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        claimsCache.put(token, claims);
+        return claims;
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /** Drop cached claims of tokens that have since expired. */
+    @Scheduled(fixedDelayString = "${jwt.claims-cache.purge-ms:60000}")
+    public void evictExpiredClaims() {
+        claimsCache.evictExpired(System.currentTimeMillis());
     }
 
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Token for {@code user}, with the email as subject plus id and role
+     * claims so authenticated requests don't need a user lookup.
+     */
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        return createToken(claims, user.getEmail());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -66,9 +111,4 @@ public class JwtUtils {
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
 }
@@ -0,0 +1,98 @@
+package com.example.timskimilenici.security;
+
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of confirmed principals keyed by user id. The JWT already
+ * says who the caller is; this is only the revocation check (is the account
+ * still there, what is its current role), so it tolerates being up to
+ * {@code jwt.principal-cache.ttl-seconds} stale. {@code UserService} evicts
+ * entries when an account is changed or deleted, so on a single node the
+ * window only applies to changes made elsewhere.
+ *
+ * <p>Tokens issued before the id claim existed only carry the email, so
+ * their subject is resolved to a user id once and cached the same way.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final Map<Long, Entry> entries;
+    /** Subject of a token without an id claim → user id ({@code null} if no such user). */
+    private final Map<String, SubjectEntry> subjects;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${jwt.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${jwt.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.subjects = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SubjectEntry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /** Current principal for {@code userId}, or empty if the account no longer exists. */
+    public Optional<AuthenticatedUser> get(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            return Optional.ofNullable(cached.principal);
+        }
+        AuthenticatedUser principal = userRepository.findById(userId).map(AuthenticatedUser::of).orElse(null);
+        // Deleted accounts are cached as a negative entry so a stolen token can't drive a query per request.
+        entries.put(userId, new Entry(principal, now + ttlMillis));
+        return Optional.ofNullable(principal);
+    }
+
+    /**
+     * Current principal for a token subject (email, or username for very old
+     * tokens), or empty if no account matches it. Used for tokens without an
+     * id claim.
+     */
+    public Optional<AuthenticatedUser> getBySubject(String subject) {
+        long now = System.currentTimeMillis();
+        SubjectEntry cached = subjects.get(subject);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.userId == null ? Optional.empty() : get(cached.userId);
+        }
+        Optional<User> user = userRepository.findByEmailOrUsername(subject, subject);
+        subjects.put(subject, new SubjectEntry(user.map(User::getId).orElse(null), now + ttlMillis));
+        return user.map(this::put);
+    }
+
+    /** Principal for a user that has just been loaded. */
+    public AuthenticatedUser put(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.of(user);
+        entries.put(user.getId(), new Entry(principal, System.currentTimeMillis() + ttlMillis));
+        return principal;
+    }
+
+    /** Forget {@code userId}, including any token subject resolved to it (its email may have changed). */
+    public void evict(Long userId) {
+        if (userId == null) return;
+        entries.remove(userId);
+        subjects.values().removeIf(e -> userId.equals(e.userId));
+    }
+
+    private record Entry(AuthenticatedUser principal, long expiresAt) {}
+
+    private record SubjectEntry(Long userId, long expiresAt) {}
+}
@@ -1,17 +1,22 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.services.ai.ChatResponseCache;
 import com.example.timskimilenici.services.ai.CustomerAiTools;
 import com.example.timskimilenici.services.ai.OwnerAiTools;
+import com.example.timskimilenici.services.ai.ToolCallMemo;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class AiChatService {
@@ -24,7 +29,7 @@ public class AiChatService {
             "Keep answers short, warm and free of markdown formatting. " +
             "Whenever the user asks about stores, products, services, or what is nearby, you MUST use the provided tools to look up real data before answering; never invent store names, prices, or inventory. " +
             "Search smart: extract the product or service keyword from the user's sentence (e.g. 'shampoo for my bichon' -> query 'shampoo'; 'dog food for my puppy' -> 'dog food'; 'somewhere to groom my cat' -> call searchServices with 'grooming'). " +
-            "If a keyword search returns nothing, retry with a broader or alternative term (e.g. try 'shampoo', then 'bath', then 'grooming'; try the singular of a word; try a parent category) before telling the user nothing was found. " +
+            "The search tools already match plurals and other word forms, common synonyms (e.g. 'bath' also finds grooming, 'vet' finds clinics) and small typos, so one search per keyword is normally enough; only retry with a genuinely different concept or a parent category before telling the user nothing was found. " +
             "Always combine searchProducts AND searchServices when the user's request could be either, and consider searchStores when they mention a type of shop. " +
             "If tools still return no results after reasonable retries, say so honestly and suggest related searches. " +
             "When recommending items, always name the store that carries them.";
@@ -41,20 +46,77 @@ public class AiChatService {
     private final ChatClient chatClient;
     private final CustomerAiTools customerAiTools;
     private final OwnerAiTools ownerAiTools;
+    private final ChatResponseCache responseCache;
 
     public AiChatService(ChatClient.Builder chatClientBuilder,
                          CustomerAiTools customerAiTools,
-                         OwnerAiTools ownerAiTools) {
+                         OwnerAiTools ownerAiTools,
+                         ChatResponseCache responseCache) {
         this.chatClient = chatClientBuilder.build();
         this.customerAiTools = customerAiTools;
         this.ownerAiTools = ownerAiTools;
+        this.responseCache = responseCache;
     }
 
+    /**
+     * A recent reply to the same first-turn customer question, if any. Check
+     * this before {@link #chat} or {@link #stream} (and before waiting for a
+     * model slot); both store their replies for later callers.
+     */
+    public Optional<String> cachedReply(String userMessage,
+                                        List<Map<String, String>> history,
+                                        Map<String, Object> storeContext,
+                                        ChatMode mode) {
+        if (!cacheable(userMessage, history, mode)) return Optional.empty();
+        return responseCache.get(userMessage, storeContext);
+    }
+
+    @Timed("petpal.chat")
     public String chat(String userMessage,
                        List<Map<String, String>> history,
                        Map<String, Object> storeContext,
                        ChatMode mode,
                        Long ownerUserId) {
+        long catalogueVersion = responseCache.catalogueVersion();
+        String reply = prompt(userMessage, history, storeContext, mode, ownerUserId).call().content();
+        if (cacheable(userMessage, history, mode)) {
+            responseCache.put(userMessage, storeContext, reply, catalogueVersion);
+        }
+        return reply;
+    }
+
+    /**
+     * Same conversation as {@link #chat}, but the reply arrives as it is
+     * generated. Tool calls still run before the final answer streams, so
+     * the first chunk comes after any lookups rather than after the whole
+     * completion. Nothing is sent to the model until the flux is subscribed,
+     * and cancelling the subscription aborts the generation.
+     */
+    public Flux<String> stream(String userMessage,
+                               List<Map<String, String>> history,
+                               Map<String, Object> storeContext,
+                               ChatMode mode,
+                               Long ownerUserId) {
+        Flux<String> reply = prompt(userMessage, history, storeContext, mode, ownerUserId).stream().content();
+        if (!cacheable(userMessage, history, mode)) return reply;
+        return Flux.defer(() -> {
+            long catalogueVersion = responseCache.catalogueVersion();
+            StringBuilder full = new StringBuilder();
+            // Only a reply that streamed to the end is stored; cancelled or failed ones are not.
+            return reply.doOnNext(full::append)
+                    .doOnComplete(() -> responseCache.put(userMessage, storeContext, full.toString(), catalogueVersion));
+        });
+    }
+
+    private static boolean cacheable(String userMessage, List<Map<String, String>> history, ChatMode mode) {
+        return mode == ChatMode.CUSTOMER && ChatResponseCache.cacheable(userMessage, history);
+    }
+
+    private ChatClient.ChatClientRequestSpec prompt(String userMessage,
+                                                    List<Map<String, String>> history,
+                                                    Map<String, Object> storeContext,
+                                                    ChatMode mode,
+                                                    Long ownerUserId) {
         List<Message> messages = new ArrayList<>();
 
         String systemPrompt = mode == ChatMode.OWNER ? OWNER_SYSTEM_PROMPT : CUSTOMER_SYSTEM_PROMPT;
@@ -85,12 +147,14 @@ public class AiChatService {
             }
             spec = spec
                     .tools(ownerAiTools, customerAiTools)
-                    .toolContext(Map.of(OwnerAiTools.OWNER_ID_KEY, ownerUserId));
+                    .toolContext(Map.of(OwnerAiTools.OWNER_ID_KEY, ownerUserId,
+                            ToolCallMemo.CONTEXT_KEY, new ToolCallMemo()));
         } else {
-            spec = spec.tools(customerAiTools);
+            spec = spec
+                    .tools(customerAiTools)
+                    .toolContext(Map.of(ToolCallMemo.CONTEXT_KEY, new ToolCallMemo()));
         }
-
-        return spec.call().content();
+        return spec;
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,63 @@
+package com.example.timskimilenici.services;
+
+import com.example.timskimilenici.entities.ServiceDayCapacity;
+import com.example.timskimilenici.repositories.ServiceDayCapacityRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+/**
+ * Enforces per-service, per-day booking capacity through the
+ * {@code service_day_capacity} counter table. A reservation locks the day's
+ * counter row ({@code SELECT ... FOR UPDATE}), checks it and increments it in
+ * the caller's transaction, so the check and the booking insert commit or roll
+ * back together and concurrent requests for the same day queue on the row
+ * instead of all passing a stale {@code COUNT}. Different days and services
+ * never contend.
+ */
+@Service
+public class BookingCapacityService {
+
+    private final ServiceDayCapacityRepository capacityRepository;
+
+    public BookingCapacityService(ServiceDayCapacityRepository capacityRepository) {
+        this.capacityRepository = capacityRepository;
+    }
+
+    /**
+     * Take one place for {@code serviceId} on {@code day}, or throw 400 if the
+     * day is already at {@code capacity}. Must run inside the transaction that
+     * saves the booking; the row lock is held until it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long serviceId, LocalDate day, int capacity) {
+        if (capacity <= 0) {
+            throw full();
+        }
+        ServiceDayCapacity.Key key = new ServiceDayCapacity.Key(serviceId, day);
+        ServiceDayCapacity counter = capacityRepository.findForUpdate(key).orElse(null);
+        if (counter == null) {
+            capacityRepository.seedIfAbsent(serviceId, day, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            counter = capacityRepository.findForUpdate(key)
+                    .orElseThrow(() -> new IllegalStateException("Capacity counter missing after seeding"));
+        }
+        if (counter.getBooked() >= capacity) {
+            throw full();
+        }
+        counter.setBooked(counter.getBooked() + 1);
+    }
+
+    /** Give back a place after a booking on that day is cancelled or deleted. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long serviceId, LocalDate day) {
+        capacityRepository.decrement(serviceId, day);
+    }
+
+    private static ResponseStatusException full() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Service is full for the selected date");
+    }
+}
@@ -1,110 +1,280 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
+import com.example.timskimilenici.dto.BookingView;
 import com.example.timskimilenici.entities.Booking;
 import com.example.timskimilenici.entities.Business;
 import com.example.timskimilenici.entities.PetService;
 import com.example.timskimilenici.repositories.BookingRepository;
 import com.example.timskimilenici.repositories.PetServiceRepository;
-import com.example.timskimilenici.util.BusinessScheduleUtils;
+import com.example.timskimilenici.util.CursorPage;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BookingService {
 
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
+    /** Longest range {@link #getAvailability} will compute in one call. */
+    static final int MAX_CALENDAR_DAYS = 366;
     private final BookingRepository bookingRepository;
     private final PetServiceRepository petServiceRepository;
     private final NotificationService notificationService;
+    private final BookingCapacityService bookingCapacityService;
+    private final BusinessScheduleCache scheduleCache;
+    private final MeterRegistry meterRegistry;
+    private final ResponseCache responseCache;
 
     public BookingService(BookingRepository bookingRepository, PetServiceRepository petServiceRepository,
-                          NotificationService notificationService) {
+                          NotificationService notificationService, BookingCapacityService bookingCapacityService,
+                          BusinessScheduleCache scheduleCache, MeterRegistry meterRegistry,
+                          ResponseCache responseCache) {
         this.bookingRepository = bookingRepository;
         this.petServiceRepository = petServiceRepository;
         this.notificationService = notificationService;
+        this.bookingCapacityService = bookingCapacityService;
+        this.scheduleCache = scheduleCache;
+        this.meterRegistry = meterRegistry;
+        this.responseCache = responseCache;
     }
 
     @Transactional
+    @Timed("petpal.booking.create")
     public Booking createBooking(Booking booking) {
         Long serviceId = booking.getService().getId();
-        PetService svc = petServiceRepository.findById(serviceId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Service not found"));
+        PetService svc = petServiceRepository.findById(serviceId).orElse(null);
+        if (svc == null) {
+            throw reject("service_not_found", "Service not found");
+        }
         Business business = svc.getBusiness();
         if (business == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Service has no business");
+            throw reject("no_business", "Service has no business");
         }
-        if (!BusinessScheduleUtils.isWithinWorkingHours(business, booking.getBookingTime())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Booking time is outside business working hours");
+        if (!scheduleCache.get(business).isWithinWorkingHours(booking.getBookingTime())) {
+            throw reject("outside_working_hours", "Booking time is outside business working hours");
         }
-        if (!isAvailable(serviceId, booking.getBookingTime().toLocalDate())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Service is full for the selected date");
+        // Locks the day's capacity counter until this transaction commits.
+        int capacity = svc.getCapacity() != null ? svc.getCapacity() : 0;
+        try {
+            bookingCapacityService.reserve(serviceId, booking.getBookingTime().toLocalDate(), capacity);
+        } catch (ResponseStatusException e) {
+            countRejection("capacity_full");
+            throw e;
         }
-        return bookingRepository.save(booking);
+        // The managed service, so the booking's copied business id is set from it on persist.
+        booking.setService(svc);
+        Booking saved = bookingRepository.save(booking);
+        invalidateServiceRanking();
+        return saved;
     }
 
-    public boolean isAvailable(Long serviceId, LocalDate date) {
-        PetService service = petServiceRepository.findById(serviceId)
-                .orElseThrow(() -> new RuntimeException("Service not found"));
+    /** Copy the business id onto bookings created before {@code bookings.business_id} existed. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillBusinessIds() {
+        int filled = bookingRepository.backfillBusinessIds();
+        if (filled > 0) {
+            log.info("Set business_id on {} existing booking(s).", filled);
+        }
+    }
 
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+    private ResponseStatusException reject(String reason, String message) {
+        countRejection(reason);
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
 
-        long count = bookingRepository.countByServiceIdAndBookingTimeBetween(serviceId, startOfDay, endOfDay);
-        return count < service.getCapacity();
+    /** Counts a refused booking under {@code petpal.booking.rejected}, tagged with why. */
+    private void countRejection(String reason) {
+        meterRegistry.counter("petpal.booking.rejected", "reason", reason).increment();
     }
 
+    /**
+     * Dates in {@code [start, end]} that cannot be booked: closed days and
+     * days at capacity. Unlike {@link #getAvailability} this keeps its
+     * original contract: a reversed range yields an empty list, and a range
+     * longer than {@value #MAX_CALENDAR_DAYS} days is computed in chunks
+     * instead of being rejected.
+     */
+    @Transactional(readOnly = true)
     public List<LocalDate> getFullDates(Long serviceId, LocalDate start, LocalDate end) {
-        PetService service = petServiceRepository.findById(serviceId)
-                .orElseThrow(() -> new RuntimeException("Service not found"));
-        Business business = service.getBusiness();
         List<LocalDate> fullDates = new ArrayList<>();
-        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-            if (!BusinessScheduleUtils.isWorkingDay(business, date)) {
-                fullDates.add(date);
-                continue;
-            }
-            if (!isAvailable(serviceId, date)) {
-                fullDates.add(date);
+        if (start == null || end == null || end.isBefore(start)) {
+            return fullDates;
+        }
+        for (LocalDate from = start; !from.isAfter(end); from = from.plusDays(MAX_CALENDAR_DAYS)) {
+            LocalDate to = from.plusDays(MAX_CALENDAR_DAYS - 1);
+            for (DayAvailability day : calendar(serviceId, from, to.isAfter(end) ? end : to)) {
+                if (day.remaining() <= 0) {
+                    fullDates.add(day.date());
+                }
             }
         }
         return fullDates;
     }
 
-    public List<Booking> getBookingsByUser(Long userId) {
-        return bookingRepository.findByUserId(userId);
+    /**
+     * Per-day booking capacity for a service over {@code [start, end]}. Uses
+     * one grouped count over the whole range and resolves the weekly schedule
+     * once, so the cost is two queries however long the range is.
+     */
+    @Transactional(readOnly = true)
+    public List<DayAvailability> getAvailability(Long serviceId, LocalDate start, LocalDate end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "end must not be before start");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_CALENDAR_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must be at most " + MAX_CALENDAR_DAYS + " days");
+        }
+        return calendar(serviceId, start, end);
+    }
+
+    private List<DayAvailability> calendar(Long serviceId, LocalDate start, LocalDate end) {
+        PetService service = petServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new RuntimeException("Service not found"));
+        int capacity = service.getCapacity() != null ? service.getCapacity() : 0;
+
+        Set<DayOfWeek> openDays = scheduleCache.get(service.getBusiness()).openDays();
+
+        Map<LocalDate, Long> bookedByDay = new HashMap<>();
+        for (Object[] r : bookingRepository.countActiveByServiceGroupedByDay(
+                serviceId, start.atStartOfDay(), end.plusDays(1).atStartOfDay())) {
+            bookedByDay.put(toLocalDate(r[0]), ((Number) r[1]).longValue());
+        }
+
+        List<DayAvailability> days = new ArrayList<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            boolean open = openDays.contains(date.getDayOfWeek());
+            long booked = bookedByDay.getOrDefault(date, 0L);
+            int remaining = open ? (int) Math.max(0, capacity - booked) : 0;
+            days.add(new DayAvailability(date, open, capacity, booked, remaining));
+        }
+        return days;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate d) return d;
+        if (value instanceof java.sql.Date d) return d.toLocalDate();
+        if (value instanceof LocalDateTime dt) return dt.toLocalDate();
+        return LocalDate.parse(value.toString());
+    }
+
+    /** One calendar day: whether the business is open, the service's capacity, bookings taken and places left. */
+    public record DayAvailability(LocalDate date, boolean open, int capacity, long booked, int remaining) {}
+
+    public List<BookingView> getBookingsByUser(Long userId) {
+        return toViews(bookingRepository.findViewRowsByUserId(userId));
+    }
+
+    public List<BookingView> getBookingsByBusiness(Long businessId) {
+        return toViews(bookingRepository.findViewRowsByBusinessId(businessId));
+    }
+
+    /** Keyset page of a user's bookings, newest first. See {@link CursorPage}. */
+    public CursorPage<BookingView> getBookingsByUserPage(Long userId, String cursor, int size) {
+        List<Object[]> rows = cursor == null || cursor.isBlank()
+                ? bookingRepository.findViewPageByUser(userId, CursorPage.probe(size))
+                : withCursor(cursor, (time, id) ->
+                        bookingRepository.findViewPageByUserBefore(userId, time, id, CursorPage.probe(size)));
+        return CursorPage.of(toViews(rows), size, BookingService::cursorOf);
+    }
+
+    /** Keyset page of a business's bookings, newest first. See {@link CursorPage}. */
+    public CursorPage<BookingView> getBookingsByBusinessPage(Long businessId, String cursor, int size) {
+        List<Object[]> rows = cursor == null || cursor.isBlank()
+                ? bookingRepository.findViewPageByBusiness(businessId, CursorPage.probe(size))
+                : withCursor(cursor, (time, id) ->
+                        bookingRepository.findViewPageByBusinessBefore(businessId, time, id, CursorPage.probe(size)));
+        return CursorPage.of(toViews(rows), size, BookingService::cursorOf);
+    }
+
+    private static String cursorOf(BookingView b) {
+        return CursorPage.encode(b.bookingTime(), b.id());
     }
 
-    public List<Booking> getBookingsByBusiness(Long businessId) {
-        return bookingRepository.findByServiceBusinessId(businessId);
+    private static List<Object[]> withCursor(String cursor, BiFunction<LocalDateTime, Long, List<Object[]>> query) {
+        String[] keys = CursorPage.decode(cursor, 2);
+        try {
+            return query.apply(LocalDateTime.parse(keys[0]), Long.parseLong(keys[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 
-    public List<Booking> getBookingsByStoreAndDate(Long businessId, LocalDate date) {
+    public List<BookingView> getBookingsByStoreAndDate(Long businessId, LocalDate date) {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.atTime(LocalTime.MAX);
-        return bookingRepository.findByService_Business_IdAndBookingTimeBetween(businessId, start, end);
+        return toViews(bookingRepository.findViewRowsByBusinessIdAndBookingTimeBetween(businessId, start, end));
     }
 
-    public List<Booking> getBookingsByStoreInRange(Long businessId, LocalDate startDate, LocalDate endDate) {
+    public List<BookingView> getBookingsByStoreInRange(Long businessId, LocalDate startDate, LocalDate endDate) {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
-        return bookingRepository.findByService_Business_IdAndBookingTimeBetween(businessId, start, end);
+        return toViews(bookingRepository.findViewRowsByBusinessIdAndBookingTimeBetween(businessId, start, end));
+    }
+
+    /** Map rows of {@link BookingRepository#VIEW_SELECT} to views. */
+    private static List<BookingView> toViews(List<Object[]> rows) {
+        List<BookingView> views = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            BookingView.ServiceRef service = new BookingView.ServiceRef(
+                    (Long) row[4], (String) row[5], (BigDecimal) row[6], (BigDecimal) row[7],
+                    (Integer) row[8], (Long) row[9], (String) row[10]);
+            BookingView.CustomerRef user = new BookingView.CustomerRef(
+                    (Long) row[11], (String) row[12], (String) row[13], (String) row[14]);
+            views.add(new BookingView((Long) row[0], (LocalDateTime) row[1], (Booking.BookingStatus) row[2],
+                    (String) row[3], service, user));
+        }
+        return views;
     }
 
     @Transactional
     public void updateBookingStatus(Long bookingId, Booking.BookingStatus status) {
         bookingRepository.findById(bookingId).ifPresent(booking -> {
+            Booking.BookingStatus previous = booking.getStatus();
+            LocalDate day = booking.getBookingTime().toLocalDate();
+            if (previous == Booking.BookingStatus.CANCELLED && status != Booking.BookingStatus.CANCELLED) {
+                // The freed place may have been re-booked since; reinstating takes a place like a new booking.
+                // Reserved before the status change so a counter seeded here doesn't count this booking twice.
+                PetService svc = booking.getService();
+                try {
+                    bookingCapacityService.reserve(svc.getId(), day, svc.getCapacity() != null ? svc.getCapacity() : 0);
+                } catch (ResponseStatusException e) {
+                    countRejection("capacity_full");
+                    throw e;
+                }
+            }
             booking.setStatus(status);
             bookingRepository.save(booking);
+            if ((previous == Booking.BookingStatus.CANCELLED) != (status == Booking.BookingStatus.CANCELLED)) {
+                invalidateServiceRanking();
+            }
+            if (previous != Booking.BookingStatus.CANCELLED && status == Booking.BookingStatus.CANCELLED) {
+                bookingCapacityService.release(booking.getService().getId(), day);
+            }
             if (status == Booking.BookingStatus.CANCELLED) {
                 try {
                     notificationService.notifyBookingCancelledByUser(bookingId);
@@ -128,5 +298,14 @@ public class BookingService {
             // do not fail delete if notification fails
         }
         bookingRepository.deleteById(bookingId);
+        if (booking.getStatus() != Booking.BookingStatus.CANCELLED) {
+            bookingCapacityService.release(booking.getService().getId(), booking.getBookingTime().toLocalDate());
+            invalidateServiceRanking();
+        }
+    }
+
+    /** Non-cancelled booking counts rank /api/services/top. */
+    private void invalidateServiceRanking() {
+        responseCache.invalidate(ResponseCache.Region.SERVICE_RANKING);
     }
 }
@@ -0,0 +1,56 @@
+package com.example.timskimilenici.services;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.util.BusinessScheduleUtils;
+import com.example.timskimilenici.util.CompiledSchedule;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled working schedules keyed by business id. Entries are evicted when
+ * {@code BusinessService.saveBusiness} commits and are also checked against
+ * the business's {@code updatedAt}, so a schedule edited on another node is
+ * recompiled the first time this node loads the updated row.
+ */
+@Component
+public class BusinessScheduleCache {
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public CompiledSchedule get(Business business) {
+        if (business == null || business.getId() == null) {
+            return BusinessScheduleUtils.compile(business);
+        }
+        Entry entry = entries.get(business.getId());
+        if (entry != null && Objects.equals(entry.updatedAt, business.getUpdatedAt())) {
+            return entry.schedule;
+        }
+        CompiledSchedule compiled = BusinessScheduleUtils.compile(business);
+        entries.put(business.getId(), new Entry(compiled, business.getUpdatedAt()));
+        return compiled;
+    }
+
+    /**
+     * Evict a business's schedule now and again once the current transaction
+     * commits, so a reader can't re-cache the old schedule in between.
+     */
+    public void invalidate(Long businessId) {
+        if (businessId == null) return;
+        entries.remove(businessId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(businessId);
+                }
+            });
+        }
+    }
+
+    private record Entry(CompiledSchedule schedule, LocalDateTime updatedAt) {}
+}
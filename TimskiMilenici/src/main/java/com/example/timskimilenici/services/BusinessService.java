@@ -1,11 +1,18 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
 import com.example.timskimilenici.entities.Booking;
 import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.BusinessRatingSummary;
 import com.example.timskimilenici.entities.WorkingDaySlot;
 import com.example.timskimilenici.repositories.BookingRepository;
 import com.example.timskimilenici.repositories.BusinessRepository;
-import com.example.timskimilenici.repositories.ReviewRepository;
+import com.example.timskimilenici.services.geo.BusinessGeoIndex;
+import com.example.timskimilenici.services.geo.CachedGeocodingService;
+import com.example.timskimilenici.services.geo.GeoKdTree;
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import com.example.timskimilenici.util.GeoUtils;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -25,24 +32,36 @@ import java.util.Objects;
 import java.util.Optional;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BusinessService {
 
     private static final Logger log = LoggerFactory.getLogger(BusinessService.class);
-    private static final double EARTH_RADIUS_KM = 6371.0088;
 
     private final BusinessRepository businessRepository;
     private final BookingRepository bookingRepository;
-    private final ReviewRepository reviewRepository;
-    private final MapboxGeocodingService geocoder;
+    private final RatingSummaryService ratingSummaryService;
+    private final CachedGeocodingService geocoder;
+    private final BusinessGeoIndex geoIndex;
+    private final BusinessScheduleCache scheduleCache;
+    private final CatalogueIndex catalogueIndex;
+    private final ResponseCache responseCache;
 
     public BusinessService(BusinessRepository businessRepository,
                            BookingRepository bookingRepository,
-                           ReviewRepository reviewRepository,
-                           MapboxGeocodingService geocoder) {
+                           RatingSummaryService ratingSummaryService,
+                           CachedGeocodingService geocoder,
+                           BusinessGeoIndex geoIndex,
+                           BusinessScheduleCache scheduleCache,
+                           CatalogueIndex catalogueIndex,
+                           ResponseCache responseCache) {
         this.businessRepository = businessRepository;
         this.bookingRepository = bookingRepository;
-        this.reviewRepository = reviewRepository;
+        this.ratingSummaryService = ratingSummaryService;
         this.geocoder = geocoder;
+        this.geoIndex = geoIndex;
+        this.scheduleCache = scheduleCache;
+        this.catalogueIndex = catalogueIndex;
+        this.responseCache = responseCache;
     }
 
     public List<Business> getAllBusinesses() {
@@ -58,56 +77,40 @@ public class BusinessService {
     }
 
     /**
-     * Top businesses by average review rating. Reviews-light businesses keep
-     * their natural rating (no smoothing) but the tie-breaker pushes
-     * highly-rated stores with more reviews above ones with a single 5★.
-     * Businesses without any reviews are appended at the bottom so the
-     * "Top Stores" tile is never empty on a fresh deployment. The whole thing
-     * runs on top of the existing aggregate query (one DB call) plus an
-     * in-memory sort, so it stays cheap even when the catalogue grows.
+     * Ids of the top businesses by average review rating, best first.
+     * Reviews-light businesses keep their natural rating (no smoothing) but
+     * the tie-breaker pushes highly-rated stores with more reviews above ones
+     * with a single 5★. Businesses without any reviews are appended at the
+     * bottom so the "Top Stores" tile is never empty on a fresh deployment.
+     * The ranking is read from the indexed rating summary table with a LIMIT,
+     * so the cost is O(limit) rather than a full catalogue load and sort.
      */
-    public List<Business> getTopBusinesses(Integer limit) {
-        List<Business> all = businessRepository.findAll();
-        hydrateRatings(all);
-        all.sort((a, b) -> {
-            double ar = a.getAverageRating() != null ? a.getAverageRating() : -1;
-            double br = b.getAverageRating() != null ? b.getAverageRating() : -1;
-            int cmp = Double.compare(br, ar);
-            if (cmp != 0) return cmp;
-            long ac = a.getReviewCount() != null ? a.getReviewCount() : 0;
-            long bc = b.getReviewCount() != null ? b.getReviewCount() : 0;
-            cmp = Long.compare(bc, ac);
-            if (cmp != 0) return cmp;
-            String an = a.getName() != null ? a.getName() : "";
-            String bn = b.getName() != null ? b.getName() : "";
-            return an.compareToIgnoreCase(bn);
-        });
-        if (limit != null && limit > 0 && all.size() > limit) {
-            return new ArrayList<>(all.subList(0, limit));
+    public List<Long> getTopBusinessIds(int limit) {
+        List<Long> ids = new ArrayList<>(ratingSummaryService.findTopRatedBusinessIds(limit));
+        if (ids.size() < limit) {
+            ids.addAll(businessRepository.findUnratedBusinessIdsByName(limit - ids.size()));
         }
-        return all;
+        return ids;
     }
 
     /**
      * Populate the transient {@code averageRating} / {@code reviewCount} fields
-     * on every supplied business in a single batch query. Cheaper than fetching
-     * reviews per business and avoids N+1 round trips on the listing screens.
+     * on every supplied business. Reads the persisted rating summaries by
+     * primary key for just these ids, so hydrating one store costs one indexed
+     * lookup rather than a GROUP BY over the whole review table.
      */
     public void hydrateRatings(Collection<Business> businesses) {
         if (businesses == null || businesses.isEmpty()) return;
-        Map<Long, double[]> aggregates = new HashMap<>();
-        for (Object[] row : reviewRepository.aggregateRatingsByBusiness()) {
-            if (row == null || row.length < 3 || row[0] == null) continue;
-            Long id = ((Number) row[0]).longValue();
-            double avg = row[1] instanceof Number ? ((Number) row[1]).doubleValue() : 0.0;
-            long count = row[2] instanceof Number ? ((Number) row[2]).longValue() : 0L;
-            aggregates.put(id, new double[]{avg, count});
+        List<Long> ids = new ArrayList<>(businesses.size());
+        for (Business b : businesses) {
+            if (b.getId() != null) ids.add(b.getId());
         }
+        Map<Long, BusinessRatingSummary> summaries = ratingSummaryService.findByBusinessIds(ids);
         for (Business b : businesses) {
-            double[] agg = b.getId() != null ? aggregates.get(b.getId()) : null;
-            if (agg != null) {
-                b.setAverageRating(agg[0]);
-                b.setReviewCount((long) agg[1]);
+            BusinessRatingSummary summary = b.getId() != null ? summaries.get(b.getId()) : null;
+            if (summary != null) {
+                b.setAverageRating(summary.getAverageRating());
+                b.setReviewCount(summary.getReviewCount());
             } else {
                 b.setAverageRating(0.0);
                 b.setReviewCount(0L);
@@ -145,7 +148,12 @@ public class BusinessService {
 
         validateWorkingSchedule(business);
         applyGeocodingIfNeeded(business);
-        return businessRepository.save(business);
+        Business saved = businessRepository.save(business);
+        geoIndex.upsert(saved.getId(), saved.getLatitude(), saved.getLongitude());
+        scheduleCache.invalidate(saved.getId());
+        catalogueIndex.upsertStore(saved);
+        responseCache.invalidateAll();
+        return saved;
     }
 
     /**
@@ -179,40 +187,61 @@ public class BusinessService {
     }
 
     /**
-     * Fill lat/lng for every persisted business that still has a blank
-     * coordinate. Safe to call repeatedly. Returns the number of rows updated.
+     * Find businesses within a given radius (km) of the supplied coordinates,
+     * nearest first. Served from the in-memory {@link BusinessGeoIndex}: the
+     * k-d tree returns the matching ids and distances, and only those rows are
+     * loaded. Until the index has finished its first load we fall back to the
+     * bounding-box query.
+     *
+     * @throws ResponseStatusException 400 if the latitude is outside [-90, 90]
+     *         or either coordinate is not a number; the longitude is wrapped
+     *         into [-180, 180), since the AI tool passes model-typed values
      */
-    @Transactional
-    public int backfillMissingCoordinates() {
-        List<Business> all = businessRepository.findAll();
-        int updated = 0;
-        for (Business b : all) {
-            if (b.getAddress() == null || b.getAddress().isBlank()) continue;
-            if (b.getLatitude() != null && b.getLongitude() != null) continue;
-            Optional<double[]> coords = geocoder.geocode(b.getAddress());
-            if (coords.isPresent()) {
-                b.setLongitude(coords.get()[0]);
-                b.setLatitude(coords.get()[1]);
-                businessRepository.save(b);
-                updated++;
-            }
+    public List<BusinessWithDistance> findNearby(double lat, double lng, double radiusKm, Integer limit) {
+        if (!(lat >= -90 && lat <= 90) || !Double.isFinite(lng)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Latitude must be between -90 and 90 and longitude a number");
+        }
+        lng = GeoUtils.normalizeLongitude(lng);
+        // Cap at ~half the earth's circumference so callers can request
+        // "distance to every geocoded store" with a sentinel huge radius.
+        double effectiveRadius = radiusKm <= 0 ? 10 : Math.min(radiusKm, 20037);
+        if (!geoIndex.isReady()) {
+            return findNearbyByBoundingBox(lat, lng, effectiveRadius, limit);
+        }
+
+        int k = limit != null && limit > 0 ? limit : 0;
+        List<GeoKdTree.Neighbor> hits = geoIndex.nearest(lat, lng, k, effectiveRadius);
+        if (hits.isEmpty()) return List.of();
+
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (GeoKdTree.Neighbor n : hits) {
+            ids.add(n.id());
+        }
+        Map<Long, Business> byId = new HashMap<>();
+        for (Business b : businessRepository.findAllById(ids)) {
+            byId.put(b.getId(), b);
         }
-        if (updated > 0) {
-            log.info("Backfilled coordinates for {} business row(s).", updated);
+
+        List<Business> matchedBusinesses = new ArrayList<>(hits.size());
+        List<BusinessWithDistance> results = new ArrayList<>(hits.size());
+        for (GeoKdTree.Neighbor n : hits) {
+            // Skip ids deleted since the index was last refreshed.
+            Business b = byId.get(n.id());
+            if (b == null) continue;
+            matchedBusinesses.add(b);
+            results.add(new BusinessWithDistance(b, n.distanceKm()));
         }
-        return updated;
+        hydrateRatings(matchedBusinesses);
+        return results;
     }
 
     /**
-     * Find businesses within a given radius (km) of the supplied coordinates.
-     * Uses a cheap bounding-box pre-filter in memory (could be pushed to SQL later)
-     * and refines with the Haversine formula.
+     * Repository-backed nearby search: bounding-box pre-filter in SQL, refined
+     * with the Haversine formula in memory. Only used while the geo index is
+     * still loading.
      */
-    public List<BusinessWithDistance> findNearby(double lat, double lng, double radiusKm, Integer limit) {
-        // Cap at ~half the earth's circumference so callers can request
-        // "distance to every geocoded store" with a sentinel huge radius.
-        double effectiveRadius = radiusKm <= 0 ? 10 : Math.min(radiusKm, 20037);
-        double latDelta = Math.toDegrees(effectiveRadius / EARTH_RADIUS_KM);
+    private List<BusinessWithDistance> findNearbyByBoundingBox(double lat, double lng, double effectiveRadius, Integer limit) {
+        double latDelta = Math.toDegrees(effectiveRadius / GeoUtils.EARTH_RADIUS_KM);
         // Avoid division by zero at the poles.
         double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.000001);
         double lngDelta = latDelta / cosLat;
@@ -229,7 +258,7 @@ public class BusinessService {
         List<BusinessWithDistance> results = new ArrayList<>();
         for (Business b : candidates) {
             if (b.getLatitude() == null || b.getLongitude() == null) continue;
-            double d = haversineKm(lat, lng, b.getLatitude(), b.getLongitude());
+            double d = GeoUtils.haversineKm(lat, lng, b.getLatitude(), b.getLongitude());
             if (d <= effectiveRadius) {
                 matchedBusinesses.add(b);
                 results.add(new BusinessWithDistance(b, d));
@@ -243,17 +272,6 @@ public class BusinessService {
         return results;
     }
 
-    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-        double rLat1 = Math.toRadians(lat1);
-        double rLat2 = Math.toRadians(lat2);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(rLat1) * Math.cos(rLat2) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS_KM * c;
-    }
-
     private void validateWorkingSchedule(Business business) {
         Map<DayOfWeek, WorkingDaySlot> schedule = business.getWorkingSchedule();
         if (business.getId() == null && (schedule == null || schedule.isEmpty())) {
@@ -328,12 +346,6 @@ public class BusinessService {
         return results;
     }
 
-    public List<Business> getBusinessByOwnerId(Long ownerId) {
-        List<Business> results = businessRepository.findByOwnerId(ownerId);
-        hydrateRatings(results);
-        return results;
-    }
-
     @Transactional
     public void deleteBusiness(Long id) {
         if (!businessRepository.existsById(id)) {
@@ -345,5 +357,9 @@ public class BusinessService {
             bookingRepository.deleteAll(bookings);
         }
         businessRepository.deleteById(id);
+        geoIndex.remove(id);
+        scheduleCache.invalidate(id);
+        catalogueIndex.removeStore(id);
+        responseCache.invalidateAll();
     }
 }
@@ -0,0 +1,191 @@
+package com.example.timskimilenici.services;
+
+import com.example.timskimilenici.config.MetricsConfig;
+import com.example.timskimilenici.dto.BusinessCard;
+import com.example.timskimilenici.dto.BusinessDetail;
+import com.example.timskimilenici.dto.BusinessOwnerView;
+import com.example.timskimilenici.dto.ProductCard;
+import com.example.timskimilenici.dto.ServiceCard;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.BusinessRatingSummary;
+import com.example.timskimilenici.entities.WorkingDaySlot;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.util.CursorPage;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-side views of businesses for the REST API. Listings are assembled
+ * from scalar rows plus one batched query per collection (categories,
+ * images, rating summaries), so the query count does not grow with the
+ * number of stores; the detail and owner views load the store's items as
+ * cards rather than walking the entity's item collections.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class BusinessViewService {
+
+    private final BusinessRepository businessRepository;
+    private final ProductRepository productRepository;
+    private final PetServiceRepository petServiceRepository;
+    private final RatingSummaryService ratingSummaryService;
+    private final BusinessService businessService;
+
+    public BusinessViewService(BusinessRepository businessRepository,
+                               ProductRepository productRepository,
+                               PetServiceRepository petServiceRepository,
+                               RatingSummaryService ratingSummaryService,
+                               BusinessService businessService) {
+        this.businessRepository = businessRepository;
+        this.productRepository = productRepository;
+        this.petServiceRepository = petServiceRepository;
+        this.ratingSummaryService = ratingSummaryService;
+        this.businessService = businessService;
+    }
+
+    /** Every store as a card, in id order. */
+    public List<BusinessCard> getCards() {
+        List<Object[]> rows = businessRepository.findAllCardRows();
+        if (rows.isEmpty()) return List.of();
+        return toCards(rows, group(businessRepository.findAllCategoryRows()),
+                group(businessRepository.findAllImageRows()));
+    }
+
+    /** Keyset page of store cards in id order. See {@link CursorPage}. */
+    public CursorPage<BusinessCard> getCardPage(String cursor, int size) {
+        List<Object[]> rows = businessRepository.findCardRowsAfter(CursorPage.decodeId(cursor), CursorPage.probe(size));
+        return CursorPage.of(cardsFor(rows), size, c -> CursorPage.encode(c.id()));
+    }
+
+    /** The "Top Stores" ranking as cards; see {@link BusinessService#getTopBusinessIds}. */
+    public List<BusinessCard> getTopCards(int limit) {
+        List<Long> ids = businessService.getTopBusinessIds(limit);
+        if (ids.isEmpty()) return List.of();
+        Map<Long, BusinessCard> byId = new HashMap<>();
+        for (BusinessCard card : cardsFor(businessRepository.findCardRowsByIds(ids))) {
+            byId.put(card.id(), card);
+        }
+        // Preserve the ranked order.
+        List<BusinessCard> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BusinessCard card = byId.get(id);
+            if (card != null) ordered.add(card);
+        }
+        return ordered;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BusinessDetail> getDetail(Long id) {
+        return businessRepository.findById(id).map(b -> toDetail(b,
+                ratingSummaryService.findByBusinessIds(List.of(id)).get(id),
+                petServiceRepository.findCardsByBusinessId(id),
+                productRepository.findCardsByBusinessId(id)));
+    }
+
+    /** Every store of one owner with its items, loading all their items in two queries. */
+    @Transactional(readOnly = true)
+    public List<BusinessOwnerView> getOwnerViews(Long ownerId) {
+        List<Business> businesses = businessRepository.findByOwnerId(ownerId);
+        if (businesses.isEmpty()) return List.of();
+        List<Long> ids = businesses.stream().map(Business::getId).toList();
+        Map<Long, BusinessRatingSummary> ratings = ratingSummaryService.findByBusinessIds(ids);
+        Map<Long, List<ServiceCard>> services = new HashMap<>();
+        for (ServiceCard s : petServiceRepository.findCardsByBusinessIds(ids)) {
+            services.computeIfAbsent(s.businessId(), k -> new ArrayList<>()).add(s);
+        }
+        Map<Long, List<ProductCard>> products = new HashMap<>();
+        for (ProductCard p : productRepository.findCardsByBusinessIds(ids)) {
+            products.computeIfAbsent(p.businessId(), k -> new ArrayList<>()).add(p);
+        }
+        List<BusinessOwnerView> views = new ArrayList<>(businesses.size());
+        for (Business b : businesses) {
+            BusinessDetail detail = toDetail(b, ratings.get(b.getId()),
+                    services.getOrDefault(b.getId(), List.of()),
+                    products.getOrDefault(b.getId(), List.of()));
+            views.add(new BusinessOwnerView(detail, b.getOwner() != null ? b.getOwner().getId() : null,
+                    b.getCreatedAt(), b.getUpdatedAt()));
+        }
+        return views;
+    }
+
+    private List<BusinessCard> cardsFor(List<Object[]> rows) {
+        if (rows.isEmpty()) return List.of();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+        return toCards(rows, group(businessRepository.findCategoryRowsByIds(ids)),
+                group(businessRepository.findImageRowsByIds(ids)));
+    }
+
+    private List<BusinessCard> toCards(List<Object[]> rows,
+                                       Map<Long, List<String>> categories,
+                                       Map<Long, List<String>> images) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+        Map<Long, BusinessRatingSummary> ratings = ratingSummaryService.findByBusinessIds(ids);
+        List<BusinessCard> cards = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = ((Number) row[0]).longValue();
+            BusinessRatingSummary rating = ratings.get(id);
+            cards.add(new BusinessCard(
+                    id,
+                    (String) row[1],
+                    (String) row[2],
+                    (String) row[3],
+                    categories.getOrDefault(id, List.of()),
+                    (String) row[4],
+                    (Double) row[5],
+                    (Double) row[6],
+                    (String) row[7],
+                    images.getOrDefault(id, List.of()),
+                    rating != null ? rating.getAverageRating() : 0.0,
+                    rating != null ? rating.getReviewCount() : 0L));
+        }
+        return cards;
+    }
+
+    /** Collect {@code [businessId, value]} rows into per-business lists. */
+    private static Map<Long, List<String>> group(Collection<Object[]> rows) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[1] == null) continue;
+            grouped.computeIfAbsent(((Number) row[0]).longValue(), k -> new ArrayList<>()).add((String) row[1]);
+        }
+        return grouped;
+    }
+
+    private static BusinessDetail toDetail(Business b, BusinessRatingSummary rating,
+                                           List<ServiceCard> services, List<ProductCard> products) {
+        BusinessCard card = new BusinessCard(
+                b.getId(),
+                b.getName(),
+                b.getDescription(),
+                b.getCategory(),
+                b.getCategories() != null ? List.copyOf(b.getCategories()) : List.of(),
+                b.getAddress(),
+                b.getLatitude(),
+                b.getLongitude(),
+                b.getMainImageUrl(),
+                b.getImageUrls() != null ? List.copyOf(b.getImageUrls()) : List.of(),
+                rating != null ? rating.getAverageRating() : 0.0,
+                rating != null ? rating.getReviewCount() : 0L);
+        Map<DayOfWeek, WorkingDaySlot> schedule = new EnumMap<>(DayOfWeek.class);
+        if (b.getWorkingSchedule() != null) schedule.putAll(b.getWorkingSchedule());
+        return new BusinessDetail(card, b.getContactPhone(), b.getContactEmail(), schedule, services, products);
+    }
+}
@@ -1,34 +1,46 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
+import com.example.timskimilenici.dto.CartView;
+import com.example.timskimilenici.dto.ProductCard;
 import com.example.timskimilenici.entities.*;
+import com.example.timskimilenici.repositories.CartItemRepository;
 import com.example.timskimilenici.repositories.CartRepository;
 import com.example.timskimilenici.repositories.OrderRepository;
 import com.example.timskimilenici.repositories.ProductRepository;
 import com.example.timskimilenici.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class CartService {
 
     private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
     private final NotificationService notificationService;
+    private final ResponseCache responseCache;
 
-    public CartService(CartRepository cartRepository, ProductRepository productRepository,
-                       UserRepository userRepository, OrderRepository orderRepository,
-                       NotificationService notificationService) {
+    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository,
+                       ProductRepository productRepository, UserRepository userRepository,
+                       OrderRepository orderRepository, NotificationService notificationService,
+                       ResponseCache responseCache) {
         this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
         this.notificationService = notificationService;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -45,6 +57,23 @@ public class CartService {
                 });
     }
 
+    /**
+     * The user's cart as a {@link CartView}, creating the cart if none exists.
+     * Items, products and their stores come from a single query.
+     */
+    @Transactional
+    public CartView getCartView(Long userId) {
+        Cart cart = cartRepository.findByUser_Id(userId).orElseGet(() -> getOrCreateCart(userId));
+        List<Object[]> rows = cartItemRepository.findViewRowsByCartId(cart.getId());
+        List<CartView.Line> lines = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ProductCard product = new ProductCard((Long) row[2], (String) row[3], (String) row[4],
+                    (BigDecimal) row[5], (BigDecimal) row[6], (Integer) row[7], (Long) row[8], (String) row[9]);
+            lines.add(new CartView.Line((Long) row[0], (Integer) row[1], product));
+        }
+        return new CartView(cart.getId(), lines);
+    }
+
     /**
      * Get cart for user (read-only). Returns empty optional if no cart.
      */
@@ -124,6 +153,7 @@ public class CartService {
      * Checkout: validate user has address and phone, create order from cart, notify each business owner, clear cart.
      */
     @Transactional
+    @Timed("petpal.cart.checkout")
     public Order checkout(Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         if (user.getAddress() == null || user.getAddress().isBlank()) {
@@ -150,6 +180,8 @@ public class CartService {
             order.addItem(oi);
         }
         order = orderRepository.save(order);
+        // Units sold rank /api/products/top.
+        responseCache.invalidate(ResponseCache.Region.PRODUCT_RANKING);
 
         // Notify each business owner (group by business)
         cart.getItems().stream()
@@ -1,10 +1,14 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.services.geo.Geocoder;
+import com.example.timskimilenici.services.geo.GeocodingUnavailableException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
@@ -19,9 +23,12 @@ import java.util.Optional;
 /**
  * Server-side geocoding via the Mapbox Places API.
  * Converts a free-form address string into [longitude, latitude].
+ * Callers should go through {@code CachedGeocodingService} rather than use
+ * this directly; every call here is a network round trip.
  */
 @Service
-public class MapboxGeocodingService {
+@ConditionalOnProperty(name = "geocoding.provider", havingValue = "mapbox", matchIfMissing = true)
+public class MapboxGeocodingService implements Geocoder {
 
     private static final Logger log = LoggerFactory.getLogger(MapboxGeocodingService.class);
     private static final String ENDPOINT =
@@ -33,25 +40,36 @@ public class MapboxGeocodingService {
 
     public MapboxGeocodingService(@Value("${mapbox.token:}") String token) {
         this.token = token == null ? "" : token.trim();
+        if (this.token.isEmpty()) {
+            log.warn("mapbox.token is not set; business addresses will not be geocoded.");
+        }
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(5))
                 .build();
         this.objectMapper = new ObjectMapper();
     }
 
+    @Override
+    public boolean isConfigured() {
+        return !token.isEmpty();
+    }
+
     /**
-     * Geocode an address to coordinates. Returns empty on any failure so callers
-     * can proceed without coordinates rather than failing the whole save.
+     * Geocode an address to coordinates. Returns empty when Mapbox has no match;
+     * throws {@link GeocodingUnavailableException} when Mapbox could not be
+     * asked at all, so transient failures are not cached as misses.
      */
+    @Override
+    @Timed("petpal.geocode.upstream")
     public Optional<double[]> geocode(String address) {
-        if (token.isEmpty()) {
-            log.debug("Mapbox token is not configured; skipping geocode for '{}'.", address);
-            return Optional.empty();
-        }
         if (address == null || address.isBlank()) {
             return Optional.empty();
         }
+        if (token.isEmpty()) {
+            throw new GeocodingUnavailableException("Mapbox token is not configured");
+        }
 
+        HttpResponse<String> response;
         try {
             String encoded = URLEncoder.encode(address.trim(), StandardCharsets.UTF_8);
             String url = ENDPOINT + encoded + ".json?access_token=" + token + "&limit=1";
@@ -60,13 +78,18 @@ public class MapboxGeocodingService {
                     .timeout(Duration.ofSeconds(6))
                     .GET()
                     .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeocodingUnavailableException("Mapbox geocode interrupted", e);
+        } catch (Exception e) {
+            throw new GeocodingUnavailableException("Mapbox geocode failed: " + e.getMessage(), e);
+        }
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new GeocodingUnavailableException("Mapbox geocode returned HTTP " + response.statusCode());
+        }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                log.warn("Mapbox geocode returned HTTP {} for '{}'.", response.statusCode(), address);
-                return Optional.empty();
-            }
-
+        try {
             JsonNode root = objectMapper.readTree(response.body());
             JsonNode features = root.path("features");
             if (!features.isArray() || features.isEmpty()) {
@@ -80,8 +103,8 @@ public class MapboxGeocodingService {
             double lat = center.get(1).asDouble();
             return Optional.of(new double[]{lng, lat});
         } catch (Exception e) {
-            log.warn("Mapbox geocode failed for '{}': {}", address, e.getMessage());
-            return Optional.empty();
+            log.warn("Unreadable Mapbox geocode response for '{}': {}", address, e.getMessage());
+            throw new GeocodingUnavailableException("Unreadable Mapbox response", e);
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
 import com.example.timskimilenici.entities.Booking;
 import com.example.timskimilenici.entities.Notification;
 import com.example.timskimilenici.entities.User;
@@ -8,6 +9,7 @@ import com.example.timskimilenici.repositories.BookingRepository;
 import com.example.timskimilenici.repositories.NotificationRepository;
 import com.example.timskimilenici.repositories.PetServiceRepository;
 import com.example.timskimilenici.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
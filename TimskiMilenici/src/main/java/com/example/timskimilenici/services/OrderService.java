@@ -1,8 +1,10 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
 import com.example.timskimilenici.entities.Order;
 import com.example.timskimilenici.entities.OrderItem;
 import com.example.timskimilenici.repositories.OrderRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +14,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class OrderService {
 
     private final OrderRepository orderRepository;
@@ -1,7 +1,9 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
 import com.example.timskimilenici.repositories.BookingRepository;
 import com.example.timskimilenici.repositories.OrderRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -14,6 +16,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class OwnerAnalyticsService {
 
     private final BookingRepository bookingRepository;
@@ -142,7 +145,7 @@ public class OwnerAnalyticsService {
         List<Object[]> rows = bookingRepository.aggregateOverviewByOwnerAndDate(ownerId, from, to, businessId);
         List<OverviewPoint> points = rows.stream()
                 .map(r -> {
-                    LocalDate day = ((Date) r[0]).toLocalDate();
+                    LocalDate day = r[0] instanceof Date d ? d.toLocalDate() : (LocalDate) r[0];
                     BigDecimal revenue = r[4] instanceof BigDecimal ? (BigDecimal) r[4] : BigDecimal.ZERO;
                     return new OverviewPoint(
                             day,
@@ -0,0 +1,82 @@
+package com.example.timskimilenici.services;
+
+import com.example.timskimilenici.entities.BusinessRatingSummary;
+import com.example.timskimilenici.repositories.BusinessRatingSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the {@code business_rating_summaries} table. Review writes push deltas
+ * through here so the summary stays current, and a scheduled reconciliation
+ * rebuilds it from the {@code reviews} table to repair any drift (manual SQL
+ * edits, failed transactions, rows predating the summary table).
+ */
+@Service
+public class RatingSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingSummaryService.class);
+
+    private final BusinessRatingSummaryRepository summaryRepository;
+
+    public RatingSummaryService(BusinessRatingSummaryRepository summaryRepository) {
+        this.summaryRepository = summaryRepository;
+    }
+
+    /** Summaries for the given business ids, keyed by id. Businesses without reviews are absent. */
+    @Transactional(readOnly = true)
+    public Map<Long, BusinessRatingSummary> findByBusinessIds(Collection<Long> businessIds) {
+        Map<Long, BusinessRatingSummary> byId = new HashMap<>();
+        if (businessIds == null || businessIds.isEmpty()) return byId;
+        for (BusinessRatingSummary s : summaryRepository.findAllById(businessIds)) {
+            byId.put(s.getBusinessId(), s);
+        }
+        return byId;
+    }
+
+    /** Ids of the {@code limit} best-rated businesses, best first. */
+    @Transactional(readOnly = true)
+    public List<Long> findTopRatedBusinessIds(int limit) {
+        return summaryRepository.findTopRatedBusinessIds(limit);
+    }
+
+    /**
+     * Must run inside the transaction that inserts the review. The common
+     * case is one {@code UPDATE}; a business's first review locks the
+     * business row before creating the summary, so a concurrent first review
+     * waits and then updates the new row instead of inserting a duplicate.
+     */
+    @Transactional
+    public void recordReviewAdded(Long businessId, BigDecimal rating) {
+        if (summaryRepository.applyDelta(businessId, rating, 1) > 0) return;
+        summaryRepository.lockBusiness(businessId);
+        if (summaryRepository.applyDelta(businessId, rating, 1) > 0) return;
+        summaryRepository.insertIfAbsent(businessId, rating, 1);
+    }
+
+    /**
+     * Rebuild every summary from the {@code reviews} table. Runs once on
+     * startup (so existing reviews are picked up on first deploy) and then on
+     * the {@code ratings.reconcile.cron} schedule (nightly by default).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ratings.reconcile.cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        int corrected = summaryRepository.reconcileFromReviews() + summaryRepository.insertMissingFromReviews();
+        int removed = summaryRepository.deleteOrphaned();
+        if (corrected > 0 || removed > 0) {
+            log.info("Rating summary reconciliation corrected {} row(s) and removed {} orphan(s).", corrected, removed);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.timskimilenici.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized responses of the public catalogue endpoints, keyed by request
+ * URL and filled by {@code ResponseCacheFilter}. Writes to businesses,
+ * products, services and reviews {@link #invalidate} the affected regions,
+ * and so do checkouts and booking changes, which move the {@code /top}
+ * rankings. Writes on other nodes are bounded by
+ * {@code response-cache.ttl-seconds}.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * Invalidation unit. A cached response belongs to the region of the
+     * endpoint that produced it. The rankings are their own regions so that
+     * checkouts and bookings, which only move the rankings, leave the plain
+     * listings cached.
+     */
+    public enum Region { BUSINESSES, PRODUCTS, SERVICES, PRODUCT_RANKING, SERVICE_RANKING }
+
+    public record Entry(Region region, byte[] body, String contentType, String etag) {}
+
+    private final Cache<String, Entry> entries;
+    /**
+     * Bumped on every invalidation. A response computed while its region was
+     * invalidated may hold pre-write data, so {@link #put} drops it.
+     */
+    private final Map<Region, AtomicLong> generations = new EnumMap<>(Region.class);
+
+    public ResponseCache(@Value("${response-cache.max-entries:1000}") long maxEntries,
+                         @Value("${response-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        for (Region region : Region.values()) {
+            generations.put(region, new AtomicLong());
+        }
+    }
+
+    public Entry get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    /** Read before computing a response, and hand back to {@link #put}. */
+    public long generation(Region region) {
+        return generations.get(region).get();
+    }
+
+    /** Cache a response unless its region was invalidated since {@code generation} was read. */
+    public void put(String key, Entry entry, long generation) {
+        if (generations.get(entry.region()).get() == generation) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Drop every response in the given regions, now and again once the
+     * current transaction completes, so a reader can't re-cache pre-commit
+     * data in between.
+     */
+    public void invalidate(Region... regions) {
+        Set<Region> affected = Set.of(regions);
+        evict(affected);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(affected);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        invalidate(Region.values());
+    }
+
+    private void evict(Set<Region> regions) {
+        for (Region region : regions) {
+            generations.get(region).incrementAndGet();
+        }
+        entries.asMap().values().removeIf(e -> regions.contains(e.region()));
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
 import com.example.timskimilenici.entities.Business;
 import com.example.timskimilenici.entities.Review;
 import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.repositories.BusinessRepository;
 import com.example.timskimilenici.repositories.ReviewRepository;
 import com.example.timskimilenici.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,18 +18,25 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final BusinessRepository businessRepository;
     private final UserRepository userRepository;
+    private final RatingSummaryService ratingSummaryService;
+    private final ResponseCache responseCache;
 
     public ReviewService(ReviewRepository reviewRepository,
                          BusinessRepository businessRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         RatingSummaryService ratingSummaryService,
+                         ResponseCache responseCache) {
         this.reviewRepository = reviewRepository;
         this.businessRepository = businessRepository;
         this.userRepository = userRepository;
+        this.ratingSummaryService = ratingSummaryService;
+        this.responseCache = responseCache;
     }
 
     @Transactional(readOnly = true)
@@ -80,6 +89,9 @@ public class ReviewService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         Review review = new Review(business, user, rating.setScale(1, RoundingMode.HALF_UP), comment);
         Review saved = reviewRepository.save(review);
+        ratingSummaryService.recordReviewAdded(businessId, saved.getRating());
+        // Business listings embed the average rating.
+        responseCache.invalidate(ResponseCache.Region.BUSINESSES);
         // #region agent log
         try {
             long now = System.currentTimeMillis();
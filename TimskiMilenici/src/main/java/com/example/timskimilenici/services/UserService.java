@@ -1,23 +1,29 @@
 package com.example.timskimilenici.services;
 
+import com.example.timskimilenici.config.MetricsConfig;
 import com.example.timskimilenici.entities.Role;
 import com.example.timskimilenici.entities.User;
 import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.security.PrincipalCache;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
     }
 
     public User createUser(String email, String rawPassword, Role role, String fullName, String username, String profilePictureUrl) {
@@ -78,7 +84,9 @@ public class UserService {
         if (address != null) user.setAddress(address);
         if (profilePictureUrl != null) user.setProfilePictureUrl(profilePictureUrl.isBlank() ? null : profilePictureUrl);
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.evict(id);
+        return saved;
     }
 
     public void updatePassword(Long id, String oldPassword, String newPassword) {
@@ -93,5 +101,6 @@ public class UserService {
     public void deleteUserById(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        principalCache.evict(id);
     }
 }
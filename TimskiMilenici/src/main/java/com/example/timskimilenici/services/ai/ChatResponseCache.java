@@ -0,0 +1,205 @@
+package com.example.timskimilenici.services.ai;
+
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replies to first-turn customer questions, so a question that was just
+ * answered ("any groomers near me?", "do you sell dog food") skips the model.
+ * Entries are keyed by the normalized question plus the store the customer
+ * is browsing. Only turns without history are cached, because a follow-up
+ * question depends on the earlier conversation.
+ *
+ * <p>Replies are built from {@link CatalogueIndex} lookups, so each entry
+ * remembers the index {@link CatalogueIndex#version() version} it was
+ * computed against. It stops matching as soon as a store, product or service
+ * changes, including on the index's periodic reload.
+ * {@code ai.chat.cache.ttl-minutes} bounds everything else.
+ *
+ * <p>With {@code ai.chat.cache.semantic.enabled=true}, a question with no
+ * exact match is embedded with the configured Spring AI
+ * {@link EmbeddingModel} (for Ollama, {@code spring.ai.ollama.embedding.model},
+ * e.g. {@code nomic-embed-text}). It then reuses the closest cached reply for
+ * the same store if the cosine similarity reaches
+ * {@code ai.chat.cache.semantic.threshold}.
+ *
+ * <p>Embedding calls run on the same model server as chats but outside
+ * {@link LlmScheduler}, since they come before a chat is admitted. They get
+ * their own bound instead: at most {@code ai.chat.cache.semantic.max-concurrent}
+ * at a time, and a question that can't start one within
+ * {@code ai.chat.cache.semantic.wait-ms} is matched exactly only.
+ */
+@Component
+public class ChatResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatResponseCache.class);
+
+    private record Key(String scope, String question) {}
+
+    private record Entry(String reply, long catalogueVersion, float[] embedding) {}
+
+    private final CatalogueIndex catalogueIndex;
+    private final ObjectProvider<EmbeddingModel> embeddingModels;
+    private final MeterRegistry meterRegistry;
+    private final boolean semantic;
+    private final double threshold;
+    private final Semaphore embeddingSlots;
+    private final long embedWaitMs;
+
+    private final Cache<Key, Entry> entries;
+    /** Embeddings of recent questions, so a miss and the following store don't embed twice. */
+    private final Cache<String, float[]> embeddings = Caffeine.newBuilder()
+            .maximumSize(200)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    public ChatResponseCache(CatalogueIndex catalogueIndex,
+                             ObjectProvider<EmbeddingModel> embeddingModels,
+                             MeterRegistry meterRegistry,
+                             @Value("${ai.chat.cache.max-entries:500}") long maxEntries,
+                             @Value("${ai.chat.cache.ttl-minutes:10}") long ttlMinutes,
+                             @Value("${ai.chat.cache.semantic.enabled:false}") boolean semantic,
+                             @Value("${ai.chat.cache.semantic.threshold:0.92}") double threshold,
+                             @Value("${ai.chat.cache.semantic.max-concurrent:2}") int maxEmbeddings,
+                             @Value("${ai.chat.cache.semantic.wait-ms:200}") long embedWaitMs) {
+        this.catalogueIndex = catalogueIndex;
+        this.embeddingModels = embeddingModels;
+        this.meterRegistry = meterRegistry;
+        this.semantic = semantic;
+        this.threshold = threshold;
+        this.embeddingSlots = new Semaphore(Math.max(1, maxEmbeddings));
+        this.embedWaitMs = embedWaitMs;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /** Whether a turn may be answered from, and stored in, the cache. */
+    public static boolean cacheable(String message, List<Map<String, String>> history) {
+        return message != null && !message.isBlank() && (history == null || history.isEmpty());
+    }
+
+    /** Read before calling the model, and hand back to {@link #put}. */
+    public long catalogueVersion() {
+        return catalogueIndex.version();
+    }
+
+    public Optional<String> get(String message, Map<String, Object> storeContext) {
+        Key key = new Key(scope(storeContext), normalize(message));
+        long version = catalogueIndex.version();
+
+        Entry exact = entries.getIfPresent(key);
+        if (exact != null) {
+            if (exact.catalogueVersion() == version) {
+                count("hit", "exact");
+                return Optional.of(exact.reply());
+            }
+            entries.invalidate(key);
+        }
+
+        float[] embedding = semantic ? embed(key.question()) : null;
+        if (embedding != null) {
+            Entry best = null;
+            double bestScore = threshold;
+            for (Map.Entry<Key, Entry> e : entries.asMap().entrySet()) {
+                Entry candidate = e.getValue();
+                if (!e.getKey().scope().equals(key.scope()) || candidate.catalogueVersion() != version
+                        || candidate.embedding() == null) continue;
+                double score = cosine(embedding, candidate.embedding());
+                if (score >= bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            if (best != null) {
+                count("hit", "semantic");
+                return Optional.of(best.reply());
+            }
+        }
+        count("miss", semantic ? "semantic" : "exact");
+        return Optional.empty();
+    }
+
+    /** Cache a reply unless the catalogue changed since {@code catalogueVersion} was read. */
+    public void put(String message, Map<String, Object> storeContext, String reply, long catalogueVersion) {
+        if (reply == null || reply.isBlank() || catalogueIndex.version() != catalogueVersion) return;
+        String question = normalize(message);
+        float[] embedding = semantic ? embed(question) : null;
+        entries.put(new Key(scope(storeContext), question), new Entry(reply, catalogueVersion, embedding));
+    }
+
+    /** Lower-cased, accents and punctuation stripped, whitespace collapsed. */
+    static String normalize(String message) {
+        String folded = Normalizer.normalize(message, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        return folded.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /** The store being browsed; the context prompt is built from all of it, so all of it is part of the key. */
+    private static String scope(Map<String, Object> storeContext) {
+        return storeContext == null || storeContext.get("name") == null ? "" : storeContext.toString();
+    }
+
+    private float[] embed(String question) {
+        EmbeddingModel model = embeddingModels.getIfAvailable();
+        if (model == null) {
+            log.debug("Semantic chat cache enabled but no EmbeddingModel is configured.");
+            return null;
+        }
+        float[] cached = embeddings.getIfPresent(question);
+        if (cached != null) return cached;
+        try {
+            if (!embeddingSlots.tryAcquire(embedWaitMs, TimeUnit.MILLISECONDS)) {
+                log.debug("Embedding slots busy, falling back to exact chat cache matches.");
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            float[] embedding = model.embed(question);
+            embeddings.put(question, embedding);
+            return embedding;
+        } catch (RuntimeException e) {
+            log.debug("Embedding failed, falling back to exact chat cache matches: {}", e.getMessage());
+            return null;
+        } finally {
+            embeddingSlots.release();
+        }
+    }
+
+    static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) return 0;
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    private void count(String result, String layer) {
+        meterRegistry.counter("petpal.chat.cache", "result", result, "layer", layer).increment();
+    }
+}
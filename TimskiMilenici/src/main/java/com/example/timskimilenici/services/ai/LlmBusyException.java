@@ -0,0 +1,25 @@
+package com.example.timskimilenici.services.ai;
+
+/**
+ * The model scheduler refused a chat call. The message is the user-facing
+ * reply; the reason is the {@code petpal.llm.rejected} tag.
+ */
+public class LlmBusyException extends RuntimeException {
+
+    private final String reason;
+    private final long retryAfterSeconds;
+
+    public LlmBusyException(String reason, String message, long retryAfterSeconds) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.timskimilenici.services.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for calls to the local model. At most
+ * {@code ai.llm.max-concurrent} generations run at once; further callers wait
+ * in a queue bounded by {@code ai.llm.max-queue} for up to
+ * {@code ai.llm.queue-timeout-ms}. Freed permits go to waiting callers
+ * round-robin by caller key, so one user firing a burst of messages cannot
+ * starve everyone queued behind them, and no caller may hold more than
+ * {@code ai.llm.max-per-user} running or queued calls. Anything that cannot
+ * be admitted fails fast with {@link LlmBusyException} instead of piling more
+ * work onto Ollama.
+ *
+ * <p>Publishes {@code petpal.llm.active} and {@code petpal.llm.queue.depth}
+ * gauges, a {@code petpal.llm.queue.wait} timer for admitted calls and a
+ * {@code petpal.llm.rejected} counter tagged with the reason.
+ */
+@Service
+public class LlmScheduler {
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final int maxPerUser;
+    private final Duration queueTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Waiting callers per key; iteration order is the round-robin order. */
+    private final LinkedHashMap<String, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+    /** Running plus queued calls per key. */
+    private final Map<String, Integer> load = new HashMap<>();
+    private int active;
+    private int queued;
+
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+
+    public LlmScheduler(@Value("${ai.llm.max-concurrent:2}") int maxConcurrent,
+                        @Value("${ai.llm.max-queue:20}") int maxQueue,
+                        @Value("${ai.llm.max-per-user:2}") int maxPerUser,
+                        @Value("${ai.llm.queue-timeout-ms:15000}") long queueTimeoutMs,
+                        MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("ai.llm.max-concurrent must be at least 1");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.queueTimeout = Duration.ofMillis(Math.max(0, queueTimeoutMs));
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("petpal.llm.queue.wait")
+                .description("Time chat calls spent queued for a model slot")
+                .register(meterRegistry);
+        Gauge.builder("petpal.llm.active", this, LlmScheduler::activeCount)
+                .description("Model calls currently running")
+                .register(meterRegistry);
+        Gauge.builder("petpal.llm.queue.depth", this, LlmScheduler::queuedCount)
+                .description("Chat calls waiting for a model slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wait for a model slot on behalf of {@code callerKey} (a user id, or the
+     * client address for anonymous chat). Close the returned permit when the
+     * call finishes, including when it fails.
+     *
+     * @throws LlmBusyException when the queue or the caller's share is full,
+     *                          or no slot frees up within the queue timeout
+     */
+    public Permit acquire(String callerKey) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            int callerLoad = load.getOrDefault(callerKey, 0);
+            if (callerLoad >= maxPerUser) {
+                throw reject("per_user_limit", "You already have a message in progress. Please wait for the reply.");
+            }
+            if (queued == 0 && active < maxConcurrent) {
+                active++;
+                load.put(callerKey, callerLoad + 1);
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return new Permit(callerKey);
+            }
+            if (queued >= maxQueue) {
+                throw reject("queue_full", "PawPal is busy right now. Please try again in a moment.");
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.computeIfAbsent(callerKey, k -> new ArrayDeque<>()).addLast(waiter);
+            queued++;
+            load.put(callerKey, callerLoad + 1);
+            long remaining = queueTimeout.toNanos();
+            try {
+                while (!waiter.granted && remaining > 0) {
+                    remaining = waiter.signal.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon(callerKey, waiter);
+                throw reject("interrupted", "The request was cancelled.");
+            }
+            if (!waiter.granted) {
+                abandon(callerKey, waiter);
+                throw reject("timeout", "PawPal is busy right now. Please try again in a moment.");
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new Permit(callerKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int activeCount() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queuedCount() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Seconds a rejected client should wait before retrying. */
+    public long retryAfterSeconds() {
+        return Math.max(1, queueTimeout.toSeconds());
+    }
+
+    /** Caller must hold the lock. Hands the slot to the next caller in round-robin order, or frees it. */
+    private void release(String callerKey) {
+        decrementLoad(callerKey);
+        Iterator<Map.Entry<String, ArrayDeque<Waiter>>> it = queues.entrySet().iterator();
+        if (!it.hasNext()) {
+            active--;
+            return;
+        }
+        Map.Entry<String, ArrayDeque<Waiter>> next = it.next();
+        it.remove();
+        Waiter waiter = next.getValue().pollFirst();
+        if (!next.getValue().isEmpty()) {
+            // Back of the line, behind every other caller that is waiting.
+            queues.put(next.getKey(), next.getValue());
+        }
+        queued--;
+        waiter.granted = true;
+        waiter.signal.signal();
+    }
+
+    /** Caller must hold the lock. Withdraws a waiter that gave up, passing on a slot it was granted meanwhile. */
+    private void abandon(String callerKey, Waiter waiter) {
+        if (waiter.granted) {
+            release(callerKey);
+            return;
+        }
+        ArrayDeque<Waiter> queue = queues.get(callerKey);
+        if (queue != null && queue.remove(waiter)) {
+            queued--;
+            if (queue.isEmpty()) queues.remove(callerKey);
+        }
+        decrementLoad(callerKey);
+    }
+
+    private void decrementLoad(String callerKey) {
+        load.computeIfPresent(callerKey, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    private LlmBusyException reject(String reason, String message) {
+        Counter.builder("petpal.llm.rejected")
+                .description("Chat calls refused by the model scheduler")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new LlmBusyException(reason, message, retryAfterSeconds());
+    }
+
+    private static final class Waiter {
+        final Condition signal;
+        boolean granted;
+
+        Waiter(Condition signal) {
+            this.signal = signal;
+        }
+    }
+
+    /** A held model slot. Closing it more than once is harmless. */
+    public final class Permit implements AutoCloseable {
+        private final String callerKey;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String callerKey) {
+            this.callerKey = callerKey;
+        }
+
+        @Override
+        public void close() {
+            if (!released.compareAndSet(false, true)) return;
+            lock.lock();
+            try {
+                release(callerKey);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.timskimilenici.services.ai;
+
+import org.springframework.ai.chat.model.ToolContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Tool results for one chat turn. The model often repeats a lookup within a
+ * turn: it searches "grooming" for both a store and a service question, or
+ * retries with a different word form of the same keyword. {@code AiChatService}
+ * puts a fresh memo in each turn's tool context under {@link #CONTEXT_KEY},
+ * and tools key results by their normalized arguments, so each distinct
+ * lookup runs once per turn. A memo lives only as long as its turn, so
+ * catalogue writes are picked up from the next message on.
+ */
+public final class ToolCallMemo {
+
+    /** Tool-context key holding the current turn's memo. */
+    public static final String CONTEXT_KEY = "toolCallMemo";
+
+    private record Key(String tool, List<?> args) {}
+
+    private final Map<Key, Object> results = new ConcurrentHashMap<>();
+
+    /**
+     * The result of {@code tool} for {@code args} in this turn, computing it
+     * on first use. Without a memo in the context (a tool invoked outside a
+     * chat turn) the lookup just runs.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T memoize(ToolContext toolContext, String tool, List<?> args, Supplier<T> lookup) {
+        Object memo = toolContext == null ? null : toolContext.getContext().get(CONTEXT_KEY);
+        if (!(memo instanceof ToolCallMemo turn)) {
+            return lookup.get();
+        }
+        Key key = new Key(tool, args);
+        Object cached = turn.results.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        // Not computeIfAbsent: a null result (unknown store) must not be stored, and lookups stay outside the map lock.
+        T result = lookup.get();
+        if (result != null) {
+            turn.results.putIfAbsent(key, result);
+        }
+        return result;
+    }
+
+    int size() {
+        return results.size();
+    }
+}
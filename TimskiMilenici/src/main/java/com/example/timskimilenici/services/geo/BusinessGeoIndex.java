@@ -0,0 +1,159 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.repositories.BusinessRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory spatial index of geocoded business locations, used by
+ * {@code BusinessService.findNearby}. Writes go through {@link #upsert} /
+ * {@link #remove} from the service layer and only mark the index dirty; the
+ * immutable {@link GeoKdTree} is rebuilt lazily on the next query, so a bulk
+ * backfill doesn't rebuild the tree once per row. A periodic full reload from
+ * the database repairs any drift (rolled-back saves, writes from other nodes).
+ * Writes made while a reload is reading the database are re-applied over its
+ * snapshot, so a reload never undoes a newer local write.
+ */
+@Component
+public class BusinessGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BusinessGeoIndex.class);
+
+    private final BusinessRepository businessRepository;
+
+    /** Source of truth for the tree: business id → {lat, lng}. Guarded by {@code this}. */
+    private final Map<Long, double[]> points = new HashMap<>();
+    /**
+     * Writes since the running reload started (a {@code null} value is a
+     * removal), or {@code null} when no reload is running. Guarded by {@code this}.
+     */
+    private Map<Long, double[]> pendingWrites;
+    /** Serializes reloads, so at most one snapshot is in flight. */
+    private final Object reloadLock = new Object();
+    private volatile boolean dirty;
+    private volatile GeoKdTree tree;
+
+    public BusinessGeoIndex(BusinessRepository businessRepository) {
+        this.businessRepository = businessRepository;
+    }
+
+    /** False until the first load from the database has completed. */
+    public boolean isReady() {
+        return tree != null;
+    }
+
+    /**
+     * Replace the index contents with every geocoded business in the database.
+     * Runs on startup and then every {@code geo.index.refresh-ms} (5 minutes by default).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${geo.index.refresh-ms:300000}",
+            initialDelayString = "${geo.index.refresh-ms:300000}")
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                pendingWrites = new HashMap<>();
+            }
+            Map<Long, double[]> fresh;
+            try {
+                fresh = readSnapshot();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingWrites = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                points.clear();
+                points.putAll(fresh);
+                for (Map.Entry<Long, double[]> w : pendingWrites.entrySet()) {
+                    if (w.getValue() == null) {
+                        points.remove(w.getKey());
+                    } else {
+                        points.put(w.getKey(), w.getValue());
+                    }
+                }
+                pendingWrites = null;
+                tree = buildTree();
+                dirty = false;
+            }
+            log.debug("Business geo index loaded with {} point(s).", fresh.size());
+        }
+    }
+
+    private Map<Long, double[]> readSnapshot() {
+        List<Object[]> rows = businessRepository.findAllCoordinates();
+        Map<Long, double[]> fresh = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            if (row == null || row.length < 3 || row[0] == null || row[1] == null || row[2] == null) continue;
+            fresh.put(((Number) row[0]).longValue(),
+                    new double[]{((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue()});
+        }
+        return fresh;
+    }
+
+    /** Record a business's current coordinates; null coordinates drop it from the index. */
+    public synchronized void upsert(Long businessId, Double latitude, Double longitude) {
+        if (businessId == null) return;
+        if (latitude == null || longitude == null) {
+            remove(businessId);
+            return;
+        }
+        double[] point = {latitude, longitude};
+        if (pendingWrites != null) pendingWrites.put(businessId, point);
+        double[] previous = points.put(businessId, point);
+        if (previous == null || previous[0] != latitude || previous[1] != longitude) {
+            dirty = true;
+        }
+    }
+
+    public synchronized void remove(Long businessId) {
+        if (businessId == null) return;
+        if (pendingWrites != null) pendingWrites.put(businessId, null);
+        if (points.remove(businessId) != null) {
+            dirty = true;
+        }
+    }
+
+    /** See {@link GeoKdTree#nearest}. */
+    public List<GeoKdTree.Neighbor> nearest(double lat, double lng, int k, double radiusKm) {
+        return currentTree().nearest(lat, lng, k, radiusKm);
+    }
+
+    private GeoKdTree currentTree() {
+        GeoKdTree t = tree;
+        if (t != null && !dirty) return t;
+        synchronized (this) {
+            if (tree == null) return GeoKdTree.empty();
+            if (dirty) {
+                tree = buildTree();
+                dirty = false;
+            }
+            return tree;
+        }
+    }
+
+    /** Caller must hold the monitor. */
+    private GeoKdTree buildTree() {
+        int n = points.size();
+        long[] ids = new long[n];
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        int i = 0;
+        for (Map.Entry<Long, double[]> e : points.entrySet()) {
+            ids[i] = e.getKey();
+            lats[i] = e.getValue()[0];
+            lngs[i] = e.getValue()[1];
+            i++;
+        }
+        return GeoKdTree.build(ids, lats, lngs);
+    }
+}
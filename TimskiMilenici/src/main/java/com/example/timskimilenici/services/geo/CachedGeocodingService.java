@@ -0,0 +1,215 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.entities.GeocodeCacheEntry;
+import com.example.timskimilenici.repositories.GeocodeCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geocoding entry point for the rest of the app. Sits in front of the active
+ * {@link Geocoder} with three layers:
+ * <ol>
+ *   <li>a bounded in-memory LRU keyed by normalized address,</li>
+ *   <li>the persisted {@code geocode_cache} table, shared across restarts and nodes,</li>
+ *   <li>request coalescing, so concurrent lookups of the same address make one upstream call.</li>
+ * </ol>
+ * Confirmed misses are cached for a shorter TTL; provider outages are not
+ * cached at all. Like the old direct Mapbox call, this never throws: any
+ * failure yields an empty result so a business save is never blocked on it.
+ * Lookups are counted under {@code petpal.geocode.cache}, tagged with
+ * {@code result} (hit/miss) and, for hits, the {@code layer} that answered.
+ */
+@Service
+public class CachedGeocodingService {
+
+    private static final Logger log = LoggerFactory.getLogger(CachedGeocodingService.class);
+    private static final int MAX_KEY_LENGTH = 1024;
+
+    private final Geocoder delegate;
+    private final GeocodeCacheRepository cacheRepository;
+    private final TransactionTemplate cacheTx;
+    private final Duration hitTtl;
+    private final Duration missTtl;
+    private final Map<String, CachedResult> memory;
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<double[]>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter coalescedHits;
+    private final Counter misses;
+
+    public CachedGeocodingService(Geocoder delegate,
+                                  GeocodeCacheRepository cacheRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${geocoding.cache.max-entries:10000}") int maxEntries,
+                                  @Value("${geocoding.cache.ttl-days:180}") long ttlDays,
+                                  @Value("${geocoding.cache.miss-ttl-hours:24}") long missTtlHours,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cacheRepository = cacheRepository;
+        // Cache reads/writes run in their own transaction so a cache failure can
+        // never mark the caller's (e.g. saveBusiness) transaction rollback-only.
+        this.cacheTx = new TransactionTemplate(transactionManager);
+        this.cacheTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hitTtl = Duration.ofDays(ttlDays);
+        this.missTtl = Duration.ofHours(missTtlHours);
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.memoryHits = cacheCounter(meterRegistry, "hit", "memory");
+        this.databaseHits = cacheCounter(meterRegistry, "hit", "database");
+        this.coalescedHits = cacheCounter(meterRegistry, "hit", "in_flight");
+        this.misses = cacheCounter(meterRegistry, "miss", "upstream");
+    }
+
+    private static Counter cacheCounter(MeterRegistry registry, String result, String layer) {
+        return Counter.builder("petpal.geocode.cache")
+                .description("Geocoding lookups by cache outcome")
+                .tag("result", result)
+                .tag("layer", layer)
+                .register(registry);
+    }
+
+    /**
+     * Geocode an address to {@code [longitude, latitude]}. Returns empty when
+     * the address has no match or the provider is unavailable.
+     */
+    public Optional<double[]> geocode(String address) {
+        String key = normalize(address);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CachedResult cached = memory.get(key);
+        if (cached != null && !cached.isExpired()) {
+            memoryHits.increment();
+            return cached.coords();
+        }
+
+        CompletableFuture<Optional<double[]>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<double[]>> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            // Another thread is already resolving this address; share its answer.
+            coalescedHits.increment();
+            return existing.join().map(double[]::clone);
+        }
+        Optional<double[]> result = Optional.empty();
+        try {
+            result = resolve(key, address);
+            return result;
+        } finally {
+            mine.complete(result);
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Optional<double[]> resolve(String key, String address) {
+        CachedResult persisted = loadPersisted(key);
+        if (persisted != null) {
+            databaseHits.increment();
+            memory.put(key, persisted);
+            return persisted.coords();
+        }
+
+        if (!delegate.isConfigured()) {
+            // Already reported once at startup by the provider.
+            log.debug("Geocoder not configured; skipping lookup for '{}'.", address);
+            return Optional.empty();
+        }
+
+        misses.increment();
+        Optional<double[]> coords;
+        try {
+            coords = delegate.geocode(address);
+        } catch (GeocodingUnavailableException e) {
+            log.warn("Geocoding unavailable for '{}': {}", address, e.getMessage());
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            log.warn("Geocoding failed for '{}': {}", address, e.getMessage());
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        memory.put(key, new CachedResult(coords.orElse(null), now.plus(coords.isPresent() ? hitTtl : missTtl)));
+        persist(key, coords.orElse(null), now);
+        return coords.map(double[]::clone);
+    }
+
+    private CachedResult loadPersisted(String key) {
+        if (key.length() > MAX_KEY_LENGTH) return null;
+        try {
+            GeocodeCacheEntry entry = cacheTx.execute(status -> cacheRepository.findById(key).orElse(null));
+            if (entry == null) return null;
+            LocalDateTime expiresAt = entry.getResolvedAt().plus(entry.isMiss() ? missTtl : hitTtl);
+            CachedResult result = new CachedResult(
+                    entry.isMiss() ? null : new double[]{entry.getLongitude(), entry.getLatitude()},
+                    expiresAt);
+            return result.isExpired() ? null : result;
+        } catch (RuntimeException e) {
+            log.debug("Geocode cache read failed for '{}': {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String key, double[] coords, LocalDateTime resolvedAt) {
+        if (key.length() > MAX_KEY_LENGTH) return;
+        try {
+            cacheTx.executeWithoutResult(status -> cacheRepository.save(new GeocodeCacheEntry(
+                    key,
+                    coords != null ? coords[1] : null,
+                    coords != null ? coords[0] : null,
+                    resolvedAt)));
+        } catch (RuntimeException e) {
+            log.debug("Geocode cache write failed for '{}': {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Canonical cache key for an address: Unicode-normalized, lowercased,
+     * whitespace collapsed and comma spacing unified, so "Main St 1 ,Skopje"
+     * and "main st 1, skopje" share one entry.
+     */
+    static String normalize(String address) {
+        if (address == null) return "";
+        String s = Normalizer.normalize(address, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s*,\\s*", ", ")
+                .replaceAll("\\s+", " ")
+                .trim();
+        while (s.endsWith(",") || s.endsWith(".")) {
+            s = s.substring(0, s.length() - 1).trim();
+        }
+        return s;
+    }
+
+    /** In-memory cache value; {@code lngLat == null} marks a cached miss. */
+    private record CachedResult(double[] lngLat, LocalDateTime expiresAt) {
+        boolean isExpired() {
+            return LocalDateTime.now().isAfter(expiresAt);
+        }
+
+        Optional<double[]> coords() {
+            return lngLat == null ? Optional.empty() : Optional.of(lngLat.clone());
+        }
+    }
+}
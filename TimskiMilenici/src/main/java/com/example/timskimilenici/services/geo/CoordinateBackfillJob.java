@@ -0,0 +1,281 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.entities.JobCheckpoint;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.JobCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background job that fills lat/lng for businesses saved without coordinates.
+ * Walks the missing rows in id order one chunk at a time: the chunk's
+ * addresses are geocoded on a bounded worker pool behind a rate limiter, then
+ * the coordinates and the checkpoint are committed together in one short
+ * transaction. A restart, or a crash mid-run, resumes after the last committed
+ * chunk instead of starting over.
+ *
+ * <p>Rows the geocoder could not resolve (no match, or the provider was
+ * down) are counted in the checkpoint's {@code failed} total and stay
+ * without coordinates. Every {@code geocoding.backfill.retry-interval-ms}
+ * (hourly by default) a run that finished with failures, or stopped on an
+ * error, is started again; since it only visits rows still missing
+ * coordinates, that pass retries exactly the unresolved ones.
+ *
+ * <p>Only one run is active per node; concurrent {@link #start} calls just
+ * return the current status.
+ */
+@Service
+public class CoordinateBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CoordinateBackfillJob.class);
+    static final String JOB_NAME = "coordinate-backfill";
+
+    private final BusinessRepository businessRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final CachedGeocodingService geocoder;
+    private final BusinessGeoIndex geoIndex;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CoordinateBackfillJob(BusinessRepository businessRepository,
+                                 JobCheckpointRepository checkpointRepository,
+                                 CachedGeocodingService geocoder,
+                                 BusinessGeoIndex geoIndex,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${geocoding.backfill.chunk-size:100}") int chunkSize,
+                                 @Value("${geocoding.backfill.parallelism:4}") int parallelism,
+                                 @Value("${geocoding.backfill.max-per-second:10}") double maxPerSecond) {
+        this.businessRepository = businessRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.geocoder = geocoder;
+        this.geoIndex = geoIndex;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.rateLimiter = new RateLimiter(maxPerSecond);
+        this.coordinator = Executors.newSingleThreadExecutor(named("geo-backfill"));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, parallelism), named("geo-backfill-worker"));
+    }
+
+    /**
+     * Start a run in the background and return the status at launch. Resumes
+     * an interrupted run unless {@code restart} is set; a finished run always
+     * starts again from the first id.
+     */
+    public JobCheckpoint start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return status();
+        }
+        JobCheckpoint checkpoint;
+        try {
+            checkpoint = tx.execute(status -> {
+                JobCheckpoint c = checkpointRepository.findById(JOB_NAME).orElse(null);
+                if (c == null) {
+                    c = new JobCheckpoint(JOB_NAME);
+                } else if (restart || c.getState() == JobCheckpoint.State.COMPLETED) {
+                    c.restart();
+                } else {
+                    c.setLastError(null);
+                    c.setState(JobCheckpoint.State.RUNNING);
+                }
+                return checkpointRepository.save(c);
+            });
+            coordinator.submit(this::run);
+        } catch (RuntimeException e) {
+            // Includes a RejectedExecutionException after shutdown: the run never started.
+            running.set(false);
+            throw e;
+        }
+        return checkpoint;
+    }
+
+    /** Latest persisted checkpoint; {@code null} if the job has never run. */
+    public JobCheckpoint status() {
+        return checkpointRepository.findById(JOB_NAME).orElse(null);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /** Pick up a run that was still in progress when the previous process stopped. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        JobCheckpoint checkpoint = status();
+        if (checkpoint != null && checkpoint.getState() == JobCheckpoint.State.RUNNING) {
+            log.info("Resuming coordinate backfill after business id {}.", checkpoint.getLastProcessedId());
+            start(false);
+        }
+    }
+
+    /**
+     * Retry pass: start again when the last run left rows unresolved or
+     * stopped on an error. A completed run starts over from the first id,
+     * which only revisits rows still missing coordinates; a failed run
+     * resumes from its checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${geocoding.backfill.retry-interval-ms:3600000}",
+            initialDelayString = "${geocoding.backfill.retry-interval-ms:3600000}")
+    public void retryUnresolved() {
+        JobCheckpoint checkpoint = status();
+        if (checkpoint == null || running.get()) return;
+        boolean unresolved = checkpoint.getState() == JobCheckpoint.State.COMPLETED && checkpoint.getFailed() > 0;
+        if (unresolved || checkpoint.getState() == JobCheckpoint.State.FAILED) {
+            log.info("Retrying coordinate backfill ({} unresolved row(s), state {}).",
+                    checkpoint.getFailed(), checkpoint.getState());
+            try {
+                start(false);
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            long afterId = status().getLastProcessedId();
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Object[]> rows = businessRepository.findMissingCoordinatesAfter(afterId, PageRequest.of(0, chunkSize));
+                if (rows.isEmpty()) break;
+                afterId = processChunk(rows);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // Shutting down: leave the checkpoint RUNNING so the next start resumes.
+                return;
+            }
+            JobCheckpoint done = finish(JobCheckpoint.State.COMPLETED, null);
+            log.info("Coordinate backfill finished: {} row(s) examined, {} updated, {} unresolved.",
+                    done.getProcessed(), done.getUpdated(), done.getFailed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | ExecutionException e) {
+            log.warn("Coordinate backfill failed; it will resume from the last checkpoint.", e);
+            try {
+                finish(JobCheckpoint.State.FAILED, e.getMessage());
+            } catch (RuntimeException ignored) {
+                // Database unavailable; the checkpoint still holds the last committed chunk.
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Geocode one chunk in parallel, then commit it with the checkpoint. Returns the chunk's last id. */
+    private long processChunk(List<Object[]> rows) throws InterruptedException, ExecutionException {
+        List<Future<Optional<double[]>>> pending = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String address = (String) row[1];
+            pending.add(workers.submit(() -> {
+                rateLimiter.acquire();
+                return geocoder.geocode(address);
+            }));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<double[]> coords = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Optional<double[]> result = pending.get(i).get();
+            if (result.isPresent()) {
+                ids.add(((Number) rows.get(i)[0]).longValue());
+                coords.add(result.get());
+            }
+        }
+
+        long lastId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        AtomicInteger updated = new AtomicInteger();
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < ids.size(); i++) {
+                double[] c = coords.get(i);
+                updated.addAndGet(businessRepository.fillMissingCoordinates(ids.get(i), c[1], c[0]));
+            }
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> new JobCheckpoint(JOB_NAME));
+            checkpoint.advance(lastId, rows.size(), updated.get(), rows.size() - ids.size());
+            checkpointRepository.save(checkpoint);
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            geoIndex.upsert(ids.get(i), coords.get(i)[1], coords.get(i)[0]);
+        }
+        return lastId;
+    }
+
+    private JobCheckpoint finish(JobCheckpoint.State state, String error) {
+        return tx.execute(status -> {
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> new JobCheckpoint(JOB_NAME));
+            checkpoint.setLastError(error);
+            checkpoint.setState(state);
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Spaces permits evenly at {@code permitsPerSecond} across all worker
+     * threads, so the upstream geocoder sees a steady rate rather than bursts.
+     * Cache hits still take a permit; that only matters when most of a chunk
+     * is already cached, in which case the run is fast anyway.
+     */
+    static final class RateLimiter {
+        private final long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            if (intervalNanos == 0) return;
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextFreeNanos);
+                nextFreeNanos = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
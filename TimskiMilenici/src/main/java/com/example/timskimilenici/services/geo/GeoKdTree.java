@@ -0,0 +1,274 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable 2-d tree over (latitude, longitude) points, stored as parallel
+ * primitive arrays laid out in implicit tree order (the median of every range
+ * is its node). Queries use great-circle distance and prune whole subtrees
+ * with a conservative lower bound on the distance to their bounding region,
+ * so k-nearest and radius searches touch only a small fraction of the points.
+ */
+public final class GeoKdTree {
+
+    /** A point returned by a query, with its great-circle distance from the query point. */
+    public record Neighbor(long id, double distanceKm) {}
+
+    private static final GeoKdTree EMPTY = new GeoKdTree(new long[0], new double[0], new double[0]);
+
+    private final long[] ids;
+    private final double[] lats;
+    private final double[] lngs;
+    private final double[] cosLats;
+
+    private GeoKdTree(long[] ids, double[] lats, double[] lngs) {
+        this.ids = ids;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.cosLats = new double[lats.length];
+        for (int i = 0; i < lats.length; i++) {
+            cosLats[i] = Math.cos(Math.toRadians(lats[i]));
+        }
+    }
+
+    public static GeoKdTree empty() {
+        return EMPTY;
+    }
+
+    /** Build a tree from parallel arrays. The inputs are copied, not retained. */
+    public static GeoKdTree build(long[] ids, double[] lats, double[] lngs) {
+        if (ids.length != lats.length || ids.length != lngs.length) {
+            throw new IllegalArgumentException("ids, lats and lngs must have the same length");
+        }
+        if (ids.length == 0) return EMPTY;
+        long[] i = Arrays.copyOf(ids, ids.length);
+        double[] la = Arrays.copyOf(lats, lats.length);
+        double[] ln = Arrays.copyOf(lngs, lngs.length);
+        arrange(i, la, ln, 0, i.length, 0);
+        return new GeoKdTree(i, la, ln);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Points within {@code radiusKm} of the query point, nearest first. When
+     * {@code k > 0} at most {@code k} points are returned and the search
+     * radius shrinks to the current k-th distance as better candidates are
+     * found; {@code k <= 0} returns every point inside the radius.
+     */
+    public List<Neighbor> nearest(double lat, double lng, int k, double radiusKm) {
+        if (ids.length == 0 || radiusKm < 0) return List.of();
+        Search s = new Search(lat, lng, k, radiusKm);
+        s.visit(0, ids.length, 0, -90, 90, -180, 180);
+        return s.results();
+    }
+
+    /** Every point within {@code radiusKm}, nearest first. */
+    public List<Neighbor> withinRadius(double lat, double lng, double radiusKm) {
+        return nearest(lat, lng, 0, radiusKm);
+    }
+
+    // ---- construction ---------------------------------------------------
+
+    private static void arrange(long[] ids, double[] lats, double[] lngs, int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        select(ids, lats, lngs, lo, hi - 1, mid, (depth & 1) == 0 ? lats : lngs);
+        arrange(ids, lats, lngs, lo, mid, depth + 1);
+        arrange(ids, lats, lngs, mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * Three-way quickselect: afterwards {@code key[k]} holds the value it would
+     * have if [left, right] were sorted, with smaller-or-equal keys before it
+     * and greater-or-equal keys after. Three-way partitioning keeps stores
+     * that share a building (identical coordinates) from going quadratic.
+     */
+    private static void select(long[] ids, double[] lats, double[] lngs,
+                               int left, int right, int k, double[] key) {
+        while (right > left) {
+            double pivot = medianOfThree(key[left], key[(left + right) >>> 1], key[right]);
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (key[i] < pivot) {
+                    swap(ids, lats, lngs, lt++, i++);
+                } else if (key[i] > pivot) {
+                    swap(ids, lats, lngs, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                right = lt - 1;
+            } else if (k > gt) {
+                left = gt + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(long[] ids, double[] lats, double[] lngs, int a, int b) {
+        long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+        double la = lats[a]; lats[a] = lats[b]; lats[b] = la;
+        double ln = lngs[a]; lngs[a] = lngs[b]; lngs[b] = ln;
+    }
+
+    /** Absolute longitude difference folded into [0, 180] so the antimeridian is handled. */
+    private static double longitudeGap(double a, double b) {
+        double d = Math.abs(a - b) % 360;
+        return d > 180 ? 360 - d : d;
+    }
+
+    // ---- querying -------------------------------------------------------
+
+    /** Per-query state: a bounded max-heap when {@code k > 0}, otherwise a growable buffer. */
+    private final class Search {
+        private final double qLat;
+        private final double qLng;
+        private final double qCosLat;
+        private final int k;
+        private final double radiusKm;
+        private long[] hitIds;
+        private double[] hitDist;
+        private int size;
+
+        Search(double qLat, double qLng, int k, double radiusKm) {
+            this.qLat = qLat;
+            this.qLng = qLng;
+            this.qCosLat = Math.cos(Math.toRadians(qLat));
+            this.k = k;
+            this.radiusKm = radiusKm;
+            int capacity = k > 0 ? Math.min(k, ids.length) : 16;
+            this.hitIds = new long[capacity];
+            this.hitDist = new double[capacity];
+        }
+
+        /** Current pruning distance: the radius, tightened to the k-th best once the heap is full. */
+        private double bound() {
+            return k > 0 && size == k ? Math.min(radiusKm, hitDist[0]) : radiusKm;
+        }
+
+        void visit(int lo, int hi, int depth, double minLat, double maxLat, double minLng, double maxLng) {
+            if (lo >= hi) return;
+            if (lowerBoundKm(minLat, maxLat, minLng, maxLng) > bound()) return;
+
+            int mid = (lo + hi) >>> 1;
+            offer(mid);
+
+            if ((depth & 1) == 0) {
+                double split = lats[mid];
+                if (qLat < split) {
+                    visit(lo, mid, depth + 1, minLat, split, minLng, maxLng);
+                    visit(mid + 1, hi, depth + 1, split, maxLat, minLng, maxLng);
+                } else {
+                    visit(mid + 1, hi, depth + 1, split, maxLat, minLng, maxLng);
+                    visit(lo, mid, depth + 1, minLat, split, minLng, maxLng);
+                }
+            } else {
+                double split = lngs[mid];
+                if (qLng < split) {
+                    visit(lo, mid, depth + 1, minLat, maxLat, minLng, split);
+                    visit(mid + 1, hi, depth + 1, minLat, maxLat, split, maxLng);
+                } else {
+                    visit(mid + 1, hi, depth + 1, minLat, maxLat, split, maxLng);
+                    visit(lo, mid, depth + 1, minLat, maxLat, minLng, split);
+                }
+            }
+        }
+
+        /**
+         * Lower bound on the great-circle distance from the query point to any
+         * point in the lat/lng box. The latitude gap is exact along a meridian;
+         * for the longitude gap we use the distance to the great circles through
+         * the two bounding meridians, which every path into the box must cross.
+         */
+        private double lowerBoundKm(double minLat, double maxLat, double minLng, double maxLng) {
+            double latGap = qLat < minLat ? minLat - qLat : (qLat > maxLat ? qLat - maxLat : 0);
+            double latKm = Math.toRadians(latGap) * GeoUtils.EARTH_RADIUS_KM;
+            double lngKm = 0;
+            if (qLng < minLng || qLng > maxLng) {
+                // sin is not monotonic over [0, 180], so compare the bounds, not the gaps.
+                double sinGap = Math.min(Math.sin(Math.toRadians(longitudeGap(qLng, minLng))),
+                        Math.sin(Math.toRadians(longitudeGap(qLng, maxLng))));
+                double s = Math.min(1, qCosLat * sinGap);
+                lngKm = Math.asin(s) * GeoUtils.EARTH_RADIUS_KM;
+            }
+            return Math.max(latKm, lngKm);
+        }
+
+        private void offer(int i) {
+            double sLat = Math.sin(Math.toRadians(lats[i] - qLat) / 2);
+            double sLng = Math.sin(Math.toRadians(lngs[i] - qLng) / 2);
+            double a = sLat * sLat + qCosLat * cosLats[i] * sLng * sLng;
+            double d = 2 * GeoUtils.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, a)));
+            if (d > radiusKm) return;
+
+            if (k <= 0) {
+                if (size == hitIds.length) {
+                    hitIds = Arrays.copyOf(hitIds, size * 2);
+                    hitDist = Arrays.copyOf(hitDist, size * 2);
+                }
+                hitIds[size] = ids[i];
+                hitDist[size] = d;
+                size++;
+            } else if (size < k) {
+                hitIds[size] = ids[i];
+                hitDist[size] = d;
+                siftUp(size++);
+            } else if (d < hitDist[0]) {
+                hitIds[0] = ids[i];
+                hitDist[0] = d;
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (hitDist[parent] >= hitDist[i]) return;
+                swapHits(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) return;
+                int right = left + 1;
+                int largest = right < size && hitDist[right] > hitDist[left] ? right : left;
+                if (hitDist[i] >= hitDist[largest]) return;
+                swapHits(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swapHits(int a, int b) {
+            long id = hitIds[a]; hitIds[a] = hitIds[b]; hitIds[b] = id;
+            double d = hitDist[a]; hitDist[a] = hitDist[b]; hitDist[b] = d;
+        }
+
+        List<Neighbor> results() {
+            List<Neighbor> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                out.add(new Neighbor(hitIds[i], hitDist[i]));
+            }
+            out.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+            return out;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.timskimilenici.services.geo;
+
+import java.util.Optional;
+
+/**
+ * Upstream address → coordinates provider. Implementations do no caching of
+ * their own; {@link CachedGeocodingService} sits in front of whichever one is
+ * active (selected with {@code geocoding.provider}, {@code mapbox} by default).
+ */
+public interface Geocoder {
+
+    /**
+     * Resolve a free-form address.
+     *
+     * @return {@code [longitude, latitude]}, or empty when the provider has no match for the address
+     * @throws GeocodingUnavailableException when the provider could not answer (not configured,
+     *         network error, non-2xx response); such failures are never cached
+     */
+    Optional<double[]> geocode(String address);
+
+    /**
+     * False when the provider lacks the configuration it needs (e.g. an API
+     * token), so every call would fail. The provider warns about that once
+     * at startup; callers skip it quietly instead of failing per lookup.
+     */
+    default boolean isConfigured() {
+        return true;
+    }
+}
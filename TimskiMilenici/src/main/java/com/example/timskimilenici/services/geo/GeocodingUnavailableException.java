@@ -0,0 +1,16 @@
+package com.example.timskimilenici.services.geo;
+
+/**
+ * The geocoding provider could not answer. Distinct from "no match" so the
+ * cache layer can remember misses without remembering outages.
+ */
+public class GeocodingUnavailableException extends RuntimeException {
+
+    public GeocodingUnavailableException(String message) {
+        super(message);
+    }
+
+    public GeocodingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,470 @@
+package com.example.timskimilenici.services.search;
+
+import com.example.timskimilenici.entities.BaseItem;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over stores, products and services, used by the AI
+ * customer tools. Holds a compact copy of every searchable field plus one
+ * {@link InvertedIndex} per kind, so a search is a few posting-list lookups
+ * instead of a catalogue scan with lazy collection loads.
+ *
+ * <p>Writes go through the upsert/remove hooks from the service and
+ * controller layer. Item documents also carry their store's name and
+ * categories, so re-indexing a store re-indexes its items. As with
+ * {@code BusinessGeoIndex}, a periodic full reload from the database repairs
+ * any drift (rolled-back saves, writes from other nodes).
+ */
+@Component
+public class CatalogueIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueIndex.class);
+
+    // Field weights; a token scores the best field it appears in.
+    static final int STORE_NAME = 3;
+    static final int STORE_CATEGORY = 2;
+    static final int STORE_ADDRESS = 2;
+    static final int STORE_DESCRIPTION = 1;
+    static final int ITEM_NAME = 4;
+    static final int ITEM_DESCRIPTION = 2;
+    static final int ITEM_STORE_NAME = 2;
+    static final int ITEM_STORE_CATEGORY = 1;
+
+    public enum ItemType { PRODUCT, SERVICE }
+
+    public record StoreEntry(
+            Long id,
+            String name,
+            String category,
+            List<String> categories,
+            String address,
+            String description,
+            String contactPhone,
+            String contactEmail
+    ) {}
+
+    public record ItemEntry(
+            Long id,
+            ItemType type,
+            String name,
+            String description,
+            BigDecimal originalPrice,
+            BigDecimal promotionPrice,
+            Long storeId,
+            String storeName
+    ) {
+        /** Same rule as {@link BaseItem#getCurrentPrice()}. */
+        public BigDecimal currentPrice() {
+            return SearchHit.currentPrice(originalPrice, promotionPrice);
+        }
+
+        ItemEntry withStoreName(String name) {
+            return new ItemEntry(id, type, this.name, description, originalPrice, promotionPrice, storeId, name);
+        }
+    }
+
+    private final BusinessRepository businessRepository;
+    private final ProductRepository productRepository;
+    private final PetServiceRepository petServiceRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; swapped wholesale on reload.
+    private NavigableMap<Long, StoreEntry> stores = new TreeMap<>();
+    private InvertedIndex storeIndex = new InvertedIndex();
+    private ItemTable products = new ItemTable();
+    private ItemTable services = new ItemTable();
+    private volatile boolean ready;
+    private final AtomicLong version = new AtomicLong();
+
+    public CatalogueIndex(BusinessRepository businessRepository,
+                          ProductRepository productRepository,
+                          PetServiceRepository petServiceRepository) {
+        this.businessRepository = businessRepository;
+        this.productRepository = productRepository;
+        this.petServiceRepository = petServiceRepository;
+    }
+
+    /** False until the first load from the database has completed. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Bumped by every write and reload. Anything derived from index contents
+     * (such as cached chat replies) is stale once this has moved on.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Rebuild the index from the database. Runs on startup and then every
+     * {@code catalogue.index.refresh-ms} (10 minutes by default). Reads plain
+     * column rows, so no entities or lazy collections are loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalogue.index.refresh-ms:600000}",
+            initialDelayString = "${catalogue.index.refresh-ms:600000}")
+    public void reload() {
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (Object[] row : businessRepository.findAllCategoryRows()) {
+            if (row[0] == null || row[1] == null) continue;
+            categories.computeIfAbsent(((Number) row[0]).longValue(), k -> new ArrayList<>()).add((String) row[1]);
+        }
+        NavigableMap<Long, StoreEntry> freshStores = new TreeMap<>();
+        InvertedIndex freshStoreIndex = new InvertedIndex();
+        for (Object[] row : businessRepository.findAllCatalogueRows()) {
+            long id = ((Number) row[0]).longValue();
+            StoreEntry store = new StoreEntry(id, (String) row[1], (String) row[2],
+                    List.copyOf(categories.getOrDefault(id, List.of())),
+                    (String) row[3], (String) row[4], (String) row[5], (String) row[6]);
+            freshStores.put(id, store);
+            freshStoreIndex.put(id, storeTerms(store));
+        }
+        ItemTable freshProducts = new ItemTable();
+        for (Object[] row : productRepository.findAllCatalogueRows()) {
+            freshProducts.put(itemFromRow(ItemType.PRODUCT, row, freshStores), freshStores);
+        }
+        ItemTable freshServices = new ItemTable();
+        for (Object[] row : petServiceRepository.findAllCatalogueRows()) {
+            freshServices.put(itemFromRow(ItemType.SERVICE, row, freshStores), freshStores);
+        }
+
+        lock.writeLock().lock();
+        try {
+            stores = freshStores;
+            storeIndex = freshStoreIndex;
+            products = freshProducts;
+            services = freshServices;
+            ready = true;
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Catalogue index loaded with {} store(s), {} product(s), {} service(s).",
+                freshStores.size(), freshProducts.size(), freshServices.size());
+    }
+
+    /** Index a saved business and re-index its items against the new store fields. */
+    public void upsertStore(Business business) {
+        if (business == null || business.getId() == null) return;
+        StoreEntry store = new StoreEntry(business.getId(), business.getName(), business.getCategory(),
+                business.getCategories() == null ? List.of() : List.copyOf(business.getCategories()),
+                business.getAddress(), business.getDescription(),
+                business.getContactPhone(), business.getContactEmail());
+        lock.writeLock().lock();
+        try {
+            stores.put(store.id(), store);
+            storeIndex.put(store.id(), storeTerms(store));
+            products.reindexStore(store);
+            services.reindexStore(store);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drop a deleted business together with its items, which the delete cascades to. */
+    public void removeStore(Long businessId) {
+        if (businessId == null) return;
+        lock.writeLock().lock();
+        try {
+            stores.remove(businessId);
+            storeIndex.remove(businessId);
+            products.removeStore(businessId);
+            services.removeStore(businessId);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertProduct(Product product) {
+        upsertItem(products, ItemType.PRODUCT, product);
+    }
+
+    public void upsertService(PetService service) {
+        upsertItem(services, ItemType.SERVICE, service);
+    }
+
+    public void removeProduct(Long productId) {
+        removeItem(products, productId);
+    }
+
+    public void removeService(Long serviceId) {
+        removeItem(services, serviceId);
+    }
+
+    /** The first {@code limit} stores in id order. */
+    public List<StoreEntry> listStores(int limit) {
+        lock.readLock().lock();
+        try {
+            return stores.values().stream().limit(limit).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Stores ranked by keyword overlap with name, categories, address and description. */
+    public List<StoreEntry> searchStores(List<String> tokens, int limit) {
+        lock.readLock().lock();
+        try {
+            List<StoreEntry> hits = new ArrayList<>();
+            for (Long id : storeIndex.search(tokens, limit)) {
+                hits.add(stores.get(id));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** First store, in id order, whose name contains {@code partialName} (case-insensitive). */
+    public Optional<StoreEntry> findStoreByName(String partialName) {
+        if (partialName == null || partialName.isBlank()) return Optional.empty();
+        String q = partialName.trim().toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            for (StoreEntry store : stores.values()) {
+                if (store.name() != null && store.name().toLowerCase(Locale.ROOT).contains(q)) {
+                    return Optional.of(store);
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ItemEntry> searchProducts(List<String> tokens, int limit) {
+        return searchItems(products, tokens, limit);
+    }
+
+    public List<ItemEntry> searchServices(List<String> tokens, int limit) {
+        return searchItems(services, tokens, limit);
+    }
+
+    /**
+     * Every match of the requested kinds, best first (ties by kind, then id).
+     * Backs {@code /api/search} when Postgres full-text search isn't available.
+     */
+    public List<SearchHit> searchAll(List<String> tokens, Set<SearchHit.Kind> kinds) {
+        if (tokens.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            List<SearchHit> hits = new ArrayList<>();
+            if (kinds.contains(SearchHit.Kind.STORE)) {
+                storeIndex.scores(tokens).forEach((id, score) -> {
+                    StoreEntry s = stores.get(id);
+                    hits.add(new SearchHit(SearchHit.Kind.STORE, s.id(), s.name(), s.description(),
+                            s.id(), s.name(), null, null, score));
+                });
+            }
+            if (kinds.contains(SearchHit.Kind.PRODUCT)) products.collect(tokens, SearchHit.Kind.PRODUCT, hits);
+            if (kinds.contains(SearchHit.Kind.SERVICE)) services.collect(tokens, SearchHit.Kind.SERVICE, hits);
+            hits.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                    .thenComparing(SearchHit::kind)
+                    .thenComparing(SearchHit::id));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ItemEntry> productsOf(Long storeId, int limit) {
+        return itemsOf(products, storeId, limit);
+    }
+
+    public List<ItemEntry> servicesOf(Long storeId, int limit) {
+        return itemsOf(services, storeId, limit);
+    }
+
+    private void upsertItem(ItemTable table, ItemType type, BaseItem item) {
+        if (item == null || item.getId() == null) return;
+        Long storeId = item.resolveBusinessId();
+        if (storeId == null) {
+            // Business not attached to the saved entity; the next reload picks the item up.
+            removeItem(table, item.getId());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            StoreEntry store = stores.get(storeId);
+            ItemEntry entry = new ItemEntry(item.getId(), type, item.getName(), item.getDescription(),
+                    item.getOriginalPrice(), item.getPromotionPrice(), storeId,
+                    store != null ? store.name() : item.resolveBusinessName());
+            table.put(entry, stores);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeItem(ItemTable table, Long itemId) {
+        if (itemId == null) return;
+        lock.writeLock().lock();
+        try {
+            table.remove(itemId);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<ItemEntry> searchItems(ItemTable table, List<String> tokens, int limit) {
+        lock.readLock().lock();
+        try {
+            return table.search(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ItemEntry> itemsOf(ItemTable table, Long storeId, int limit) {
+        lock.readLock().lock();
+        try {
+            return table.ofStore(storeId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static ItemEntry itemFromRow(ItemType type, Object[] row, Map<Long, StoreEntry> stores) {
+        // [id, businessId, name, description, originalPrice, promotionPrice]
+        Long storeId = row[1] == null ? null : ((Number) row[1]).longValue();
+        StoreEntry store = storeId == null ? null : stores.get(storeId);
+        return new ItemEntry(((Number) row[0]).longValue(), type, (String) row[2], (String) row[3],
+                (BigDecimal) row[4], (BigDecimal) row[5], storeId, store != null ? store.name() : null);
+    }
+
+    private static Map<String, Integer> storeTerms(StoreEntry store) {
+        Map<String, Integer> terms = new HashMap<>();
+        InvertedIndex.addField(terms, store.name(), STORE_NAME);
+        InvertedIndex.addField(terms, store.category(), STORE_CATEGORY);
+        InvertedIndex.addField(terms, store.address(), STORE_ADDRESS);
+        InvertedIndex.addField(terms, store.description(), STORE_DESCRIPTION);
+        for (String category : store.categories()) {
+            InvertedIndex.addField(terms, category, STORE_CATEGORY);
+        }
+        return terms;
+    }
+
+    private static Map<String, Integer> itemTerms(ItemEntry item, StoreEntry store) {
+        Map<String, Integer> terms = new HashMap<>();
+        InvertedIndex.addField(terms, item.name(), ITEM_NAME);
+        InvertedIndex.addField(terms, item.description(), ITEM_DESCRIPTION);
+        if (store != null) {
+            InvertedIndex.addField(terms, store.name(), ITEM_STORE_NAME);
+            InvertedIndex.addField(terms, store.category(), ITEM_STORE_CATEGORY);
+            for (String category : store.categories()) {
+                InvertedIndex.addField(terms, category, ITEM_STORE_CATEGORY);
+            }
+        }
+        return terms;
+    }
+
+    /** Entries, per-store membership and the inverted index for one item kind. Guarded by the outer lock. */
+    private static final class ItemTable {
+        private final Map<Long, ItemEntry> entries = new HashMap<>();
+        private final Map<Long, NavigableSet<Long>> byStore = new HashMap<>();
+        private final InvertedIndex index = new InvertedIndex();
+
+        int size() {
+            return entries.size();
+        }
+
+        void put(ItemEntry entry, Map<Long, StoreEntry> stores) {
+            ItemEntry previous = entries.put(entry.id(), entry);
+            if (previous != null && previous.storeId() != null && !previous.storeId().equals(entry.storeId())) {
+                unlink(previous);
+            }
+            if (entry.storeId() != null) {
+                byStore.computeIfAbsent(entry.storeId(), k -> new TreeSet<>()).add(entry.id());
+            }
+            index.put(entry.id(), itemTerms(entry, entry.storeId() == null ? null : stores.get(entry.storeId())));
+        }
+
+        void remove(Long id) {
+            ItemEntry previous = entries.remove(id);
+            if (previous == null) return;
+            unlink(previous);
+            index.remove(id);
+        }
+
+        void reindexStore(StoreEntry store) {
+            NavigableSet<Long> ids = byStore.get(store.id());
+            if (ids == null) return;
+            for (Long id : ids) {
+                ItemEntry entry = entries.get(id).withStoreName(store.name());
+                entries.put(id, entry);
+                index.put(id, itemTerms(entry, store));
+            }
+        }
+
+        void removeStore(Long storeId) {
+            NavigableSet<Long> ids = byStore.remove(storeId);
+            if (ids == null) return;
+            for (Long id : ids) {
+                entries.remove(id);
+                index.remove(id);
+            }
+        }
+
+        List<ItemEntry> search(List<String> tokens, int limit) {
+            List<ItemEntry> hits = new ArrayList<>();
+            for (Long id : index.search(tokens, limit)) {
+                hits.add(entries.get(id));
+            }
+            return hits;
+        }
+
+        void collect(List<String> tokens, SearchHit.Kind kind, List<SearchHit> out) {
+            index.scores(tokens).forEach((id, score) -> {
+                ItemEntry e = entries.get(id);
+                out.add(new SearchHit(kind, e.id(), e.name(), e.description(), e.storeId(), e.storeName(),
+                        e.originalPrice(), e.currentPrice(), score));
+            });
+        }
+
+        List<ItemEntry> ofStore(Long storeId, int limit) {
+            NavigableSet<Long> ids = byStore.get(storeId);
+            if (ids == null) return List.of();
+            return ids.stream().limit(limit).map(entries::get).toList();
+        }
+
+        private void unlink(ItemEntry entry) {
+            NavigableSet<Long> ids = byStore.get(entry.storeId());
+            if (ids == null) return;
+            ids.remove(entry.id());
+            if (ids.isEmpty()) byStore.remove(entry.storeId());
+        }
+    }
+}
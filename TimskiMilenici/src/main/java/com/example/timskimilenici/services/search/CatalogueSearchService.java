@@ -0,0 +1,77 @@
+package com.example.timskimilenici.services.search;
+
+import com.example.timskimilenici.config.MetricsConfig;
+import com.example.timskimilenici.repositories.CatalogueSearchRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ranked, paginated catalogue search behind {@code GET /api/search}. Uses
+ * Postgres full-text search when {@link FullTextSearchSchema} could set it
+ * up, and otherwise (or if the query fails) the in-memory
+ * {@link CatalogueIndex}, so the endpoint also works on other databases.
+ * Both backends tokenize with {@link SearchTokenizer} and expand synonyms:
+ * any keyword may match, as a word prefix, and hits rank by how many
+ * keywords match and where.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class CatalogueSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueSearchService.class);
+
+    private final CatalogueSearchRepository repository;
+    private final FullTextSearchSchema schema;
+    private final CatalogueIndex index;
+
+    public CatalogueSearchService(CatalogueSearchRepository repository,
+                                  FullTextSearchSchema schema,
+                                  CatalogueIndex index) {
+        this.repository = repository;
+        this.schema = schema;
+        this.index = index;
+    }
+
+    public SearchPage search(String query, Set<SearchHit.Kind> kinds, int page, int size) {
+        List<String> tokens = SearchTokenizer.queryTokens(query);
+        if (tokens.isEmpty() || kinds.isEmpty()) {
+            return new SearchPage(query, page, size, 0, List.of());
+        }
+        if (schema.isFullTextAvailable()) {
+            try {
+                return fullText(query, tokens, kinds, page, size);
+            } catch (RuntimeException e) {
+                log.warn("Full-text search failed, using the in-memory index: {}", e.getMessage());
+            }
+        }
+        List<SearchHit> all = index.searchAll(tokens, kinds);
+        long from = Math.min((long) page * size, all.size());
+        int to = (int) Math.min(from + size, all.size());
+        return new SearchPage(query, page, size, all.size(), all.subList((int) from, to));
+    }
+
+    private SearchPage fullText(String query, List<String> tokens, Set<SearchHit.Kind> kinds, int page, int size) {
+        // Tokens and synonyms are letters and digits only, so they are safe to splice into a tsquery.
+        String tsQuery = tokens.stream()
+                .flatMap(t -> Stream.concat(Stream.of(t), SynonymTable.of(t).stream()))
+                .distinct()
+                .map(t -> t + ":*")
+                .collect(Collectors.joining(" | "));
+        boolean trigram = schema.isTrigramAvailable();
+        long offset = (long) page * size;
+        CatalogueSearchRepository.Result result = repository.search(tsQuery, query, kinds, trigram, size, offset);
+        long total = result.total();
+        if (result.hits().isEmpty() && offset > 0) {
+            // Past the last page: the window count came back with no rows, so ask for it directly.
+            total = repository.search(tsQuery, query, kinds, trigram, 1, 0).total();
+        }
+        return new SearchPage(query, page, size, total, result.hits());
+    }
+}
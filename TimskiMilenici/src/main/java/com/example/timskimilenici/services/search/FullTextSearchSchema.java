@@ -0,0 +1,113 @@
+package com.example.timskimilenici.services.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Creates the Postgres full-text search objects that Hibernate's
+ * {@code ddl-auto} can't express: generated {@code tsvector} columns with GIN
+ * indexes on businesses, products and services, a trigram index for fuzzy
+ * address matching (which also serves {@code findByAddressContainingIgnoreCase}),
+ * and B-tree indexes behind the category finders. Every statement is
+ * idempotent and runs once on startup.
+ *
+ * <p>On any other database, or if the full-text objects can't be created,
+ * {@link #isFullTextAvailable()} stays false and {@link CatalogueSearchService}
+ * serves searches from the in-memory {@link CatalogueIndex} instead.
+ */
+@Component
+public class FullTextSearchSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(FullTextSearchSchema.class);
+
+    private static final List<String> FULL_TEXT_DDL = List.of(
+            """
+            ALTER TABLE businesses ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+                setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('english', coalesce(category, '')), 'B') ||
+                setweight(to_tsvector('simple', coalesce(address, '')), 'B') ||
+                setweight(to_tsvector('english', coalesce(description, '')), 'C')) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_businesses_search_vector ON businesses USING GIN (search_vector)",
+            """
+            ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+                setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('english', coalesce(description, '')), 'B')) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector)",
+            """
+            ALTER TABLE pet_services ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+                setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('english', coalesce(description, '')), 'B')) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_pet_services_search_vector ON pet_services USING GIN (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_businesses_category ON businesses (category)",
+            "CREATE INDEX IF NOT EXISTS idx_business_categories_category ON business_categories (category)"
+    );
+
+    // upper() matches what Spring Data generates for ...ContainingIgnoreCase finders.
+    private static final List<String> TRIGRAM_DDL = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_businesses_address_trgm ON businesses USING GIN (upper(address) gin_trgm_ops)"
+    );
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private volatile boolean fullTextAvailable;
+    private volatile boolean trigramAvailable;
+
+    public FullTextSearchSchema(DataSource dataSource, JdbcTemplate jdbc) {
+        this.dataSource = dataSource;
+        this.jdbc = jdbc;
+    }
+
+    public boolean isFullTextAvailable() {
+        return fullTextAvailable;
+    }
+
+    public boolean isTrigramAvailable() {
+        return trigramAvailable;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureSchema() {
+        if (!isPostgres()) {
+            log.info("Database is not PostgreSQL; /api/search will use the in-memory catalogue index.");
+            return;
+        }
+        fullTextAvailable = apply(FULL_TEXT_DDL, "full-text search");
+        trigramAvailable = fullTextAvailable && apply(TRIGRAM_DDL, "trigram address matching");
+    }
+
+    private boolean apply(List<String> statements, String feature) {
+        try {
+            for (String sql : statements) {
+                jdbc.execute(sql);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not set up {}: {}", feature, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isPostgres() {
+        try (Connection c = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(c.getMetaData().getDatabaseProductName());
+        } catch (Exception e) {
+            log.warn("Could not determine the database type: {}", e.getMessage());
+            return false;
+        }
+    }
+}
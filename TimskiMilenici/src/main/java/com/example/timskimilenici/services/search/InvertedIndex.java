@@ -0,0 +1,144 @@
+package com.example.timskimilenici.services.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Term → posting list index over one kind of document. Each posting carries
+ * the weight of the best field the term appeared in. A query token matches
+ * every indexed term it is a prefix of, so "groom" hits "grooming"; terms are
+ * kept sorted so that is a range scan rather than a walk of the vocabulary.
+ * A token also matches its {@link SynonymTable} alternatives and, when it
+ * hits nothing directly, vocabulary words within a typo of it, both at half
+ * the weight of a direct hit.
+ *
+ * <p>Not thread-safe; {@link CatalogueIndex} guards it.
+ */
+final class InvertedIndex {
+
+    /** Highest score first, then lowest id, matching the old catalogue-order tie break. */
+    private static final Comparator<Map.Entry<Long, Integer>> RANKING =
+            Map.Entry.<Long, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    /** Forward index, so a document can be removed without scanning every posting list. */
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final TermGramIndex vocabulary = new TermGramIndex();
+
+    /** Multipliers on the field weight: a direct hit counts double a synonym or typo-corrected hit. */
+    private static final int DIRECT = 2;
+    private static final int RELATED = 1;
+
+    /** Add a field's words to a document's term map, keeping the highest weight per term. */
+    static void addField(Map<String, Integer> terms, String text, int weight) {
+        for (String term : SearchTokenizer.terms(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    /** Replace a document's terms. */
+    void put(long docId, Map<String, Integer> terms) {
+        remove(docId);
+        if (terms.isEmpty()) return;
+        documents.put(docId, terms);
+        for (Map.Entry<String, Integer> e : terms.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), this::newTerm).put(docId, e.getValue());
+        }
+    }
+
+    void remove(long docId) {
+        Map<String, Integer> terms = documents.remove(docId);
+        if (terms == null) return;
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list == null) continue;
+            list.remove(docId);
+            if (list.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+            }
+        }
+    }
+
+    private Map<Long, Integer> newTerm(String term) {
+        vocabulary.add(term);
+        return new HashMap<>();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Score of every document matching at least one token. Each token
+     * contributes the weight of its best matching term in a document, and a
+     * document's score is the sum over tokens, so documents rank by how many
+     * keywords hit and in which fields.
+     */
+    Map<Long, Integer> scores(List<String> tokens) {
+        Map<Long, Integer> scores = new HashMap<>();
+        Map<Long, Integer> best = new HashMap<>();
+        for (String token : tokens) {
+            Collection<Map<Long, Integer>> direct = prefixed(token);
+            List<String> synonyms = SynonymTable.of(token);
+            if (direct.size() == 1 && synonyms.isEmpty()) {
+                // Common case: a whole word that no longer word extends and that has no synonyms.
+                direct.iterator().next().forEach((id, weight) -> scores.merge(id, weight * DIRECT, Integer::sum));
+                continue;
+            }
+            best.clear();
+            collect(direct, DIRECT, best);
+            for (String synonym : synonyms) {
+                collect(prefixed(synonym), RELATED, best);
+            }
+            if (direct.isEmpty()) {
+                for (String near : vocabulary.near(token)) {
+                    collect(List.of(postings.get(near)), RELATED, best);
+                }
+            }
+            best.forEach((id, weight) -> scores.merge(id, weight, Integer::sum));
+        }
+        return scores;
+    }
+
+    private Collection<Map<Long, Integer>> prefixed(String token) {
+        return postings.subMap(token, true, token + Character.MAX_VALUE, false).values();
+    }
+
+    private static void collect(Collection<Map<Long, Integer>> lists, int factor, Map<Long, Integer> best) {
+        for (Map<Long, Integer> list : lists) {
+            for (Map.Entry<Long, Integer> p : list.entrySet()) {
+                best.merge(p.getKey(), p.getValue() * factor, Math::max);
+            }
+        }
+    }
+
+    /** Ids of the {@code limit} best-scoring documents, best first. See {@link #scores}. */
+    List<Long> search(List<String> tokens, int limit) {
+        if (tokens.isEmpty() || limit <= 0) return List.of();
+        Map<Long, Integer> scores = scores(tokens);
+        if (scores.isEmpty()) return List.of();
+
+        // Bounded heap with the weakest hit on top, so ranking costs O(n log limit).
+        PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+            top.offer(e);
+            if (top.size() > limit) top.poll();
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Integer> e : ranked) {
+            ids.add(e.getKey());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.timskimilenici.services.search;
+
+import java.math.BigDecimal;
+
+/**
+ * One ranked result of {@code GET /api/search}. For a store, {@code storeId}
+ * and {@code storeName} repeat its own id and name and the prices are null.
+ */
+public record SearchHit(
+        Kind kind,
+        Long id,
+        String name,
+        String description,
+        Long storeId,
+        String storeName,
+        BigDecimal originalPrice,
+        BigDecimal currentPrice,
+        double score
+) {
+    public enum Kind { STORE, PRODUCT, SERVICE }
+
+    /** Same rule as {@code BaseItem#getCurrentPrice()}. */
+    public static BigDecimal currentPrice(BigDecimal originalPrice, BigDecimal promotionPrice) {
+        return promotionPrice != null && originalPrice != null && promotionPrice.compareTo(originalPrice) < 0
+                ? promotionPrice : originalPrice;
+    }
+}
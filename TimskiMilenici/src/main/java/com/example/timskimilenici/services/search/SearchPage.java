@@ -0,0 +1,12 @@
+package com.example.timskimilenici.services.search;
+
+import java.util.List;
+
+/** A page of {@link SearchHit}s, best first; {@code total} counts every match across pages. */
+public record SearchPage(
+        String query,
+        int page,
+        int size,
+        long total,
+        List<SearchHit> results
+) {}
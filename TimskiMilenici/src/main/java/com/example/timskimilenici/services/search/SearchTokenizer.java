@@ -0,0 +1,63 @@
+package com.example.timskimilenici.services.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits catalogue text and user queries into lowercase, stemmed keywords.
+ * Both sides of {@link CatalogueIndex} go through here so indexed terms and
+ * query tokens always agree on case, word boundaries and word form.
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * English stop words and filler terms users often type in casual product
+     * queries. Dropping these lets multi-word questions like "shampoo for my
+     * bichon" still match the "shampoo" product in the catalog.
+     */
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "the", "for", "to", "of", "in", "on", "with",
+            "my", "your", "our", "their", "his", "her", "some", "any",
+            "please", "can", "could", "would", "want", "need", "looking",
+            "find", "buy", "get", "show", "me", "us", "pet", "pets"
+    );
+
+    private SearchTokenizer() {}
+
+    /**
+     * Tokenize a user query into lowercase, stemmed keywords, skipping stop
+     * words and tokens that are too short to be useful. Falls back to the raw
+     * single word when everything gets stripped (e.g. "cat" alone).
+     */
+    public static List<String> queryTokens(String query) {
+        if (query == null || query.isBlank()) return List.of();
+        String[] raw = NON_WORD.split(query.toLowerCase(Locale.ROOT));
+        List<String> tokens = new ArrayList<>();
+        for (String t : raw) {
+            if (t.length() < 2) continue;
+            if (STOP_WORDS.contains(t)) continue;
+            tokens.add(Stemmer.stem(t));
+        }
+        if (tokens.isEmpty()) {
+            for (String t : raw) {
+                if (!t.isBlank()) tokens.add(Stemmer.stem(t));
+            }
+        }
+        return tokens;
+    }
+
+    /** Every word of a catalogue field, lowercased and stemmed. Nothing is dropped, so any query token can hit it. */
+    public static List<String> terms(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> terms = new ArrayList<>();
+        for (String t : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty()) terms.add(Stemmer.stem(t));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.timskimilenici.services.search;
+
+/**
+ * Light English suffix stripper for catalogue words: plurals and the
+ * {@code -ing}/{@code -ed} verb forms that dominate pet-shop vocabulary
+ * ("puppies" → "puppy", "brushes" → "brush", "grooming" → "groom",
+ * "trimmed" → "trim"). Deliberately conservative; it only has to map a
+ * query word and the catalogue word it was meant to hit onto the same stem,
+ * and it never shortens a word below three letters.
+ */
+final class Stemmer {
+
+    private static final int MIN_STEM = 3;
+
+    private Stemmer() {}
+
+    static String stem(String word) {
+        int n = word.length();
+        if (n <= MIN_STEM) return word;
+        if (word.endsWith("ies") && n - 3 >= MIN_STEM - 1) {
+            return word.substring(0, n - 3) + "y";
+        }
+        if (word.endsWith("sses")) {
+            return word.substring(0, n - 2);
+        }
+        if (word.endsWith("es") && n - 2 >= MIN_STEM
+                && (endsWithAny(word, n - 2, "ch", "sh") || "sxz".indexOf(word.charAt(n - 3)) >= 0)) {
+            return word.substring(0, n - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, n - 1);
+        }
+        if (word.endsWith("ing") && n - 3 >= MIN_STEM && hasVowel(word, n - 3)) {
+            return undouble(word.substring(0, n - 3));
+        }
+        if (word.endsWith("ed") && !word.endsWith("eed") && n - 2 >= MIN_STEM && hasVowel(word, n - 2)) {
+            return undouble(word.substring(0, n - 2));
+        }
+        return word;
+    }
+
+    /** "trimm" → "trim", "bedd" → "bed"; keeps "dress", "ball", "buzz". */
+    private static String undouble(String stem) {
+        int n = stem.length();
+        char last = stem.charAt(n - 1);
+        if (n > MIN_STEM && last == stem.charAt(n - 2) && "lsz".indexOf(last) < 0 && !isVowel(last)) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+
+    private static boolean endsWithAny(String word, int end, String... suffixes) {
+        for (String s : suffixes) {
+            if (word.startsWith(s, end - s.length())) return true;
+        }
+        return false;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if (isVowel(word.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c) {
+        return "aeiouy".indexOf(c) >= 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.timskimilenici.services.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups of words customers use interchangeably for the same kind of item
+ * or service. A query word also matches the other words of its group, at a
+ * lower weight than a direct hit, so "bath" finds grooming services and
+ * "vet" finds a "veterinary clinic" in one search.
+ */
+final class SynonymTable {
+
+    private static final List<List<String>> GROUPS = List.of(
+            List.of("vet", "veterinary", "veterinarian", "clinic", "doctor", "checkup"),
+            List.of("grooming", "groomer", "haircut", "trim", "clipping", "styling", "bath"),
+            List.of("bath", "bathing", "wash", "shampoo"),
+            List.of("boarding", "hotel", "kennel", "daycare", "sitting", "sitter"),
+            List.of("training", "trainer", "obedience", "behaviour", "behavior"),
+            List.of("walking", "walker", "walk"),
+            List.of("dog", "puppy", "pup", "canine"),
+            List.of("cat", "kitten", "kitty", "feline"),
+            List.of("food", "feed", "kibble", "meal"),
+            List.of("treat", "snack", "chew"),
+            List.of("toy", "plaything"),
+            List.of("leash", "lead"),
+            List.of("collar", "harness"),
+            List.of("bed", "cushion", "mattress"),
+            List.of("nail", "claw"),
+            List.of("flea", "tick", "parasite", "deworming"),
+            List.of("vaccine", "vaccination", "shot"),
+            List.of("litter", "sand")
+    );
+
+    /** Stemmed word → stemmed words of its group(s), excluding itself. */
+    private static final Map<String, List<String>> BY_STEM = build();
+
+    private SynonymTable() {}
+
+    /** Alternatives for an already stemmed query token; empty when it has none. */
+    static List<String> of(String stem) {
+        return BY_STEM.getOrDefault(stem, List.of());
+    }
+
+    private static Map<String, List<String>> build() {
+        Map<String, List<String>> byStem = new HashMap<>();
+        for (List<String> group : GROUPS) {
+            List<String> stems = group.stream().map(Stemmer::stem).distinct().toList();
+            for (String stem : stems) {
+                List<String> others = byStem.computeIfAbsent(stem, k -> new ArrayList<>());
+                for (String other : stems) {
+                    if (!other.equals(stem) && !others.contains(other)) others.add(other);
+                }
+            }
+        }
+        byStem.replaceAll((k, v) -> List.copyOf(v));
+        return Map.copyOf(byStem);
+    }
+}
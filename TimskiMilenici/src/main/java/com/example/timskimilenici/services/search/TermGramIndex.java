@@ -0,0 +1,125 @@
+package com.example.timskimilenici.services.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over an {@link InvertedIndex}'s vocabulary, for typo-tolerant
+ * lookups. A word within {@code k} edits of the query shares all but at most
+ * {@code 4k} of the query's trigrams (a substitution breaks three, an
+ * adjacent swap four), so only vocabulary words passing that count are
+ * checked with the (bounded) edit distance.
+ *
+ * <p>Not thread-safe; guarded together with its {@link InvertedIndex}.
+ */
+final class TermGramIndex {
+
+    /** Words shorter than this are too ambiguous to correct ("cat" vs "car"). */
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_EDIT_LENGTH = 8;
+    /** Longest leftover suffix when matching a word against a stem ("-ing", "-ed", "-s"). */
+    private static final int MAX_TAIL = 3;
+
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+    void add(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH - 1) return;
+        for (String gram : grams(term)) {
+            termsByGram.computeIfAbsent(gram, k -> new HashSet<>()).add(term);
+        }
+    }
+
+    void remove(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH - 1) return;
+        for (String gram : grams(term)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms == null) continue;
+            terms.remove(term);
+            if (terms.isEmpty()) termsByGram.remove(gram);
+        }
+    }
+
+    /**
+     * Vocabulary words within one edit of {@code word} (two for words of
+     * {@value #TWO_EDIT_LENGTH}+ letters), counting an adjacent swap as one
+     * edit. Since the vocabulary holds stems, a word also matches a stem that
+     * is within the edit budget of its first letters and leaves a short
+     * unstemmed tail ("groomng" → "groom"). Empty for short words.
+     */
+    List<String> near(String word) {
+        if (word.length() < MIN_FUZZY_LENGTH) return List.of();
+        int maxEdits = word.length() >= TWO_EDIT_LENGTH ? 2 : 1;
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams(word)) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms == null) continue;
+            for (String t : terms) shared.merge(t, 1, Integer::sum);
+        }
+        List<String> near = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : shared.entrySet()) {
+            String t = e.getKey();
+            int minShared = Math.max(1, Math.min(word.length(), t.length()) - 4 * maxEdits);
+            if (e.getValue() >= minShared && (isWithin(word, t, maxEdits) || isStemWithin(word, t, maxEdits))) {
+                near.add(t);
+            }
+        }
+        return near;
+    }
+
+    private static boolean isWithin(String word, String term, int maxEdits) {
+        return Math.abs(term.length() - word.length()) <= maxEdits
+                && distance(word, term, maxEdits) <= maxEdits;
+    }
+
+    private static boolean isStemWithin(String word, String stem, int maxEdits) {
+        int tail = word.length() - stem.length();
+        return tail > 0 && tail <= MAX_TAIL && stem.length() >= MIN_FUZZY_LENGTH
+                && distance(word.substring(0, stem.length()), stem, maxEdits) <= maxEdits;
+    }
+
+    /** Boundary-padded trigrams: "dog" → "$do", "dog", "og$". */
+    private static List<String> grams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up once it exceeds
+     * {@code max}; the result is then {@code max + 1}.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int[] prev2 = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, prev2[j - 2] + 1);
+                }
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev2;
+            prev2 = prev;
+            prev = cur;
+            cur = t;
+        }
+        return Math.min(prev[m], max + 1);
+    }
+}
@@ -6,15 +6,21 @@ import com.example.timskimilenici.entities.WorkingDaySlot;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
 
 /**
  * Helpers for weekly working hours: validation, legacy defaults, and booking-time checks.
+ * The checks compile the schedule on each call; hot paths should compile once
+ * (see {@code BusinessScheduleCache}) and use {@link CompiledSchedule} directly.
  */
 public final class BusinessScheduleUtils {
 
+    private static final Map<DayOfWeek, WorkingDaySlot> DEFAULT_SCHEDULE =
+            Collections.unmodifiableMap(defaultWorkingSchedule());
+    private static final CompiledSchedule DEFAULT_COMPILED = CompiledSchedule.compile(DEFAULT_SCHEDULE);
+
     private BusinessScheduleUtils() {}
 
     /** Default Mon–Fri 09:00–17:00 when no schedule is stored (legacy data). */
@@ -27,69 +33,37 @@ public final class BusinessScheduleUtils {
         return map;
     }
 
+    /** The business's schedule, or the shared (read-only) default when none is stored. */
     public static Map<DayOfWeek, WorkingDaySlot> effectiveSchedule(Business business) {
         if (business == null) {
-            return defaultWorkingSchedule();
+            return DEFAULT_SCHEDULE;
         }
         Map<DayOfWeek, WorkingDaySlot> s = business.getWorkingSchedule();
         if (s == null || s.isEmpty()) {
-            return defaultWorkingSchedule();
+            return DEFAULT_SCHEDULE;
         }
         return s;
     }
 
-    public static boolean isWorkingDay(Business business, LocalDate date) {
-        DayOfWeek dow = date.getDayOfWeek();
+    /** Compiled form of {@link #effectiveSchedule}; the default schedule is compiled only once. */
+    public static CompiledSchedule compile(Business business) {
         Map<DayOfWeek, WorkingDaySlot> s = effectiveSchedule(business);
-        WorkingDaySlot slot = s.get(dow);
-        return slot != null && slot.isEnabled();
+        return s == DEFAULT_SCHEDULE ? DEFAULT_COMPILED : CompiledSchedule.compile(s);
+    }
+
+    public static boolean isWorkingDay(Business business, LocalDate date) {
+        return compile(business).isWorkingDay(date);
     }
 
     /**
      * Whether the booking start time falls inside [open, close) for that calendar day.
      */
     public static boolean isWithinWorkingHours(Business business, LocalDateTime bookingTime) {
-        if (bookingTime == null) {
-            return false;
-        }
-        DayOfWeek dow = bookingTime.getDayOfWeek();
-        Map<DayOfWeek, WorkingDaySlot> s = effectiveSchedule(business);
-        WorkingDaySlot slot = s.get(dow);
-        if (slot == null || !slot.isEnabled()) {
-            return false;
-        }
-        try {
-            LocalTime open = LocalTime.parse(slot.getOpenTime().trim());
-            LocalTime close = LocalTime.parse(slot.getCloseTime().trim());
-            LocalTime t = bookingTime.toLocalTime();
-            return !t.isBefore(open) && t.isBefore(close);
-        } catch (Exception e) {
-            return false;
-        }
+        return compile(business).isWithinWorkingHours(bookingTime);
     }
 
     /** Number of bookable start times for that day (30-minute grid, last slot starts strictly before close). */
     public static int countSlotsForDay(Business business, LocalDate date, int slotMinutes) {
-        if (!isWorkingDay(business, date)) {
-            return 0;
-        }
-        DayOfWeek dow = date.getDayOfWeek();
-        WorkingDaySlot slot = effectiveSchedule(business).get(dow);
-        if (slot == null || !slot.isEnabled()) {
-            return 0;
-        }
-        try {
-            LocalTime open = LocalTime.parse(slot.getOpenTime().trim());
-            LocalTime close = LocalTime.parse(slot.getCloseTime().trim());
-            int count = 0;
-            LocalTime t = open;
-            while (!t.plusMinutes(slotMinutes).isAfter(close)) {
-                count++;
-                t = t.plusMinutes(slotMinutes);
-            }
-            return count;
-        } catch (Exception e) {
-            return 0;
-        }
+        return compile(business).countSlots(date.getDayOfWeek(), slotMinutes);
     }
 }
@@ -0,0 +1,91 @@
+package com.example.timskimilenici.util;
+
+import com.example.timskimilenici.entities.WorkingDaySlot;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, pre-parsed form of a weekly working schedule: per weekday an
+ * enabled flag and open/close times as minute-of-day ints. Build it once per
+ * schedule with {@link #compile} and every check afterwards is a couple of
+ * array reads, with no string parsing or allocation.
+ */
+public final class CompiledSchedule {
+
+    /** Marks a day whose open/close times are missing or unparseable. */
+    private static final int INVALID = -1;
+
+    private final boolean[] enabled = new boolean[7];
+    private final int[] openMinute = new int[7];
+    private final int[] closeMinute = new int[7];
+
+    private CompiledSchedule(Map<DayOfWeek, WorkingDaySlot> schedule) {
+        for (DayOfWeek dow : DayOfWeek.values()) {
+            int i = dow.ordinal();
+            WorkingDaySlot slot = schedule.get(dow);
+            enabled[i] = slot != null && slot.isEnabled();
+            openMinute[i] = slot != null ? parseMinute(slot.getOpenTime()) : INVALID;
+            closeMinute[i] = slot != null ? parseMinute(slot.getCloseTime()) : INVALID;
+        }
+    }
+
+    public static CompiledSchedule compile(Map<DayOfWeek, WorkingDaySlot> schedule) {
+        return new CompiledSchedule(schedule);
+    }
+
+    private static int parseMinute(String hhmm) {
+        if (hhmm == null) return INVALID;
+        try {
+            LocalTime t = LocalTime.parse(hhmm.trim());
+            return t.getHour() * 60 + t.getMinute();
+        } catch (Exception e) {
+            return INVALID;
+        }
+    }
+
+    public boolean isWorkingDay(DayOfWeek dow) {
+        return enabled[dow.ordinal()];
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return isWorkingDay(date.getDayOfWeek());
+    }
+
+    /** Whether {@code time} falls inside [open, close) on its day. */
+    public boolean isWithinWorkingHours(LocalDateTime time) {
+        if (time == null) {
+            return false;
+        }
+        int i = time.getDayOfWeek().ordinal();
+        if (!enabled[i] || openMinute[i] == INVALID || closeMinute[i] == INVALID) {
+            return false;
+        }
+        int second = time.toLocalTime().toSecondOfDay();
+        return second >= openMinute[i] * 60 && second < closeMinute[i] * 60;
+    }
+
+    /** Number of {@code slotMinutes} start times that fit between open and close on that day. */
+    public int countSlots(DayOfWeek dow, int slotMinutes) {
+        int i = dow.ordinal();
+        if (!enabled[i] || slotMinutes <= 0 || openMinute[i] == INVALID || closeMinute[i] == INVALID) {
+            return 0;
+        }
+        int span = closeMinute[i] - openMinute[i];
+        return span > 0 ? span / slotMinutes : 0;
+    }
+
+    /** The weekdays the business is open. */
+    public Set<DayOfWeek> openDays() {
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek dow : DayOfWeek.values()) {
+            if (enabled[dow.ordinal()]) days.add(dow);
+        }
+        return days;
+    }
+}
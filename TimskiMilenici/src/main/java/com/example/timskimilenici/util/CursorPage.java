@@ -0,0 +1,86 @@
+package com.example.timskimilenici.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is an opaque token
+ * for the following page, or {@code null} on the last one. Because a cursor
+ * names the last row seen rather than an offset, rows inserted while a
+ * client pages through never shift or repeat entries.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    /** Requested page size clamped to {@code [1, MAX_SIZE]}, defaulting to {@code DEFAULT_SIZE}. */
+    public static int clampSize(Integer size) {
+        return size == null || size <= 0 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Limit for the repository query: one row more than the page, so the
+     * extra row tells us whether another page exists without a COUNT.
+     */
+    public static Pageable probe(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    /**
+     * Build the page from rows fetched with {@link #probe}. The cursor is
+     * taken from the last row actually returned.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, String> cursorOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)));
+    }
+
+    /** Encode the sort key of a row as an opaque, URL-safe cursor. */
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(SEPARATOR);
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Split a cursor back into its {@code parts} sort key values.
+     *
+     * @throws ResponseStatusException 400 when the cursor was not produced by {@link #encode}
+     */
+    public static String[] decode(String cursor, int parts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\" + SEPARATOR, -1);
+            if (keys.length == parts) return keys;
+        } catch (IllegalArgumentException ignored) {
+            // fall through to the 400 below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+
+    /** Decode a single-id cursor, or 0 (before every id) when there is none. */
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.timskimilenici.util;
+
+/**
+ * Great-circle distance helpers shared by the nearby search and the spatial index.
+ */
+public final class GeoUtils {
+
+    /** Mean earth radius (IUGG), in kilometers. */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoUtils() {}
+
+    /** {@code lng} wrapped into [-180, 180), e.g. -180.05 → 179.95. */
+    public static double normalizeLongitude(double lng) {
+        return ((lng + 180) % 360 + 360) % 360 - 180;
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double rLat1 = Math.toRadians(lat1);
+        double rLat2 = Math.toRadians(lat2);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(rLat1) * Math.cos(rLat2) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.timskimilenici.benchmarks;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import com.example.timskimilenici.services.search.SearchTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product search as the AI tools run it: the old per-call scan that scored
+ * every product of every store with {@code toLowerCase().contains}, versus
+ * the {@link CatalogueIndex} posting-list lookup. The scan works on entities
+ * already in memory, so the database round trips and lazy collection loads
+ * it used to pay are not counted.
+ *
+ * <p>Run with {@code mvn -Pbenchmark -DskipTests test -Djmh.args="CatalogueSearch"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogueSearchBenchmark {
+
+    private static final String[] COMMON = {
+            "dog", "cat", "shampoo", "food", "collar", "flea", "grooming", "toy", "leash", "bed",
+            "premium", "organic", "puppy", "kitten", "treats", "brush", "vitamins", "litter", "bowl", "harness"
+    };
+    /** Catalogue vocabulary: the common words plus filler, so a query word hits a few percent of items. */
+    private static final String[] WORDS = new String[500];
+
+    static {
+        for (int i = 0; i < WORDS.length; i++) {
+            WORDS[i] = i < COMMON.length ? COMMON[i] : "word" + i;
+        }
+    }
+
+    @Param({"5000", "50000"})
+    public int products;
+
+    private List<Business> businesses;
+    private CatalogueIndex index;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        int storeCount = Math.max(1, products / 20);
+        businesses = new ArrayList<>(storeCount);
+        index = new CatalogueIndex(null, null, null);
+        long productId = 1;
+        for (long s = 1; s <= storeCount; s++) {
+            Business b = new Business("Store " + COMMON[random.nextInt(COMMON.length)] + " " + s, null,
+                    random.nextBoolean() ? "Shop" : "Grooming", null);
+            ReflectionTestUtils.setField(b, "id", s);
+            b.setCategories(List.of(b.getCategory()));
+            b.setAddress("Street " + s + ", Skopje");
+            b.setProducts(new ArrayList<>());
+            index.upsertStore(b);
+            for (int i = 0; i < 20; i++) {
+                Product p = new Product(phrase(random, 3), phrase(random, 12),
+                        BigDecimal.valueOf(100 + random.nextInt(900)), 10, b);
+                p.setId(productId++);
+                b.getProducts().add(p);
+                index.upsertProduct(p);
+            }
+            businesses.add(b);
+        }
+        tokens = SearchTokenizer.queryTokens("organic shampoo for my puppy");
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public List<Long> legacyScan() {
+        List<long[]> scored = new ArrayList<>();
+        for (Business b : businesses) {
+            for (Product p : b.getProducts()) {
+                int score = 0;
+                for (String t : tokens) {
+                    if (contains(p.getName(), t)) score += 4;
+                    else if (contains(p.getDescription(), t)) score += 2;
+                    else if (contains(b.getName(), t)) score += 2;
+                    else if (contains(b.getCategory(), t)) score += 1;
+                    else if (b.getCategories().stream().anyMatch(c -> contains(c, t))) score += 1;
+                }
+                if (score > 0) scored.add(new long[]{p.getId(), score});
+            }
+        }
+        return scored.stream()
+                .sorted(Comparator.comparingLong((long[] s) -> s[1]).reversed())
+                .limit(10)
+                .map(s -> s[0])
+                .toList();
+    }
+
+    @Benchmark
+    public List<CatalogueIndex.ItemEntry> invertedIndex() {
+        return index.searchProducts(tokens, 10);
+    }
+
+    private static boolean contains(String value, String token) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(token);
+    }
+}
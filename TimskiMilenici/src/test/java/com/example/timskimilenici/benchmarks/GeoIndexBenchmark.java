@@ -0,0 +1,121 @@
+package com.example.timskimilenici.benchmarks;
+
+import com.example.timskimilenici.services.geo.GeoKdTree;
+import com.example.timskimilenici.util.GeoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearby-store lookup: the k-d tree behind {@code BusinessGeoIndex} versus the
+ * bounding-box + Haversine path {@code findNearby} used before it. The SQL
+ * range query is modelled as a linear bounding-box filter over the same
+ * points, which is what the database does without a spatial index; JDBC and
+ * entity-loading costs are excluded from both sides.
+ *
+ * <p>Run with {@code mvn -Pbenchmark -DskipTests test -Djmh.args="GeoIndex"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoIndexBenchmark {
+
+    /** City centers the fixture clusters stores around (Skopje, Belgrade, Sofia, Thessaloniki, Zagreb). */
+    private static final double[][] CITIES = {
+            {41.9981, 21.4254}, {44.7866, 20.4489}, {42.6977, 23.3219}, {40.6401, 22.9444}, {45.8150, 15.9819}
+    };
+
+    @Param({"10000", "50000"})
+    public int stores;
+
+    @Param({"10"})
+    public double radiusKm;
+
+    private long[] ids;
+    private double[] lats;
+    private double[] lngs;
+    private GeoKdTree tree;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        ids = new long[stores];
+        lats = new double[stores];
+        lngs = new double[stores];
+        for (int i = 0; i < stores; i++) {
+            double[] city = CITIES[i % CITIES.length];
+            ids[i] = i + 1;
+            // Dense core plus a sparse regional spread, roughly like real store density.
+            double spread = i % 4 == 0 ? 2.0 : 0.15;
+            lats[i] = city[0] + random.nextGaussian() * spread;
+            lngs[i] = city[1] + random.nextGaussian() * spread;
+        }
+        tree = GeoKdTree.build(ids, lats, lngs);
+
+        queries = new double[256][];
+        for (int i = 0; i < queries.length; i++) {
+            double[] city = CITIES[i % CITIES.length];
+            queries[i] = new double[]{city[0] + random.nextGaussian() * 0.1, city[1] + random.nextGaussian() * 0.1};
+        }
+    }
+
+    private double[] nextQuery() {
+        double[] q = queries[next];
+        next = (next + 1) & (queries.length - 1);
+        return q;
+    }
+
+    @Benchmark
+    public List<GeoKdTree.Neighbor> kdTreeNearest10() {
+        double[] q = nextQuery();
+        return tree.nearest(q[0], q[1], 10, radiusKm);
+    }
+
+    @Benchmark
+    public List<GeoKdTree.Neighbor> kdTreeWithinRadius() {
+        double[] q = nextQuery();
+        return tree.withinRadius(q[0], q[1], radiusKm);
+    }
+
+    @Benchmark
+    public List<GeoKdTree.Neighbor> boundingBoxScanNearest10() {
+        double[] q = nextQuery();
+        double latDelta = Math.toDegrees(radiusKm / GeoUtils.EARTH_RADIUS_KM);
+        double cosLat = Math.max(Math.cos(Math.toRadians(q[0])), 0.000001);
+        double lngDelta = latDelta / cosLat;
+        double minLat = q[0] - latDelta;
+        double maxLat = q[0] + latDelta;
+        double minLng = q[1] - lngDelta;
+        double maxLng = q[1] + lngDelta;
+
+        List<GeoKdTree.Neighbor> results = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (lats[i] < minLat || lats[i] > maxLat || lngs[i] < minLng || lngs[i] > maxLng) continue;
+            double d = GeoUtils.haversineKm(q[0], q[1], lats[i], lngs[i]);
+            if (d <= radiusKm) {
+                results.add(new GeoKdTree.Neighbor(ids[i], d));
+            }
+        }
+        results.sort(Comparator.comparingDouble(GeoKdTree.Neighbor::distanceKm));
+        return results.size() > 10 ? results.subList(0, 10) : results;
+    }
+}
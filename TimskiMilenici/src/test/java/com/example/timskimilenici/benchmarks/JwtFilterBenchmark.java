@@ -0,0 +1,116 @@
+package com.example.timskimilenici.benchmarks;
+
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.security.JwtAuthenticationFilter;
+import com.example.timskimilenici.security.JwtUtils;
+import com.example.timskimilenici.security.PrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication.
+ * <ul>
+ *   <li>{@code legacyTripleParse}: what the filter used to do, namely three
+ *       fresh parsers and three signature checks (extractUsername,
+ *       extractExpiration, validateToken). The user lookup is excluded.</li>
+ *   <li>{@code filterUncached}: the current filter with the claims cache
+ *       disabled, so one prebuilt parser and one signature check.</li>
+ *   <li>{@code filterCached}: the current filter with the token already in the
+ *       claims cache, which is the steady state for a client reusing its token.</li>
+ * </ul>
+ * The principal cache is warm in both filter runs, so no database access is involved.
+ *
+ * <p>Run with {@code mvn -Pbenchmark -DskipTests test -Djmh.args="JwtFilter"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private Key key;
+    private String token;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        User user = new User("bench@example.com", "x", Role.USER, "Bench User", "bench");
+        ReflectionTestUtils.setField(user, "id", 42L);
+
+        JwtUtils cachedUtils = jwtUtils(10_000);
+        JwtUtils uncachedUtils = jwtUtils(0);
+        token = cachedUtils.generateToken(user);
+
+        PrincipalCache principals = new PrincipalCache(null, 3600, 1000);
+        principals.put(user);
+        cachedFilter = new JwtAuthenticationFilter(cachedUtils, principals);
+        uncachedFilter = new JwtAuthenticationFilter(uncachedUtils, principals);
+        cachedUtils.parseClaims(token);
+    }
+
+    private static JwtUtils jwtUtils(int cacheEntries) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "secret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(utils, "claimsCacheMaxEntries", cacheEntries);
+        utils.init();
+        return utils;
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String subject = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        Date expiration = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getExpiration();
+        Claims again = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return subject.equals(again.getSubject()) && expiration.after(new Date());
+    }
+
+    @Benchmark
+    public Authentication filterUncached() throws Exception {
+        return runFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Authentication filterCached() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    private Authentication runFilter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.timskimilenici.benchmarks;
+
+import com.example.timskimilenici.repositories.BookingRepository;
+import com.example.timskimilenici.repositories.OrderRepository;
+import com.example.timskimilenici.services.OwnerAnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping of the owner analytics endpoints: turning the aggregate query
+ * rows into the response records and computing the totals, change and
+ * discount figures. The repositories return prebuilt rows shaped like the
+ * PostgreSQL results for a busy owner over a 90-day window (one overview row
+ * per day, a full 7x24 peak-time grid, a few hundred products and offers),
+ * so SQL execution is excluded.
+ *
+ * <p>Run with {@code mvn -Pbenchmark -DskipTests test -Djmh.args="OwnerAnalytics"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerAnalyticsBenchmark {
+
+    private static final int DAYS = 90;
+    private static final int PRODUCTS = 400;
+    private static final int PROMOTED_SERVICES = 150;
+    private static final int PROMOTED_PRODUCTS = 250;
+
+    private static final LocalDate TO = LocalDate.of(2026, 3, 31);
+    private static final LocalDate FROM = TO.minusDays(DAYS - 1);
+
+    private OwnerAnalyticsService service;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        List<Object[]> overview = new ArrayList<>(DAYS);
+        for (int i = 0; i < DAYS; i++) {
+            long bookings = 20 + random.nextInt(60);
+            long completed = bookings * (60 + random.nextInt(30)) / 100;
+            overview.add(new Object[]{Date.valueOf(FROM.plusDays(i)), bookings, completed,
+                    (bookings - completed) / 2, money(completed * 25, random)});
+        }
+        List<Object[]> peaks = new ArrayList<>(7 * 24);
+        for (int dow = 0; dow < 7; dow++) {
+            for (int hour = 0; hour < 24; hour++) {
+                peaks.add(new Object[]{BigDecimal.valueOf(dow), BigDecimal.valueOf(hour), (long) random.nextInt(120)});
+            }
+        }
+        List<Object[]> sales = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            long units = 1 + random.nextInt(300);
+            sales.add(new Object[]{id, "Product " + id, units, Math.max(1, units / 2), money(units * 12, random)});
+        }
+        List<Object[]> promotedServices = offers(PROMOTED_SERVICES, "Service", random);
+        List<Object[]> promotedProducts = offers(PROMOTED_PRODUCTS, "Product", random);
+
+        BookingRepository bookings = RepositoryStubs.stub(BookingRepository.class, Map.of(
+                "aggregateOverviewByOwnerAndDate", args -> overview,
+                "aggregatePeakTimes", args -> peaks,
+                "aggregatePromotedServices", args -> promotedServices));
+        OrderRepository orders = RepositoryStubs.stub(OrderRepository.class, Map.of(
+                "aggregateProductSalesByOwner", args -> sales,
+                "aggregatePromotedProducts", args -> promotedProducts));
+        service = new OwnerAnalyticsService(bookings, orders);
+    }
+
+    /** Rows shaped {@code [id, name, businessId, businessName, price, promotionPrice, count, count, revenue]}. */
+    private static List<Object[]> offers(int count, String kind, Random random) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            BigDecimal price = BigDecimal.valueOf(10 + random.nextInt(90));
+            BigDecimal promo = price.multiply(BigDecimal.valueOf(70 + random.nextInt(25))).movePointLeft(2);
+            long used = random.nextInt(200);
+            rows.add(new Object[]{id, kind + " " + id, 1 + id % 3, "Store " + (1 + id % 3), price, promo,
+                    used, used * 3 / 4, promo.multiply(BigDecimal.valueOf(used * 3 / 4))});
+        }
+        return rows;
+    }
+
+    private static BigDecimal money(long base, Random random) {
+        return BigDecimal.valueOf(base + random.nextInt(100)).setScale(2);
+    }
+
+    @Benchmark
+    public OwnerAnalyticsService.OverviewResult overview() {
+        return service.getOverview(1L, FROM, TO, null);
+    }
+
+    @Benchmark
+    public List<OwnerAnalyticsService.ProductSalesRow> productSales() {
+        return service.getProductSales(1L, FROM, TO, null);
+    }
+
+    @Benchmark
+    public OwnerAnalyticsService.SpecialOffersResult specialOffers() {
+        return service.getSpecialOffers(1L, FROM, TO, null);
+    }
+
+    @Benchmark
+    public List<OwnerAnalyticsService.PeakTimeBucket> peakTimes() {
+        return service.getPeakTimes(1L, FROM, TO, null);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.timskimilenici.benchmarks;
+
+import com.example.timskimilenici.dto.BusinessCard;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.BusinessRatingSummary;
+import com.example.timskimilenici.repositories.BusinessRatingSummaryRepository;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.services.BusinessService;
+import com.example.timskimilenici.services.BusinessViewService;
+import com.example.timskimilenici.services.RatingSummaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Attaching ratings to stores once the rows are loaded: {@code hydrateRatings}
+ * on entities, as the search and nearby paths do, and the card assembly of
+ * {@link BusinessViewService#getCards()}, which also groups the category and
+ * image rows. Repositories are stubbed with prebuilt rows, so only the id
+ * collection, map building and per-store lookups are measured; about one
+ * store in five has no reviews yet.
+ *
+ * <p>Run with {@code mvn -Pbenchmark -DskipTests test -Djmh.args="RatingHydration"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatingHydrationBenchmark {
+
+    @Param({"20", "300", "3000"})
+    public int stores;
+
+    private List<Business> businesses;
+    private BusinessService businessService;
+    private BusinessViewService viewService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        businesses = new ArrayList<>(stores);
+        List<Object[]> cardRows = new ArrayList<>(stores);
+        List<Object[]> categoryRows = new ArrayList<>();
+        List<Object[]> imageRows = new ArrayList<>();
+        Map<Long, BusinessRatingSummary> summaries = new HashMap<>();
+        for (long id = 1; id <= stores; id++) {
+            Business b = new Business("Store " + id, "Pet store " + id, "Grooming", null);
+            ReflectionTestUtils.setField(b, "id", id);
+            businesses.add(b);
+            cardRows.add(new Object[]{id, b.getName(), b.getDescription(), b.getCategory(), "Street " + id,
+                    41.9 + random.nextDouble(), 21.4 + random.nextDouble(), "/img/" + id + ".png"});
+            categoryRows.add(new Object[]{id, "Grooming"});
+            categoryRows.add(new Object[]{id, "Veterinary"});
+            for (int i = 0; i < 3; i++) {
+                imageRows.add(new Object[]{id, "/img/" + id + "-" + i + ".png"});
+            }
+            if (random.nextInt(5) > 0) {
+                summaries.put(id, summary(id, 1 + random.nextInt(200), random));
+            }
+        }
+
+        BusinessRatingSummaryRepository summaryRepository = RepositoryStubs.stub(BusinessRatingSummaryRepository.class,
+                Map.of("findAllById", args -> {
+                    // What the primary-key lookup hands back: one row per id that has a summary.
+                    List<BusinessRatingSummary> found = new ArrayList<>();
+                    for (Object id : (Iterable<?>) args[0]) {
+                        BusinessRatingSummary s = summaries.get(id);
+                        if (s != null) found.add(s);
+                    }
+                    return found;
+                }));
+        RatingSummaryService ratings = new RatingSummaryService(summaryRepository);
+        BusinessRepository businessRepository = RepositoryStubs.stub(BusinessRepository.class, Map.of(
+                "findAllCardRows", args -> cardRows,
+                "findAllCategoryRows", args -> categoryRows,
+                "findAllImageRows", args -> imageRows));
+        businessService = new BusinessService(businessRepository, null, ratings, null, null, null, null, null);
+        viewService = new BusinessViewService(businessRepository, null, null, ratings, businessService);
+    }
+
+    private static BusinessRatingSummary summary(long businessId, int reviews, Random random) {
+        BusinessRatingSummary s = BeanUtils.instantiateClass(BusinessRatingSummary.class);
+        BigDecimal sum = BigDecimal.valueOf(reviews * (3.0 + random.nextDouble() * 2)).setScale(1, RoundingMode.HALF_UP);
+        ReflectionTestUtils.setField(s, "businessId", businessId);
+        ReflectionTestUtils.setField(s, "ratingSum", sum);
+        ReflectionTestUtils.setField(s, "reviewCount", (long) reviews);
+        ReflectionTestUtils.setField(s, "averageRating", sum.doubleValue() / reviews);
+        ReflectionTestUtils.setField(s, "updatedAt", LocalDateTime.now());
+        return s;
+    }
+
+    @Benchmark
+    public List<Business> hydrateEntities() {
+        businessService.hydrateRatings(businesses);
+        return businesses;
+    }
+
+    @Benchmark
+    public List<BusinessCard> assembleCards() {
+        return viewService.getCards();
+    }
+}
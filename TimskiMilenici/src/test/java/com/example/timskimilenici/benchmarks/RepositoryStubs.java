@@ -0,0 +1,34 @@
+package com.example.timskimilenici.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for Spring Data repositories, so a benchmark can feed a
+ * service prebuilt result rows and measure only the Java side of the call.
+ * Each answer is keyed by method name and receives the call arguments; any
+ * other method throws, which keeps a benchmark from silently measuring a
+ * no-op path.
+ */
+final class RepositoryStubs {
+
+    private RepositoryStubs() {}
+
+    static <T> T stub(Class<T> repository, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (self, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) return answer.apply(args);
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "hashCode" -> System.identityHashCode(self);
+                            case "equals" -> self == args[0];
+                            default -> repository.getSimpleName() + " stub";
+                        };
+                    }
+                    throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName());
+                });
+        return repository.cast(proxy);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.timskimilenici.benchmarks;
+
+import com.example.timskimilenici.entities.WorkingDaySlot;
+import com.example.timskimilenici.util.CompiledSchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking-time validation: the string-parsing schedule checks that
+ * {@code BusinessScheduleUtils} used to run on every call, versus a
+ * {@link CompiledSchedule} as served from {@code BusinessScheduleCache}.
+ * Each op validates one booking time and counts the day's slots, the same
+ * work as one createBooking plus one calendar day.
+ *
+ * <p>Run with {@code mvn -Pbenchmark -DskipTests test -Djmh.args="Schedule"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBenchmark {
+
+    private Map<DayOfWeek, WorkingDaySlot> schedule;
+    private CompiledSchedule compiled;
+    private LocalDateTime[] times;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        schedule = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            schedule.put(d, new WorkingDaySlot(d != DayOfWeek.SUNDAY, "08:30", d == DayOfWeek.SATURDAY ? "13:00" : "18:00"));
+        }
+        compiled = CompiledSchedule.compile(schedule);
+        Random random = new Random(3);
+        times = new LocalDateTime[1024];
+        LocalDateTime base = LocalDateTime.of(2026, 3, 2, 0, 0);
+        for (int i = 0; i < times.length; i++) {
+            times[i] = base.plusDays(random.nextInt(28)).plusMinutes(random.nextInt(24 * 60));
+        }
+    }
+
+    private LocalDateTime nextTime() {
+        LocalDateTime t = times[next];
+        next = (next + 1) & (times.length - 1);
+        return t;
+    }
+
+    @Benchmark
+    public void legacyParsePerCall(Blackhole bh) {
+        LocalDateTime t = nextTime();
+        bh.consume(legacyIsWithinWorkingHours(schedule, t));
+        bh.consume(legacyCountSlots(schedule, t.getDayOfWeek(), 30));
+    }
+
+    @Benchmark
+    public void legacyDefaultSchedule(Blackhole bh) {
+        LocalDateTime t = nextTime();
+        // Businesses without a stored schedule used to allocate the default map on every check.
+        Map<DayOfWeek, WorkingDaySlot> fresh = legacyDefaultSchedule();
+        bh.consume(legacyIsWithinWorkingHours(fresh, t));
+        bh.consume(legacyCountSlots(legacyDefaultSchedule(), t.getDayOfWeek(), 30));
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        LocalDateTime t = nextTime();
+        bh.consume(compiled.isWithinWorkingHours(t));
+        bh.consume(compiled.countSlots(t.getDayOfWeek(), 30));
+    }
+
+    private static Map<DayOfWeek, WorkingDaySlot> legacyDefaultSchedule() {
+        Map<DayOfWeek, WorkingDaySlot> map = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            boolean weekday = d != DayOfWeek.SATURDAY && d != DayOfWeek.SUNDAY;
+            map.put(d, new WorkingDaySlot(weekday, "09:00", "17:00"));
+        }
+        return map;
+    }
+
+    private static boolean legacyIsWithinWorkingHours(Map<DayOfWeek, WorkingDaySlot> s, LocalDateTime bookingTime) {
+        WorkingDaySlot slot = s.get(bookingTime.getDayOfWeek());
+        if (slot == null || !slot.isEnabled()) {
+            return false;
+        }
+        try {
+            LocalTime open = LocalTime.parse(slot.getOpenTime().trim());
+            LocalTime close = LocalTime.parse(slot.getCloseTime().trim());
+            LocalTime t = bookingTime.toLocalTime();
+            return !t.isBefore(open) && t.isBefore(close);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int legacyCountSlots(Map<DayOfWeek, WorkingDaySlot> s, DayOfWeek dow, int slotMinutes) {
+        WorkingDaySlot slot = s.get(dow);
+        if (slot == null || !slot.isEnabled()) {
+            return 0;
+        }
+        try {
+            LocalTime open = LocalTime.parse(slot.getOpenTime().trim());
+            LocalTime close = LocalTime.parse(slot.getCloseTime().trim());
+            int count = 0;
+            LocalTime t = open;
+            while (!t.plusMinutes(slotMinutes).isAfter(close)) {
+                count++;
+                t = t.plusMinutes(slotMinutes);
+            }
+            return count;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.services.AiChatService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Anonymous chat quota behind a reverse proxy. Every request reaches the
+ * server from 127.0.0.1, which Tomcat trusts as an internal proxy, so the
+ * caller key must come from {@code X-Forwarded-For}: a shopper with a reply
+ * in flight is held to {@code ai.llm.max-per-user}, while another shopper
+ * behind the same proxy still gets a model slot.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ai.llm.max-concurrent=4",
+        "ai.llm.max-per-user=1",
+        "spring.datasource.url=jdbc:h2:mem:anonquota;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class AnonymousChatQuotaTest {
+
+    private static final String CHAT = "{\"message\":\"where can I groom my dog?\"}";
+
+    @LocalServerPort private int port;
+    @MockitoBean private AiChatService aiChatService;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseReplies() {
+        release.countDown();
+    }
+
+    @Test
+    void shoppersBehindTheProxyHaveSeparateQuotas() throws Exception {
+        Semaphore started = new Semaphore(0);
+        doAnswer(invocation -> {
+            started.release();
+            release.await(10, TimeUnit.SECONDS);
+            return "Here are some grooming options.";
+        }).when(aiChatService).chat(any(), any(), any(), any(), any());
+
+        CompletableFuture<HttpResponse<String>> first = chat("203.0.113.10");
+        assertThat(started.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(chat("203.0.113.10").get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(429);
+
+        CompletableFuture<HttpResponse<String>> other = chat("203.0.113.20");
+        assertThat(started.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        assertThat(other.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+    }
+
+    private CompletableFuture<HttpResponse<String>> chat(String clientAddress) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/chat"))
+                .timeout(Duration.ofSeconds(15))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", clientAddress)
+                .POST(HttpRequest.BodyPublishers.ofString(CHAT))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
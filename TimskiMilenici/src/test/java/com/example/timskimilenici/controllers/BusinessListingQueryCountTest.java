@@ -0,0 +1,138 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.entities.WorkingDaySlot;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.services.ResponseCache;
+import com.example.timskimilenici.services.geo.BusinessGeoIndex;
+import com.example.timskimilenici.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the business listing endpoints against N+1 loading: with dozens of
+ * stores, each carrying categories, images, a schedule and items, every
+ * listing must stay within a fixed number of SQL statements. Entity-backed
+ * endpoints are serialized with open-in-view on, as in production, so lazy
+ * loads during serialization are counted too.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.open-in-view=true",
+        "spring.datasource.url=jdbc:h2:mem:querycount;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BusinessListingQueryCountTest {
+
+    private static final int STORES = 30;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ResponseCache responseCache;
+    @Autowired private BusinessGeoIndex geoIndex;
+
+    private Long someBusinessId;
+
+    @BeforeEach
+    void seed() {
+        if (businessRepository.count() >= STORES) {
+            someBusinessId = businessRepository.findAll().get(0).getId();
+            return;
+        }
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            owners.add(userRepository.save(new User("owner" + i + "@example.com", "x", Role.OWNER, "Owner " + i, "owner" + i)));
+        }
+        for (int i = 0; i < STORES; i++) {
+            Business b = new Business("Store " + i, "Store number " + i, i % 2 == 0 ? "Grooming" : "Shop", owners.get(i % owners.size()));
+            b.setCategories(new ArrayList<>(List.of(b.getCategory(), "Veterinary")));
+            b.setImageUrls(new ArrayList<>(List.of("/img/" + i + "-a.png", "/img/" + i + "-b.png")));
+            b.setAddress("Street " + i + ", Skopje");
+            b.setLatitude(41.99 + i * 0.001);
+            b.setLongitude(21.43 + i * 0.001);
+            Map<DayOfWeek, WorkingDaySlot> schedule = new EnumMap<>(DayOfWeek.class);
+            for (DayOfWeek d : DayOfWeek.values()) {
+                schedule.put(d, new WorkingDaySlot(d != DayOfWeek.SUNDAY, "09:00", "17:00"));
+            }
+            b.setWorkingSchedule(schedule);
+            b = businessRepository.save(b);
+            for (int j = 0; j < 2; j++) {
+                productRepository.save(new Product("Product " + i + "-" + j, "d", new BigDecimal("10.00"), 5, b));
+                petServiceRepository.save(new PetService("Service " + i + "-" + j, "d", new BigDecimal("20.00"), 3, b));
+            }
+            if (someBusinessId == null) someBusinessId = b.getId();
+        }
+        geoIndex.reload();
+    }
+
+    private int statementsFor(String url) throws Exception {
+        responseCache.invalidateAll();
+        return SqlStatementCounter.count(() -> mockMvc.perform(get(url)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void storeCardListingsUseAFixedNumberOfQueries() throws Exception {
+        assertThat(statementsFor("/api/businesses")).isLessThanOrEqualTo(4);
+        assertThat(statementsFor("/api/businesses/page?size=20")).isLessThanOrEqualTo(4);
+        assertThat(statementsFor("/api/businesses/top")).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void storeDetailUsesAFixedNumberOfQueries() throws Exception {
+        assertThat(statementsFor("/api/businesses/" + someBusinessId)).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void entityBackedListingsBatchTheirCollections() throws Exception {
+        assertThat(statementsFor("/api/businesses/search?category=Grooming")).isLessThanOrEqualTo(9);
+        assertThat(statementsFor("/api/businesses/search?address=Skopje")).isLessThanOrEqualTo(9);
+        assertThat(statementsFor("/api/businesses/search")).isLessThanOrEqualTo(9);
+        assertThat(statementsFor("/api/businesses/nearby?lat=42.0&lng=21.44&radiusKm=50")).isLessThanOrEqualTo(9);
+    }
+
+    @Test
+    void itemListingsAreSingleQueries() throws Exception {
+        assertThat(statementsFor("/api/products")).isEqualTo(1);
+        assertThat(statementsFor("/api/services")).isEqualTo(1);
+        assertThat(statementsFor("/api/products/promoted")).isEqualTo(1);
+        assertThat(statementsFor("/api/products/top")).isLessThanOrEqualTo(2);
+        assertThat(statementsFor("/api/services/top")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void nearbyRejectsBadLatitudesAndWrapsLongitudes() throws Exception {
+        mockMvc.perform(get("/api/businesses/nearby?lat=91&lng=21.44")).andExpect(status().isBadRequest());
+        String direct = mockMvc.perform(get("/api/businesses/nearby?lat=42.0&lng=21.44&radiusKm=50"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String wrapped = mockMvc.perform(get("/api/businesses/nearby?lat=42.0&lng=381.44&radiusKm=50"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(direct).contains("Store 0");
+        assertThat(wrapped).isEqualTo(direct);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.services.AiChatService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Catalogue traffic while slow AI chats are in flight. The model is replaced
+ * by a stub that blocks for {@link #CHAT_LATENCY}, like a real Ollama
+ * completion, and Tomcat's pool is shrunk to {@link #TOMCAT_THREADS} so a
+ * couple of dozen chats saturate it the way a few hundred would in
+ * production. The test first measures catalogue requests alone, then with
+ * {@link #CHAT_CLIENTS} chat clients running, and logs throughput and
+ * latency for both phases.
+ *
+ * <p>On platform threads, catalogue requests queue behind the blocked chats.
+ * With {@code -Dspring.threads.virtual.enabled=true} on Java 21+ every request
+ * gets its own virtual thread, and the test asserts catalogue latency stays
+ * well below the chat latency.
+ *
+ * <p>Run with {@code mvn -Pload test}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=" + ChatCatalogueLoadTest.TOMCAT_THREADS,
+        // Every client is anonymous on 127.0.0.1; admit them all so the threads, not the scheduler, are the limit.
+        "ai.llm.max-concurrent=" + ChatCatalogueLoadTest.CHAT_CLIENTS,
+        "ai.llm.max-per-user=" + ChatCatalogueLoadTest.CHAT_CLIENTS,
+        "spring.datasource.url=jdbc:h2:mem:chatload;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatCatalogueLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatCatalogueLoadTest.class);
+
+    static final int TOMCAT_THREADS = 16;
+    static final int CHAT_CLIENTS = 2 * TOMCAT_THREADS;
+    private static final int CATALOGUE_CLIENTS = 4;
+    private static final Duration CHAT_LATENCY = Duration.ofSeconds(1);
+    private static final Duration PHASE = Duration.ofSeconds(6);
+
+    private static final List<String> CATALOGUE_PATHS = List.of(
+            "/api/businesses/page?size=20",
+            "/api/products/page?size=20",
+            "/api/services/page?size=20",
+            "/api/search?q=grooming&size=20");
+
+    @LocalServerPort private int port;
+    @Autowired private Environment environment;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+    @MockitoBean private AiChatService aiChatService;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User("load-owner@example.com", "x", Role.OWNER, "Load Owner", "load-owner"));
+        for (int i = 0; i < 50; i++) {
+            Business b = businessRepository.save(new Business("Store " + i, "Grooming and supplies " + i, "Grooming", owner));
+            for (int j = 0; j < 4; j++) {
+                productRepository.save(new Product("Shampoo " + i + "-" + j, "Dog shampoo", new BigDecimal(10 + j), 20, b));
+                petServiceRepository.save(new PetService("Grooming " + i + "-" + j, "Full groom", new BigDecimal(25 + j), 5, b));
+            }
+        }
+    }
+
+    @Test
+    void catalogueStaysResponsiveUnderChatLoad() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(CHAT_LATENCY.toMillis());
+            return "Here are some grooming options.";
+        }).when(aiChatService).chat(any(), any(), any(), any(), any());
+
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        Phase alone = run(0);
+        Phase mixed = run(CHAT_CLIENTS);
+
+        log.info("threads={}, tomcat max={}, chat latency={} ms",
+                virtual ? "virtual" : "platform", TOMCAT_THREADS, CHAT_LATENCY.toMillis());
+        log.info("catalogue only: {}", alone);
+        log.info("with {} chats: {}", CHAT_CLIENTS, mixed);
+
+        assertThat(alone.failures()).isZero();
+        assertThat(mixed.failures()).isZero();
+        assertThat(mixed.chats()).isPositive();
+        if (virtual) {
+            assertThat(mixed.catalogueP95Millis()).isLessThan(CHAT_LATENCY.toMillis() / 2);
+        }
+    }
+
+    /** Drive catalogue clients (and {@code chatClients} chat clients) for one {@link #PHASE}. */
+    private Phase run(int chatClients) throws InterruptedException {
+        List<Long> catalogueLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger chats = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long deadline = System.nanoTime() + PHASE.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(chatClients + CATALOGUE_CLIENTS);
+        for (int c = 0; c < chatClients; c++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (send(post("/api/chat", "{\"message\":\"where can I groom my dog?\"}")) == 200) {
+                        chats.incrementAndGet();
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < CATALOGUE_CLIENTS; c++) {
+            int offset = c;
+            clients.submit(() -> {
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    String path = CATALOGUE_PATHS.get(i++ % CATALOGUE_PATHS.size());
+                    long start = System.nanoTime();
+                    int status = send(HttpRequest.newBuilder(uri(path)).GET().build());
+                    if (status == 200) {
+                        catalogueLatencies.add(System.nanoTime() - start);
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        // Requests started just before the deadline may still be waiting on a chat.
+        assertThat(clients.awaitTermination(PHASE.toSeconds() + 30, TimeUnit.SECONDS)).isTrue();
+        return Phase.of(catalogueLatencies, chats.get(), failures.get());
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /** Results of one phase: catalogue throughput and latency, completed chats and failed requests. */
+    private record Phase(int catalogueRequests, double cataloguePerSecond, long catalogueP50Millis,
+                         long catalogueP95Millis, int chats, int failures) {
+
+        static Phase of(List<Long> latencies, int chats, int failures) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return new Phase(sorted.size(), sorted.size() / (double) PHASE.toSeconds(),
+                    percentileMillis(sorted, 50), percentileMillis(sorted, 95), chats, failures);
+        }
+
+        private static long percentileMillis(List<Long> sorted, int percentile) {
+            if (sorted.isEmpty()) return 0;
+            int index = Math.min(sorted.size() - 1, (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1);
+            return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("catalogue %.0f req/s (p50 %d ms, p95 %d ms), chats completed %d, failures %d",
+                    cataloguePerSecond, catalogueP50Millis, catalogueP95Millis, chats, failures);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.dto.BookingView;
+import com.example.timskimilenici.entities.Booking;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.security.JwtUtils;
+import com.example.timskimilenici.services.BookingService;
+import com.example.timskimilenici.util.CursorPage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination through the {@code /page} endpoints: every page walk
+ * returns each row exactly once in the documented order, bookings at the
+ * same time are ordered by id across a page boundary, the last page has no
+ * cursor, and a cursor the server did not issue is a 400.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:cursorpaging;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CursorPagingTest {
+
+    private static final int PAGE = 2;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JwtUtils jwtUtils;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+    @Autowired private BookingService bookingService;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User owner;
+    private User customer;
+    private Business store;
+    private String bearer;
+    private LocalDateTime slot;
+    private final List<Booking> booked = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        owner = userRepository.save(new User("paging-owner@example.com", "x", Role.OWNER, "Owner", "paging-owner"));
+        customer = userRepository.save(new User("paging-customer@example.com", "x", Role.USER, "Customer", "paging-customer"));
+        bearer = "Bearer " + jwtUtils.generateToken(customer);
+
+        for (int i = 0; i < 5; i++) {
+            Business b = businessRepository.save(new Business("Paging store " + i, "Grooming", "Grooming", owner));
+            if (i == 0) store = b;
+            productRepository.save(new Product("Shampoo " + i, "Dog shampoo", new BigDecimal("9.99"), 10, b));
+            petServiceRepository.save(new PetService("Groom " + i, "Full groom", new BigDecimal("25.00"), 5, b));
+        }
+
+        // Default schedule is Mon–Fri 09:00–17:00. Three bookings share one
+        // time, so a size-2 page boundary falls inside the tie.
+        slot = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)).atTime(10, 0);
+        PetService groom = petServiceRepository.save(new PetService("Bath", "Full bath", new BigDecimal("20.00"), 10, store));
+        for (LocalDateTime time : List.of(slot, slot.plusHours(1), slot.plusHours(2), slot.plusHours(2),
+                slot.plusHours(2), slot.plusHours(3), slot.plusHours(4))) {
+            booked.add(bookingService.createBooking(new Booking(customer, groom, time, null)));
+        }
+    }
+
+    @Test
+    void productPagesWalkEveryProductInIdOrder() throws Exception {
+        List<Long> expected = productRepository.findAll().stream().map(Product::getId).sorted().toList();
+        assertThat(walk("/api/products/page", PAGE)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void servicePagesWalkEveryServiceInIdOrder() throws Exception {
+        List<Long> expected = petServiceRepository.findAll().stream().map(PetService::getId).sorted().toList();
+        assertThat(walk("/api/services/page", PAGE)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void businessPagesWalkEveryStoreInIdOrder() throws Exception {
+        List<Long> expected = businessRepository.findAll().stream().map(Business::getId).sorted().toList();
+        assertThat(walk("/api/businesses/page", PAGE)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void bookingPagesBreakTimeTiesById() throws Exception {
+        List<Long> expected = booked.stream()
+                .sorted(Comparator.comparing(Booking::getBookingTime).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .toList();
+
+        assertThat(walk("/api/bookings/user/" + customer.getId() + "/page", PAGE)).containsExactlyElementsOf(expected);
+        assertThat(walk("/api/bookings/business/" + store.getId() + "/page", PAGE)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void aPageThatEndsTheListHasNoCursor() throws Exception {
+        JsonNode all = page("/api/products/page?size=5");
+        assertThat(all.get("items")).hasSize(5);
+        assertThat(all.get("nextCursor").isNull()).isTrue();
+
+        JsonNode bookings = page("/api/bookings/business/" + store.getId() + "/page?size=7");
+        assertThat(bookings.get("items")).hasSize(7);
+        assertThat(bookings.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() throws Exception {
+        List<String> paths = List.of("/api/products/page", "/api/services/page", "/api/businesses/page",
+                "/api/bookings/user/" + customer.getId() + "/page",
+                "/api/bookings/business/" + store.getId() + "/page");
+        // Not Base64, a key that is not a number, and the wrong number of keys.
+        List<String> cursors = List.of("not a cursor!", CursorPage.encode("abc"),
+                CursorPage.encode(1, 2, 3), CursorPage.encode("yesterday", 1));
+        for (String path : paths) {
+            for (String cursor : cursors) {
+                mockMvc.perform(get(path).param("cursor", cursor).header(HttpHeaders.AUTHORIZATION, bearer))
+                        .andExpect(status().isBadRequest());
+            }
+        }
+    }
+
+    @Test
+    void businessPagesFollowTheCopiedBusinessId() {
+        User shopper = userRepository.save(new User("backfill-customer@example.com", "x", Role.USER, "Shopper", "backfill-customer"));
+        Business other = businessRepository.save(new Business("Backfill store", "Grooming", "Grooming", owner));
+        PetService service = petServiceRepository.save(new PetService("Nails", "Nail trim", new BigDecimal("10.00"), 5, other));
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(new Booking(shopper, service, slot.plusHours(i), null));
+        }
+        Long businessId = other.getId();
+        assertThat(bookingService.getBookingsByBusinessPage(businessId, null, 10).items()).hasSize(3);
+
+        // Rows saved before the column existed are found again once backfilled.
+        jdbc.update("UPDATE bookings SET business_id = NULL WHERE service_id = ?", service.getId());
+        assertThat(bookingService.getBookingsByBusinessPage(businessId, null, 10).items()).isEmpty();
+        bookingService.backfillBusinessIds();
+
+        CursorPage<BookingView> first = bookingService.getBookingsByBusinessPage(businessId, null, 2);
+        CursorPage<BookingView> second = bookingService.getBookingsByBusinessPage(businessId, first.nextCursor(), 2);
+        assertThat(first.items()).extracting(BookingView::bookingTime).containsExactly(slot.plusHours(2), slot.plusHours(1));
+        assertThat(second.items()).extracting(BookingView::bookingTime).containsExactly(slot);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    /** Follow {@code nextCursor} from the first page to the last and collect the item ids. */
+    private List<Long> walk(String path, int size) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = page(path + "?size=" + size + (cursor == null ? "" : "&cursor=" + cursor));
+            JsonNode items = page.get("items");
+            items.forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            if (cursor != null) assertThat(items).hasSize(size);
+        } while (cursor != null);
+        return ids;
+    }
+
+    private JsonNode page(String url) throws Exception {
+        String body = mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
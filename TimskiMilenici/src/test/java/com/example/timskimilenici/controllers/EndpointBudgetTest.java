@@ -0,0 +1,302 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.entities.Booking;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.Cart;
+import com.example.timskimilenici.entities.CartItem;
+import com.example.timskimilenici.entities.Order;
+import com.example.timskimilenici.entities.OrderItem;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.entities.WorkingDaySlot;
+import com.example.timskimilenici.repositories.BookingRepository;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.CartRepository;
+import com.example.timskimilenici.repositories.OrderRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.security.JwtUtils;
+import com.example.timskimilenici.services.ResponseCache;
+import com.example.timskimilenici.services.geo.BusinessGeoIndex;
+import com.example.timskimilenici.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement-count and latency budgets for the read endpoints, over a seeded
+ * catalogue of a few hundred stores, thousands of items and bookings, a
+ * full cart and an owner with a few months of orders. The test fails when
+ * the SQL statements of a run exceed an endpoint's budget or, after warm-up,
+ * its median latency does.
+ *
+ * <p>Statement budgets are exact regression guards: they only move when a
+ * change adds a query, so they run in every build. Latency budgets depend on
+ * the machine, so they are tagged {@code load} and only run with
+ * {@code mvn -Pload test}. They are deliberately loose, exist to catch
+ * order-of-magnitude regressions such as a per-row query or an unbounded
+ * in-memory scan, and scale with {@code -Dbudget.latency.factor=2} on slow
+ * machines.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.open-in-view=true",
+        "spring.datasource.url=jdbc:h2:mem:budgets;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointBudgetTest {
+
+    private static final int STORES = 300;
+    private static final int ITEMS_PER_STORE = 10;
+    private static final int OWNER_BOOKINGS = 3000;
+    private static final int OWNER_ORDERS = 500;
+    private static final int CART_ITEMS = 25;
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+    private static final double LATENCY_FACTOR = Double.parseDouble(System.getProperty("budget.latency.factor", "1"));
+
+    /** Fixed "today" inside the seeded booking window, so date-ranged endpoints see a full dataset. */
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 5);
+    private static final LocalDate TO = FROM.plusDays(59);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ResponseCache responseCache;
+    @Autowired private BusinessGeoIndex geoIndex;
+    @Autowired private JwtUtils jwtUtils;
+
+    private User owner;
+    private User customer;
+    private Business ownerStore;
+    private PetService ownerService;
+
+    /** One endpoint with its budget: at most {@code maxStatements} SQL statements and {@code maxMillis} median latency. */
+    record Budget(String name, int maxStatements, long maxMillis) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        Random random = new Random(7);
+        owner = userRepository.save(new User("budget-owner@example.com", "x", Role.OWNER, "Budget Owner", "budget-owner"));
+        customer = userRepository.save(new User("budget-customer@example.com", "x", Role.USER, "Budget Customer", "budget-customer"));
+        customer.setAddress("Street 1, Skopje");
+        customer.setPhoneNumber("070000000");
+        customer = userRepository.save(customer);
+
+        List<User> otherOwners = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            otherOwners.add(userRepository.save(new User("budget-o" + i + "@example.com", "x", Role.OWNER, "Owner " + i, "budget-o" + i)));
+        }
+
+        List<Product> ownerProducts = new ArrayList<>();
+        for (int i = 0; i < STORES; i++) {
+            User storeOwner = i < 3 ? owner : otherOwners.get(i % otherOwners.size());
+            Business b = new Business("Store " + i, "Pet store number " + i, i % 3 == 0 ? "Grooming" : "Shop", storeOwner);
+            b.setCategories(new ArrayList<>(List.of(b.getCategory(), "Veterinary")));
+            b.setImageUrls(new ArrayList<>(List.of("/img/" + i + "-a.png", "/img/" + i + "-b.png")));
+            b.setAddress("Street " + i + ", Skopje");
+            b.setLatitude(41.90 + random.nextDouble() * 0.2);
+            b.setLongitude(21.30 + random.nextDouble() * 0.3);
+            b.setWorkingSchedule(weekdays());
+            b = businessRepository.save(b);
+
+            List<Product> products = new ArrayList<>();
+            List<PetService> services = new ArrayList<>();
+            for (int j = 0; j < ITEMS_PER_STORE / 2; j++) {
+                Product p = new Product("Product " + i + "-" + j, "Description " + j, new BigDecimal(10 + j), 50, b);
+                if (j == 0) p.setPromotionPrice(new BigDecimal("9.50"));
+                products.add(p);
+                PetService s = new PetService("Service " + i + "-" + j, "Description " + j, new BigDecimal(20 + j), 50, b);
+                if (j == 0) s.setPromotionPrice(new BigDecimal("19.50"));
+                services.add(s);
+            }
+            products = productRepository.saveAll(products);
+            services = petServiceRepository.saveAll(services);
+            if (storeOwner == owner) {
+                ownerProducts.addAll(products);
+                if (ownerStore == null) {
+                    ownerStore = b;
+                    ownerService = services.get(0);
+                }
+            }
+        }
+
+        List<PetService> ownerServices = petServiceRepository.findByBusinessId(ownerStore.getId());
+        List<Booking> bookings = new ArrayList<>(OWNER_BOOKINGS);
+        for (int i = 0; i < OWNER_BOOKINGS; i++) {
+            PetService s = i % 4 == 0 ? ownerService : ownerServices.get(random.nextInt(ownerServices.size()));
+            LocalDateTime time = FROM.plusDays(random.nextInt(60)).atTime(9 + random.nextInt(8), 0);
+            Booking booking = new Booking(i % 3 == 0 ? customer : owner, s, time, null);
+            booking.setStatus(Booking.BookingStatus.values()[random.nextInt(Booking.BookingStatus.values().length)]);
+            bookings.add(booking);
+        }
+        bookingRepository.saveAll(bookings);
+
+        List<Order> orders = new ArrayList<>(OWNER_ORDERS);
+        for (int i = 0; i < OWNER_ORDERS; i++) {
+            Order order = new Order(customer);
+            order.setCreatedAt(FROM.plusDays(random.nextInt(60)).atTime(12, 0));
+            for (int j = 0; j < 3; j++) {
+                Product p = ownerProducts.get(random.nextInt(ownerProducts.size()));
+                order.addItem(new OrderItem(order, p, 1 + random.nextInt(3), p.getCurrentPrice()));
+            }
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+
+        Cart cart = new Cart(customer);
+        List<Product> catalogue = productRepository.findAll();
+        for (int i = 0; i < CART_ITEMS; i++) {
+            cart.addItem(new CartItem(cart, catalogue.get(i * 37 % catalogue.size()), 1));
+        }
+        cartRepository.save(cart);
+
+        geoIndex.reload();
+    }
+
+    private static Map<DayOfWeek, WorkingDaySlot> weekdays() {
+        Map<DayOfWeek, WorkingDaySlot> schedule = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            schedule.put(d, new WorkingDaySlot(d != DayOfWeek.SUNDAY, "08:00", "18:00"));
+        }
+        return schedule;
+    }
+
+    Stream<Budget> budgets() {
+        return Stream.of(
+                new Budget("store listing", 4, 400),
+                new Budget("store page", 4, 100),
+                new Budget("top stores", 6, 100),
+                new Budget("nearby stores", 8, 150),
+                new Budget("store detail", 6, 100),
+                new Budget("product listing", 1, 400),
+                new Budget("service listing", 1, 400),
+                new Budget("promoted products", 1, 150),
+                new Budget("full dates", 2, 100),
+                new Budget("availability", 2, 100),
+                new Budget("user bookings", 1, 250),
+                new Budget("business bookings page", 1, 100),
+                new Budget("store bookings in range", 1, 250),
+                new Budget("cart", 3, 100),
+                new Budget("analytics overview", 2, 250),
+                new Budget("analytics services", 1, 250),
+                new Budget("analytics special offers", 2, 250),
+                new Budget("analytics peak times", 1, 250),
+                new Budget("catalogue search", 0, 100)
+        );
+    }
+
+    private MockHttpServletRequestBuilder request(String name) {
+        String range = "start=" + FROM + "&end=" + TO;
+        String window = "from=" + FROM + "&to=" + TO;
+        return switch (name) {
+            case "store listing" -> get("/api/businesses");
+            case "store page" -> get("/api/businesses/page?size=50");
+            case "top stores" -> get("/api/businesses/top");
+            case "nearby stores" -> get("/api/businesses/nearby?lat=42.0&lng=21.43&radiusKm=5&limit=20");
+            case "store detail" -> get("/api/businesses/" + ownerStore.getId());
+            case "product listing" -> get("/api/products");
+            case "service listing" -> get("/api/services");
+            case "promoted products" -> get("/api/products/promoted");
+            case "full dates" -> customerGet("/api/bookings/full-dates/" + ownerService.getId() + "?" + range);
+            case "availability" -> customerGet("/api/bookings/availability/" + ownerService.getId() + "?" + range);
+            case "user bookings" -> customerGet("/api/bookings/user/" + customer.getId());
+            case "business bookings page" -> customerGet("/api/bookings/business/" + ownerStore.getId() + "/page?size=50");
+            case "store bookings in range" -> customerGet("/api/bookings/store/" + ownerStore.getId() + "?" + range);
+            case "cart" -> customerGet("/api/cart");
+            case "analytics overview" -> ownerGet("/api/owner/analytics/overview?" + window);
+            case "analytics services" -> ownerGet("/api/owner/analytics/services?" + window);
+            case "analytics special offers" -> ownerGet("/api/owner/analytics/special-offers?" + window);
+            case "analytics peak times" -> ownerGet("/api/owner/analytics/peak-times?" + window);
+            case "catalogue search" -> get("/api/search?q=grooming+service&size=20");
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    private MockHttpServletRequestBuilder ownerGet(String url) {
+        return get(url).header("Authorization", "Bearer " + jwtUtils.generateToken(owner));
+    }
+
+    private MockHttpServletRequestBuilder customerGet(String url) {
+        return get(url).header("Authorization", "Bearer " + jwtUtils.generateToken(customer));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("budgets")
+    void endpointStaysWithinStatementBudget(Budget budget) throws Exception {
+        run(budget.name());
+        int maxStatements = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            maxStatements = Math.max(maxStatements, SqlStatementCounter.count(() -> run(budget.name())));
+        }
+        assertThat(maxStatements)
+                .as("SQL statements for %s", budget.name())
+                .isLessThanOrEqualTo(budget.maxStatements());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("budgets")
+    @Tag("load")
+    void endpointStaysWithinLatencyBudget(Budget budget) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run(budget.name());
+        }
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            run(budget.name());
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long medianMillis = nanos[MEASURED_RUNS / 2] / 1_000_000;
+
+        assertThat(medianMillis)
+                .as("median latency (ms) for %s", budget.name())
+                .isLessThanOrEqualTo(Math.round(budget.maxMillis() * LATENCY_FACTOR));
+    }
+
+    private void run(String name) throws Exception {
+        // Measure the endpoint itself, not the listing cache in front of it.
+        responseCache.invalidateAll();
+        mockMvc.perform(request(name)).andExpect(status().isOk());
+    }
+}
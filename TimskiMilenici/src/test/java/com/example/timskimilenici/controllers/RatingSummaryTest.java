@@ -0,0 +1,91 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.BusinessRatingSummary;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BusinessRatingSummaryRepository;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.security.JwtUtils;
+import com.example.timskimilenici.services.RatingSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posting reviews keeps {@code business_rating_summaries} current, and the
+ * reconciliation job rebuilds a summary that went missing.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:ratings;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RatingSummaryTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtils jwtUtils;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessRatingSummaryRepository summaryRepository;
+    @Autowired private RatingSummaryService ratingSummaryService;
+
+    private User reviewer;
+    private Business business;
+
+    @BeforeEach
+    void seed() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        User owner = userRepository.save(new User("owner-" + tag + "@example.com", "x", Role.OWNER, "Owner", "owner-" + tag));
+        reviewer = userRepository.save(new User("rev-" + tag + "@example.com", "x", Role.USER, "Reviewer", "rev-" + tag));
+        business = businessRepository.save(new Business("Rated " + tag, "Grooming", "Grooming", owner));
+    }
+
+    @Test
+    void postingReviewsUpdatesTheSummary() throws Exception {
+        postReview("4.0");
+        BusinessRatingSummary first = summaryRepository.findById(business.getId()).orElseThrow();
+        assertThat(first.getReviewCount()).isEqualTo(1);
+        assertThat(first.getAverageRating()).isEqualTo(4.0);
+
+        postReview("5.0");
+        postReview("3.5");
+        BusinessRatingSummary summary = summaryRepository.findById(business.getId()).orElseThrow();
+        assertThat(summary.getReviewCount()).isEqualTo(3);
+        assertThat(summary.getRatingSum()).isEqualByComparingTo("12.5");
+        assertThat(summary.getAverageRating()).isCloseTo(12.5 / 3, within(0.01));
+    }
+
+    @Test
+    void reconciliationRebuildsAMissingSummary() throws Exception {
+        postReview("2.0");
+        postReview("4.0");
+        summaryRepository.deleteById(business.getId());
+
+        ratingSummaryService.reconcile();
+
+        BusinessRatingSummary summary = summaryRepository.findById(business.getId()).orElseThrow();
+        assertThat(summary.getReviewCount()).isEqualTo(2);
+        assertThat(summary.getAverageRating()).isEqualTo(3.0);
+    }
+
+    private void postReview(String rating) throws Exception {
+        mockMvc.perform(post("/api/reviews/business/" + business.getId())
+                        .header("Authorization", "Bearer " + jwtUtils.generateToken(reviewer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\":" + rating + ",\"comment\":\"ok\"}"))
+                .andExpect(status().isOk());
+    }
+}
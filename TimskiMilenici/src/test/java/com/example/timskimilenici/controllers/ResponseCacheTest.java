@@ -0,0 +1,155 @@
+package com.example.timskimilenici.controllers;
+
+import com.example.timskimilenici.entities.Booking;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.security.JwtUtils;
+import com.example.timskimilenici.services.BookingService;
+import com.example.timskimilenici.services.ResponseCache;
+import com.example.timskimilenici.services.ResponseCache.Region;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Behaviour of {@code ResponseCacheFilter} and {@link ResponseCache}:
+ * conditional requests, invalidation on commit, the generation check
+ * against caching stale responses, and which paths are cached at all.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:responsecache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResponseCacheTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JwtUtils jwtUtils;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+    @Autowired private BookingService bookingService;
+    @Autowired private ResponseCache responseCache;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private String tag;
+    private User owner;
+    private Business business;
+
+    @BeforeEach
+    void seed() {
+        tag = UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User("cache-" + tag + "@example.com", "x", Role.OWNER, "Cache Owner", "cache-" + tag));
+        business = businessRepository.save(new Business("Cached " + tag, "Store", "Shop", owner));
+        productRepository.save(new Product("Kibble " + tag, "Dry food", new BigDecimal("9.99"), 10, business));
+        responseCache.invalidateAll();
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWith304AndTheSameETag() throws Exception {
+        String etag = fetch("/api/products").getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        MockHttpServletResponse revalidated = mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()).andReturn().getResponse();
+        assertThat(revalidated.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(revalidated.getContentAsByteArray()).isEmpty();
+
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, "\"0stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void dropsAResponseCachedWhileTheWriteWasStillUncommitted() throws Exception {
+        fetch("/api/products");
+        String added = "Shampoo " + tag;
+
+        String duringWrite = transactionTemplate.execute(tx -> {
+            productRepository.save(new Product(added, "Oatmeal", new BigDecimal("5.00"), 3, business));
+            responseCache.invalidate(Region.PRODUCTS);
+            // Another request, outside this transaction, re-caches the pre-commit listing.
+            return CompletableFuture.supplyAsync(() -> body("/api/products")).orTimeout(10, TimeUnit.SECONDS).join();
+        });
+        assertThat(duringWrite).doesNotContain(added);
+
+        assertThat(body("/api/products")).contains(added);
+    }
+
+    @Test
+    void doesNotCacheAResponseComputedBeforeAnInvalidation() {
+        long generation = responseCache.generation(Region.PRODUCTS);
+        responseCache.invalidate(Region.PRODUCTS);
+        responseCache.put("/api/products?stale", new ResponseCache.Entry(Region.PRODUCTS, new byte[] {'x'}, "application/json", "\"0x\""), generation);
+        assertThat(responseCache.get("/api/products?stale")).isNull();
+
+        long current = responseCache.generation(Region.PRODUCTS);
+        responseCache.put("/api/products?fresh", new ResponseCache.Entry(Region.PRODUCTS, new byte[] {'y'}, "application/json", "\"0y\""), current);
+        assertThat(responseCache.get("/api/products?fresh")).isNotNull();
+    }
+
+    @Test
+    void neverCachesAuthenticatedOrUnlistedPaths() throws Exception {
+        String token = "Bearer " + jwtUtils.generateToken(owner);
+        MockHttpServletResponse cart = mockMvc.perform(get("/api/cart").header("Authorization", token))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        assertThat(cart.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(responseCache.get("/api/cart")).isNull();
+
+        String detail = "/api/businesses/" + business.getId();
+        assertThat(fetch(detail).getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(responseCache.get(detail)).isNull();
+    }
+
+    @Test
+    void bookingsRefreshTheServiceRanking() throws Exception {
+        petServiceRepository.save(new PetService("Bath " + tag, "Full bath", new BigDecimal("15.00"), 5, business));
+        PetService service = petServiceRepository.save(new PetService("Groom " + tag, "Full groom", new BigDecimal("20.00"), 5, business));
+        String before = fetch("/api/services/top?limit=100").getHeader(HttpHeaders.ETAG);
+        assertThat(fetch("/api/services/top?limit=100").getHeader(HttpHeaders.ETAG)).isEqualTo(before);
+
+        // Default schedule is Mon–Fri 09:00–17:00.
+        LocalDate weekday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY));
+        bookingService.createBooking(new Booking(owner, service, weekday.atTime(10, 0), null));
+
+        // The booked service now outranks the other one, so the cached ranking must not be served.
+        assertThat(fetch("/api/services/top?limit=100").getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+    }
+
+    private MockHttpServletResponse fetch(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private String body(String url) {
+        try {
+            return fetch(url).getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
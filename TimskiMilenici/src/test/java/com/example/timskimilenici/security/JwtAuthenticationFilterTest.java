@@ -0,0 +1,115 @@
+package com.example.timskimilenici.security;
+
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.UserRepository;
+import com.example.timskimilenici.services.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revocation rules of {@link JwtAuthenticationFilter}: a token only
+ * authenticates the account as it is now, whether it carries id and role
+ * claims or only the subject of older tokens.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:jwtfilter;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+
+    @Autowired private JwtAuthenticationFilter filter;
+    @Autowired private JwtUtils jwtUtils;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserService userService;
+    @Autowired private PrincipalCache principalCache;
+    @Value("${jwt.secret}") private String secret;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User("jwt-" + tag + "@example.com", "x", Role.USER, "Jwt User", "jwt-" + tag));
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesTheCurrentAccount() throws Exception {
+        String token = jwtUtils.generateToken(user);
+        assertThat(authenticate(token).getName()).isEqualTo(user.getEmail());
+
+        String newEmail = "renamed-" + user.getEmail();
+        userService.updateUserProfile(user.getId(), null, null, newEmail, null, null, null);
+        AuthenticatedUser principal = (AuthenticatedUser) authenticate(token).getPrincipal();
+        assertThat(principal.getId()).isEqualTo(user.getId());
+        assertThat(principal.getUsername()).isEqualTo(newEmail);
+    }
+
+    @Test
+    void rejectsTokensOfDeletedAccounts() throws Exception {
+        String token = jwtUtils.generateToken(user);
+        userService.deleteUserById(user.getId());
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void rejectsTokensWhoseRoleNoLongerMatches() throws Exception {
+        String token = jwtUtils.generateToken(user);
+        user.setRole(Role.OWNER);
+        userRepository.save(user);
+        principalCache.evict(user.getId());
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void authenticatesLegacyTokensBySubjectUntilTheAccountIsDeleted() throws Exception {
+        String token = legacyToken(user.getEmail());
+        AuthenticatedUser principal = (AuthenticatedUser) authenticate(token).getPrincipal();
+        assertThat(principal.getId()).isEqualTo(user.getId());
+        assertThat(principal.getRole()).isEqualTo(Role.USER);
+
+        userService.deleteUserById(user.getId());
+        assertThat(authenticate(token)).isNull();
+        assertThat(authenticate(legacyToken("nobody@example.com"))).isNull();
+    }
+
+    /** A token as issued before the id and role claims were added: subject and expiry only. */
+    private String legacyToken(String subject) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
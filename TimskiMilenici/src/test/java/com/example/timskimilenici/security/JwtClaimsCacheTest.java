@@ -0,0 +1,143 @@
+package com.example.timskimilenici.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link JwtClaimsCache} on its own (expiry, LRU bound) and behind
+ * {@link JwtUtils#parseClaims}, which must only ever cache tokens whose
+ * signature and expiry were verified.
+ */
+class JwtClaimsCacheTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret-0123456789";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtils, "claimsCacheMaxEntries", 100);
+        jwtUtils.init();
+    }
+
+    @Test
+    void entriesAreNotServedFromTheirExpiry() {
+        JwtClaimsCache cache = new JwtClaimsCache(10);
+        Claims claims = claimsExpiringAt(1_000_000L);
+        cache.put("token", claims);
+
+        assertThat(cache.get("token", 999_999L)).isSameAs(claims);
+        assertThat(cache.get("token", 1_000_000L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredEntries() {
+        JwtClaimsCache cache = new JwtClaimsCache(10);
+        cache.put("old", claimsExpiringAt(1_000L));
+        cache.put("new", claimsExpiringAt(5_000L));
+
+        assertThat(cache.evictExpired(2_000L)).isEqualTo(1);
+        assertThat(cache.get("old", 0L)).isNull();
+        assertThat(cache.get("new", 2_000L)).isNotNull();
+    }
+
+    @Test
+    void claimsWithoutExpiryAreNotCached() {
+        JwtClaimsCache cache = new JwtClaimsCache(10);
+        cache.put("token", Jwts.claims().setSubject("someone"));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void sizeBoundEvictsTheLeastRecentlyUsed() {
+        JwtClaimsCache cache = new JwtClaimsCache(2);
+        cache.put("a", claimsExpiringAt(Long.MAX_VALUE));
+        cache.put("b", claimsExpiringAt(Long.MAX_VALUE));
+        cache.get("a", 0L);
+        cache.put("c", claimsExpiringAt(Long.MAX_VALUE));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b", 0L)).isNull();
+        assertThat(cache.get("a", 0L)).isNotNull();
+        assertThat(cache.get("c", 0L)).isNotNull();
+    }
+
+    @Test
+    void aZeroBoundDisablesTheCache() {
+        JwtClaimsCache cache = new JwtClaimsCache(0);
+        cache.put("token", claimsExpiringAt(Long.MAX_VALUE));
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.get("token", 0L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void verifiedTokensAreCachedAndServedAgain() {
+        String token = signed(SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        Claims first = jwtUtils.parseClaims(token);
+        assertThat(cache().size()).isEqualTo(1);
+        assertThat(jwtUtils.parseClaims(token)).isSameAs(first);
+    }
+
+    @Test
+    void rejectedTokensAreNeverCached() {
+        String valid = signed(SECRET, new Date(System.currentTimeMillis() + 60_000));
+        int dot = valid.lastIndexOf('.');
+        char last = valid.charAt(dot + 1);
+        String tamperedSignature = valid.substring(0, dot + 1) + (last == 'A' ? 'B' : 'A') + valid.substring(dot + 2);
+        String[] parts = valid.split("\\.");
+        String tamperedPayload = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "xx." + parts[2];
+
+        List<String> rejected = List.of(
+                tamperedSignature,
+                tamperedPayload,
+                signed("another-secret-another-secret-another-secret-0123456789", new Date(System.currentTimeMillis() + 60_000)),
+                Jwts.builder().setSubject("someone@example.com")
+                        .setExpiration(new Date(System.currentTimeMillis() + 60_000)).compact());
+        for (String token : rejected) {
+            assertThatThrownBy(() -> jwtUtils.parseClaims(token)).isInstanceOf(JwtException.class);
+        }
+        String expired = signed(SECRET, new Date(System.currentTimeMillis() - 1_000));
+        assertThatThrownBy(() -> jwtUtils.parseClaims(expired)).isInstanceOf(ExpiredJwtException.class);
+
+        assertThat(cache().size()).isZero();
+    }
+
+    private JwtClaimsCache cache() {
+        return (JwtClaimsCache) ReflectionTestUtils.getField(jwtUtils, "claimsCache");
+    }
+
+    private static Claims claimsExpiringAt(long millis) {
+        return Jwts.claims().setSubject("someone@example.com").setExpiration(new Date(millis));
+    }
+
+    private static String signed(String secret, Date expiration) {
+        return Jwts.builder()
+                .setSubject("someone@example.com")
+                .claim(JwtUtils.CLAIM_USER_ID, 1L)
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.timskimilenici.services;
+
+import com.example.timskimilenici.entities.Booking;
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.ServiceDayCapacity;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BookingRepository;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ServiceDayCapacityRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fires a burst of simultaneous bookings at one service/day and checks that
+ * exactly {@code capacity} of them succeed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingCapacityConcurrencyTest {
+
+    private static final int CAPACITY = 5;
+    private static final int ATTEMPTS = 200;
+
+    @Autowired private BookingService bookingService;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ServiceDayCapacityRepository capacityRepository;
+
+    private User customer;
+    private PetService service;
+    private LocalDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User owner = userRepository.save(new User("owner-" + suffix + "@example.com", "x", Role.OWNER, "Owner", "owner-" + suffix));
+        customer = userRepository.save(new User("customer-" + suffix + "@example.com", "x", Role.USER, "Customer", "customer-" + suffix));
+        Business business = businessRepository.save(new Business("Grooming " + suffix, "Test store", "Grooming", owner));
+        service = petServiceRepository.save(new PetService("Bath", "Full bath", new BigDecimal("20.00"), CAPACITY, business));
+        // Default schedule is Mon–Fri 09:00–17:00.
+        slot = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)).atTime(10, 0);
+    }
+
+    @Test
+    void parallelBookingsNeverExceedCapacity() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejectedAsFull = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        bookingService.createBooking(new Booking(customer, service, slot, null));
+                        accepted.incrementAndGet();
+                    } catch (ResponseStatusException e) {
+                        rejectedAsFull.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        LocalDate day = slot.toLocalDate();
+        assertThat(accepted.get()).isEqualTo(CAPACITY);
+        assertThat(rejectedAsFull.get()).isEqualTo(ATTEMPTS - CAPACITY);
+        assertThat(bookingRepository.countByServiceIdAndBookingTimeBetween(
+                service.getId(), day.atStartOfDay(), day.plusDays(1).atStartOfDay())).isEqualTo(CAPACITY);
+        assertThat(capacityRepository.findById(new ServiceDayCapacity.Key(service.getId(), day)))
+                .get().extracting(ServiceDayCapacity::getBooked).isEqualTo((long) CAPACITY);
+    }
+
+    @Test
+    void cancellingFreesThePlace() {
+        List<Booking> booked = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            booked.add(bookingService.createBooking(new Booking(customer, service, slot, null)));
+        }
+        assertThat(bookingService.getFullDates(service.getId(), slot.toLocalDate(), slot.toLocalDate()))
+                .containsExactly(slot.toLocalDate());
+
+        bookingService.updateBookingStatus(booked.get(0).getId(), Booking.BookingStatus.CANCELLED);
+
+        Booking again = bookingService.createBooking(new Booking(customer, service, slot, null));
+        assertThat(again.getId()).isNotNull();
+    }
+
+    @Test
+    void reinstatingIntoAFullDayIsRejected() {
+        List<Booking> booked = new ArrayList<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            booked.add(bookingService.createBooking(new Booking(customer, service, slot, null)));
+        }
+        Long cancelled = booked.get(0).getId();
+        bookingService.updateBookingStatus(cancelled, Booking.BookingStatus.CANCELLED);
+        bookingService.createBooking(new Booking(customer, service, slot, null));
+
+        assertThatThrownBy(() -> bookingService.updateBookingStatus(cancelled, Booking.BookingStatus.CONFIRMED))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(400));
+        assertThat(bookingRepository.findById(cancelled)).get()
+                .extracting(Booking::getStatus).isEqualTo(Booking.BookingStatus.CANCELLED);
+        assertThat(capacityRepository.findById(new ServiceDayCapacity.Key(service.getId(), slot.toLocalDate())))
+                .get().extracting(ServiceDayCapacity::getBooked).isEqualTo((long) CAPACITY);
+
+        // Once a place frees up again, the booking can be reinstated.
+        bookingService.updateBookingStatus(booked.get(1).getId(), Booking.BookingStatus.CANCELLED);
+        bookingService.updateBookingStatus(cancelled, Booking.BookingStatus.CONFIRMED);
+        assertThat(capacityRepository.findById(new ServiceDayCapacity.Key(service.getId(), slot.toLocalDate())))
+                .get().extracting(ServiceDayCapacity::getBooked).isEqualTo((long) CAPACITY);
+    }
+
+    @Test
+    void fullDatesAcceptsReversedAndLongRanges() {
+        for (int i = 0; i < CAPACITY; i++) {
+            bookingService.createBooking(new Booking(customer, service, slot, null));
+        }
+        LocalDate day = slot.toLocalDate();
+        assertThat(bookingService.getFullDates(service.getId(), day, day.minusDays(1))).isEmpty();
+
+        // Longer than one availability window: every weekend day plus the full Wednesday.
+        LocalDate from = day.minusDays(400);
+        LocalDate to = day.plusDays(30);
+        long weekendDays = from.datesUntil(to.plusDays(1))
+                .filter(d -> d.getDayOfWeek() == DayOfWeek.SATURDAY || d.getDayOfWeek() == DayOfWeek.SUNDAY)
+                .count();
+        assertThat(bookingService.getFullDates(service.getId(), from, to))
+                .hasSize((int) weekendDays + 1)
+                .contains(day)
+                .isSorted();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.timskimilenici.services.ai;
+
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Matching and invalidation rules of {@link ChatResponseCache}. The catalogue
+ * index is never loaded here; removing an unknown item is enough to move its
+ * version on.
+ */
+class ChatResponseCacheTest {
+
+    private final CatalogueIndex catalogueIndex = new CatalogueIndex(null, null, null);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void matchesNormalizedQuestionWithinTheSameStore() {
+        ChatResponseCache cache = cache(null, false);
+        Map<String, Object> store = Map.of("name", "Happy Paws");
+        cache.put("Do you sell dog food?", store, "Yes, Happy Paws has kibble.", cache.catalogueVersion());
+
+        assertThat(cache.get("  do YOU sell dog-food ", store)).contains("Yes, Happy Paws has kibble.");
+        assertThat(cache.get("Do you sell dog food?", Map.of("name", "Bark Avenue"))).isEmpty();
+        assertThat(cache.get("Do you sell dog food?", null)).isEmpty();
+        assertThat(registry.counter("petpal.chat.cache", "result", "hit", "layer", "exact").count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsRepliesOnceTheCatalogueChanges() {
+        ChatResponseCache cache = cache(null, false);
+        long before = cache.catalogueVersion();
+        catalogueIndex.removeProduct(1L);
+        cache.put("any groomers near me", null, "Try Fluffy Cuts.", before);
+        assertThat(cache.get("any groomers near me", null)).isEmpty();
+
+        cache.put("any groomers near me", null, "Try Fluffy Cuts.", cache.catalogueVersion());
+        catalogueIndex.removeService(1L);
+        assertThat(cache.get("any groomers near me", null)).isEmpty();
+    }
+
+    @Test
+    void reusesRepliesToSimilarQuestionsWhenSemanticMatchingIsOn() {
+        EmbeddingModel model = mock(EmbeddingModel.class);
+        when(model.embed("any groomers near me")).thenReturn(new float[] {1f, 0f, 0.1f});
+        when(model.embed("is there a groomer nearby")).thenReturn(new float[] {0.98f, 0f, 0.12f});
+        when(model.embed("do you sell dog food")).thenReturn(new float[] {0f, 1f, 0f});
+        ChatResponseCache cache = cache(model, true);
+        cache.put("Any groomers near me?", null, "Try Fluffy Cuts.", cache.catalogueVersion());
+
+        assertThat(cache.get("Is there a groomer nearby?", null)).contains("Try Fluffy Cuts.");
+        assertThat(cache.get("Do you sell dog food?", null)).isEmpty();
+        assertThat(registry.counter("petpal.chat.cache", "result", "hit", "layer", "semantic").count()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesExactlyWhileEmbeddingSlotsAreBusy() throws Exception {
+        EmbeddingModel model = mock(EmbeddingModel.class);
+        CountDownLatch embedding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(model.embed("any groomers near me")).thenReturn(new float[] {1f, 0f, 0.1f});
+        when(model.embed("a slow question")).thenAnswer(invocation -> {
+            embedding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new float[] {0f, 0f, 1f};
+        });
+        ChatResponseCache cache = cache(model, true);
+        cache.put("Any groomers near me?", null, "Try Fluffy Cuts.", cache.catalogueVersion());
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slow = pool.submit(() -> cache.get("A slow question", null));
+            assertThat(embedding.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(cache.get("Is there a groomer nearby?", null)).isEmpty();
+            assertThat(cache.get("Any groomers near me", null)).contains("Try Fluffy Cuts.");
+            verify(model, never()).embed("is there a groomer nearby");
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChatResponseCache cache(EmbeddingModel model, boolean semantic) {
+        ObjectProvider<EmbeddingModel> models = mock(ObjectProvider.class);
+        when(models.getIfAvailable()).thenReturn(model);
+        return new ChatResponseCache(catalogueIndex, models, registry, 100, 10, semantic, 0.92, 1, 50);
+    }
+}
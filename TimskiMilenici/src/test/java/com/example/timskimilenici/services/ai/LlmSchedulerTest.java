@@ -0,0 +1,109 @@
+package com.example.timskimilenici.services.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Admission rules of {@link LlmScheduler}: slot and queue limits, the
+ * per-caller cap, the queue timeout and round-robin hand-off between callers.
+ */
+class LlmSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void rejectsWhenSlotsAndQueueAreFull() throws Exception {
+        LlmScheduler scheduler = new LlmScheduler(1, 1, 5, 10_000, registry);
+        LlmScheduler.Permit running = scheduler.acquire("a");
+        Future<LlmScheduler.Permit> queued = pool.submit(() -> scheduler.acquire("b"));
+        awaitValue(scheduler::queuedCount, 1);
+
+        assertThatThrownBy(() -> scheduler.acquire("c"))
+                .isInstanceOfSatisfying(LlmBusyException.class, e -> assertThat(e.getReason()).isEqualTo("queue_full"));
+
+        running.close();
+        queued.get(5, TimeUnit.SECONDS).close();
+        assertThat(scheduler.activeCount()).isZero();
+        assertThat(registry.counter("petpal.llm.rejected", "reason", "queue_full").count()).isEqualTo(1);
+    }
+
+    @Test
+    void capsCallsPerCaller() {
+        LlmScheduler scheduler = new LlmScheduler(4, 10, 1, 10_000, registry);
+        LlmScheduler.Permit first = scheduler.acquire("a");
+
+        assertThatThrownBy(() -> scheduler.acquire("a"))
+                .isInstanceOfSatisfying(LlmBusyException.class, e -> assertThat(e.getReason()).isEqualTo("per_user_limit"));
+        scheduler.acquire("b").close();
+
+        first.close();
+        first.close();
+        scheduler.acquire("a").close();
+        assertThat(scheduler.activeCount()).isZero();
+    }
+
+    @Test
+    void givesUpAfterQueueTimeout() {
+        LlmScheduler scheduler = new LlmScheduler(1, 5, 5, 50, registry);
+        LlmScheduler.Permit running = scheduler.acquire("a");
+
+        assertThatThrownBy(() -> scheduler.acquire("b"))
+                .isInstanceOfSatisfying(LlmBusyException.class, e -> assertThat(e.getReason()).isEqualTo("timeout"));
+        assertThat(scheduler.queuedCount()).isZero();
+
+        running.close();
+        assertThat(scheduler.activeCount()).isZero();
+    }
+
+    @Test
+    void handsFreedSlotsToCallersInTurn() throws Exception {
+        LlmScheduler scheduler = new LlmScheduler(1, 10, 3, 10_000, registry);
+        LlmScheduler.Permit running = scheduler.acquire("a");
+        List<String> grants = Collections.synchronizedList(new ArrayList<>());
+
+        List<Future<?>> waiters = new ArrayList<>();
+        String[][] arrivals = {{"a", "a2"}, {"a", "a3"}, {"b", "b1"}};
+        for (String[] arrival : arrivals) {
+            waiters.add(pool.submit(() -> {
+                try (LlmScheduler.Permit permit = scheduler.acquire(arrival[0])) {
+                    grants.add(arrival[1]);
+                }
+            }));
+            awaitValue(scheduler::queuedCount, waiters.size());
+        }
+
+        running.close();
+        for (Future<?> waiter : waiters) waiter.get(5, TimeUnit.SECONDS);
+
+        // "a" queued twice before "b" arrived, but only gets one turn before "b".
+        assertThat(grants).containsExactly("a2", "b1", "a3");
+        assertThat(scheduler.activeCount()).isZero();
+    }
+
+    private static void awaitValue(IntSupplier value, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (value.getAsInt() != expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
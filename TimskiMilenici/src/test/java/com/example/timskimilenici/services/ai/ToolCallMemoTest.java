@@ -0,0 +1,72 @@
+package com.example.timskimilenici.services.ai;
+
+import com.example.timskimilenici.services.BusinessService;
+import com.example.timskimilenici.services.search.CatalogueIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-turn memoization of AI tool results: repeated lookups in one turn run
+ * once, a new turn starts empty, and tools still work without a memo.
+ */
+class ToolCallMemoTest {
+
+    @Test
+    void runsEachLookupOncePerTurn() {
+        ToolContext turn = new ToolContext(Map.of(ToolCallMemo.CONTEXT_KEY, new ToolCallMemo()));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            ToolCallMemo.memoize(turn, "searchProducts", List.of("shampoo"), () -> List.of(loads.incrementAndGet()));
+        }
+        ToolCallMemo.memoize(turn, "searchServices", List.of("shampoo"), () -> List.of(loads.incrementAndGet()));
+        assertThat(loads).hasValue(2);
+
+        ToolContext nextTurn = new ToolContext(Map.of(ToolCallMemo.CONTEXT_KEY, new ToolCallMemo()));
+        ToolCallMemo.memoize(nextTurn, "searchProducts", List.of("shampoo"), () -> List.of(loads.incrementAndGet()));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void doesNotRememberMissingResultsOrMemoizeWithoutATurn() {
+        ToolContext turn = new ToolContext(Map.of(ToolCallMemo.CONTEXT_KEY, new ToolCallMemo()));
+        AtomicInteger loads = new AtomicInteger();
+
+        ToolCallMemo.memoize(turn, "getStoreDetails", List.of("nowhere"), () -> { loads.incrementAndGet(); return null; });
+        ToolCallMemo.memoize(turn, "getStoreDetails", List.of("nowhere"), () -> { loads.incrementAndGet(); return null; });
+        ToolCallMemo.memoize(null, "listStores", List.of(), () -> loads.incrementAndGet());
+        ToolCallMemo.memoize(null, "listStores", List.of(), () -> loads.incrementAndGet());
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void customerToolsShareResultsForEquivalentArguments() {
+        BusinessService businessService = mock(BusinessService.class);
+        when(businessService.findNearby(anyDouble(), anyDouble(), anyDouble(), anyInt())).thenReturn(List.of());
+        CustomerAiTools tools = new CustomerAiTools(new CatalogueIndex(null, null, null), businessService);
+        ToolCallMemo memo = new ToolCallMemo();
+        ToolContext turn = new ToolContext(Map.of(ToolCallMemo.CONTEXT_KEY, memo));
+
+        tools.findNearbyStores(41.9981, 21.4254, 5, turn);
+        tools.findNearbyStores(41.998101, 21.425402, 5, turn);
+        tools.findNearbyStores(41.9981, 21.4254, 10, turn);
+        verify(businessService, times(2)).findNearby(anyDouble(), anyDouble(), anyDouble(), anyInt());
+
+        tools.searchProducts("Shampoo", turn);
+        tools.searchProducts("shampoo for my dog", turn);
+        tools.searchProducts("shampoos for my dog!", turn);
+        assertThat(memo.size()).isEqualTo(4);
+    }
+}
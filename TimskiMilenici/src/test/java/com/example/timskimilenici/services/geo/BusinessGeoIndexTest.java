@@ -0,0 +1,49 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.repositories.BusinessRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A reload's database snapshot must not undo writes that landed while it
+ * was being read.
+ */
+class BusinessGeoIndexTest {
+
+    private final BusinessRepository repository = mock(BusinessRepository.class);
+    private final BusinessGeoIndex index = new BusinessGeoIndex(repository);
+
+    @Test
+    void keepsWritesMadeWhileAReloadIsReading() {
+        when(repository.findAllCoordinates()).thenReturn(rows(new Object[] {1L, 42.0, 21.4}, new Object[] {2L, 42.0, 21.5}));
+        index.reload();
+
+        when(repository.findAllCoordinates()).thenAnswer(invocation -> {
+            // Committed after the snapshot was taken.
+            index.upsert(3L, 42.0, 21.45);
+            index.remove(2L);
+            index.upsert(1L, 42.1, 21.4);
+            return rows(new Object[] {1L, 42.0, 21.4}, new Object[] {2L, 42.0, 21.5});
+        });
+        index.reload();
+
+        List<GeoKdTree.Neighbor> all = index.nearest(42.0, 21.4, 0, 100);
+        assertThat(all).extracting(GeoKdTree.Neighbor::id).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.nearest(42.1, 21.4, 1, 1)).extracting(GeoKdTree.Neighbor::id).containsExactly(1L);
+
+        // Once the reload is done, the next snapshot is authoritative again.
+        when(repository.findAllCoordinates()).thenReturn(rows(new Object[] {2L, 42.0, 21.5}));
+        index.reload();
+        assertThat(index.nearest(42.0, 21.4, 0, 100)).extracting(GeoKdTree.Neighbor::id).containsExactly(2L);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
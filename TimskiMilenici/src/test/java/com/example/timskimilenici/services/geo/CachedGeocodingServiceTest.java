@@ -0,0 +1,166 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.entities.GeocodeCacheEntry;
+import com.example.timskimilenici.repositories.GeocodeCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link CachedGeocodingService} in front of a counting stub {@link Geocoder},
+ * with the real {@code geocode_cache} table: concurrent lookups coalesce into
+ * one upstream call, misses are cached only for the miss TTL, and cache
+ * writes commit even when the caller's transaction rolls back.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:geocache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class CachedGeocodingServiceTest {
+
+    private static final double[] SKOPJE = {21.43, 41.99};
+
+    @Autowired private GeocodeCacheRepository cacheRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentLookupsOfOneAddressMakeOneUpstreamCall() throws Exception {
+        CountingGeocoder upstream = new CountingGeocoder(Optional.of(SKOPJE));
+        upstream.release = new CountDownLatch(1);
+        CachedGeocodingService service = service(upstream, 24);
+        String street = "Partizanska " + UUID.randomUUID().toString().substring(0, 8);
+        int callers = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<Optional<double[]>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                // Spelling variants normalize to the same key.
+                String address = i % 2 == 0 ? street + ", Skopje" : "  " + street.toUpperCase() + " ,skopje.";
+                results.add(pool.submit(() -> service.geocode(address)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalesced() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            upstream.release.countDown();
+            for (Future<Optional<double[]>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).get().isEqualTo(SKOPJE);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(upstream.calls.get()).isEqualTo(1);
+        assertThat(coalesced()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void missesAreCachedOnlyForTheMissTtl() {
+        CountingGeocoder upstream = new CountingGeocoder(Optional.empty());
+        String address = "Nowhere " + UUID.randomUUID();
+
+        // Within the TTL a miss is answered from memory.
+        CachedGeocodingService service = service(upstream, 24);
+        assertThat(service.geocode(address)).isEmpty();
+        assertThat(service.geocode(address)).isEmpty();
+        assertThat(upstream.calls.get()).isEqualTo(1);
+
+        // With no TTL the next lookup goes upstream again.
+        CachedGeocodingService uncached = service(upstream, 0);
+        String other = "Nowhere " + UUID.randomUUID();
+        uncached.geocode(other);
+        uncached.geocode(other);
+        assertThat(upstream.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void persistedMissesExpireLongBeforeHits() {
+        String stale = "stale miss " + UUID.randomUUID();
+        String fresh = "fresh miss " + UUID.randomUUID();
+        String hit = "old hit " + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        cacheRepository.save(new GeocodeCacheEntry(stale, null, null, now.minusHours(25)));
+        cacheRepository.save(new GeocodeCacheEntry(fresh, null, null, now.minusHours(1)));
+        cacheRepository.save(new GeocodeCacheEntry(hit, SKOPJE[1], SKOPJE[0], now.minusDays(30)));
+
+        CountingGeocoder upstream = new CountingGeocoder(Optional.of(SKOPJE));
+        CachedGeocodingService service = service(upstream, 24);
+
+        assertThat(service.geocode(fresh)).isEmpty();
+        assertThat(service.geocode(hit)).get().isEqualTo(SKOPJE);
+        assertThat(upstream.calls.get()).isZero();
+
+        assertThat(service.geocode(stale)).get().isEqualTo(SKOPJE);
+        assertThat(upstream.calls.get()).isEqualTo(1);
+        assertThat(cacheRepository.findById(stale)).get().extracting(GeocodeCacheEntry::isMiss).isEqualTo(false);
+    }
+
+    @Test
+    void cacheWritesSurviveTheCallersRollback() {
+        CachedGeocodingService service = service(new CountingGeocoder(Optional.of(SKOPJE)), 24);
+        String address = "Rolled back " + UUID.randomUUID();
+        String marker = "caller write " + UUID.randomUUID();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cacheRepository.save(new GeocodeCacheEntry(marker, null, null, LocalDateTime.now()));
+            assertThat(service.geocode(address)).isPresent();
+            status.setRollbackOnly();
+        });
+
+        assertThat(cacheRepository.findById(marker)).isEmpty();
+        assertThat(cacheRepository.findById(CachedGeocodingService.normalize(address))).get()
+                .extracting(GeocodeCacheEntry::getLatitude).isEqualTo(SKOPJE[1]);
+    }
+
+    private CachedGeocodingService service(Geocoder upstream, long missTtlHours) {
+        return new CachedGeocodingService(upstream, cacheRepository, transactionManager, 100, 180, missTtlHours, registry);
+    }
+
+    private double coalesced() {
+        return registry.get("petpal.geocode.cache").tag("layer", "in_flight").counter().count();
+    }
+
+    /** Answers every lookup the same way and counts calls; optionally holds them until released. */
+    private static final class CountingGeocoder implements Geocoder {
+        private final Optional<double[]> answer;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch release;
+
+        CountingGeocoder(Optional<double[]> answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public Optional<double[]> geocode(String address) {
+            calls.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return answer.map(double[]::clone);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.JobCheckpoint;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.JobCheckpointRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link CoordinateBackfillJob} against the H2 test database with a mocked
+ * geocoder: resuming after a committed checkpoint, counting and retrying
+ * rows that could not be geocoded, and the running flag when the job cannot
+ * be scheduled.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:backfill;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class CoordinateBackfillJobTest {
+
+    private static final double[] SKOPJE = {21.43, 41.99};
+
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private JobCheckpointRepository checkpointRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessGeoIndex geoIndex;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final CachedGeocodingService geocoder = mock(CachedGeocodingService.class);
+    private CoordinateBackfillJob job;
+    private final List<Business> stores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        businessRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User owner = userRepository.save(new User("geo-" + suffix + "@example.com", "x", Role.OWNER, "Owner", "geo-" + suffix));
+        for (int i = 0; i < 6; i++) {
+            Business b = new Business("Store " + i, "Grooming", "Grooming", owner);
+            b.setAddress("Street " + i + ", Skopje");
+            stores.add(businessRepository.save(b));
+        }
+        when(geocoder.geocode(anyString())).thenReturn(Optional.of(SKOPJE));
+        job = new CoordinateBackfillJob(businessRepository, checkpointRepository, geocoder, geoIndex,
+                transactionManager, 2, 2, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    void resumesAfterTheCommittedCheckpoint() throws Exception {
+        JobCheckpoint interrupted = new JobCheckpoint(CoordinateBackfillJob.JOB_NAME);
+        interrupted.advance(stores.get(2).getId(), 3, 3, 0);
+        checkpointRepository.save(interrupted);
+
+        job.start(false);
+        awaitIdle();
+
+        for (int i = 0; i < 3; i++) {
+            verify(geocoder, never()).geocode(stores.get(i).getAddress());
+            assertThat(latitudeOf(stores.get(i))).isNull();
+        }
+        for (int i = 3; i < 6; i++) {
+            assertThat(latitudeOf(stores.get(i))).isEqualTo(SKOPJE[1]);
+        }
+        JobCheckpoint done = job.status();
+        assertThat(done.getState()).isEqualTo(JobCheckpoint.State.COMPLETED);
+        assertThat(done.getProcessed()).isEqualTo(6);
+        assertThat(done.getUpdated()).isEqualTo(6);
+        assertThat(done.getLastProcessedId()).isEqualTo(stores.get(5).getId());
+    }
+
+    @Test
+    void unresolvedRowsAreCountedAndRetried() throws Exception {
+        String flaky = stores.get(1).getAddress();
+        AtomicBoolean providerDown = new AtomicBoolean(true);
+        when(geocoder.geocode(eq(flaky))).thenAnswer(inv -> providerDown.get() ? Optional.empty() : Optional.of(SKOPJE));
+
+        job.start(false);
+        awaitIdle();
+
+        JobCheckpoint first = job.status();
+        assertThat(first.getState()).isEqualTo(JobCheckpoint.State.COMPLETED);
+        assertThat(first.getFailed()).isEqualTo(1);
+        assertThat(first.getUpdated()).isEqualTo(5);
+        assertThat(latitudeOf(stores.get(1))).isNull();
+
+        providerDown.set(false);
+        job.retryUnresolved();
+        awaitIdle();
+
+        JobCheckpoint retried = job.status();
+        assertThat(retried.getState()).isEqualTo(JobCheckpoint.State.COMPLETED);
+        assertThat(retried.getProcessed()).isEqualTo(1);
+        assertThat(retried.getFailed()).isZero();
+        assertThat(latitudeOf(stores.get(1))).isEqualTo(SKOPJE[1]);
+
+        // Nothing left to retry.
+        job.retryUnresolved();
+        assertThat(job.isRunning()).isFalse();
+    }
+
+    @Test
+    void aRejectedStartDoesNotLeaveTheJobRunning() {
+        job.shutdown();
+
+        assertThatThrownBy(() -> job.start(false)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(job.isRunning()).isFalse();
+    }
+
+    private Double latitudeOf(Business business) {
+        return businessRepository.findById(business.getId()).orElseThrow().getLatitude();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (job.isRunning()) {
+            assertThat(System.nanoTime()).as("backfill still running").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
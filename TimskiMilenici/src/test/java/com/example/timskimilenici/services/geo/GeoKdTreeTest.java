@@ -0,0 +1,101 @@
+package com.example.timskimilenici.services.geo;
+
+import com.example.timskimilenici.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link GeoKdTree} queries against a brute-force haversine scan over the
+ * same points: clustered stores, stores sharing coordinates, and stores on
+ * both sides of the antimeridian.
+ */
+class GeoKdTreeTest {
+
+    private static final int POINTS = 2000;
+
+    private final long[] ids = new long[POINTS];
+    private final double[] lats = new double[POINTS];
+    private final double[] lngs = new double[POINTS];
+    private final GeoKdTree tree = seed();
+
+    private GeoKdTree seed() {
+        Random random = new Random(11);
+        for (int i = 0; i < POINTS; i++) {
+            ids[i] = i + 1;
+            switch (i % 4) {
+                case 0 -> { lats[i] = -90 + random.nextDouble() * 180; lngs[i] = -180 + random.nextDouble() * 360; }
+                case 1 -> { lats[i] = 41.9 + random.nextDouble() * 0.2; lngs[i] = 21.3 + random.nextDouble() * 0.2; }
+                case 2 -> { lats[i] = -17 + random.nextDouble(); lngs[i] = GeoUtils.normalizeLongitude(179 + random.nextDouble() * 2); }
+                default -> { lats[i] = lats[i - 1]; lngs[i] = lngs[i - 1]; }
+            }
+        }
+        return GeoKdTree.build(ids, lats, lngs);
+    }
+
+    @Test
+    void nearestMatchesABruteForceScan() {
+        double[][] queries = {{42.0, 21.43}, {-16.5, 180.0}, {-16.5, -179.9}, {0, 0}, {89.9, 10}, {-89.9, -170}};
+        for (double[] q : queries) {
+            for (int k : new int[] {1, 5, 50}) {
+                assertSameDistances(tree.nearest(q[0], q[1], k, 20037), bruteForce(q[0], q[1], 20037), k);
+                assertSameDistances(tree.nearest(q[0], q[1], k, 100), bruteForce(q[0], q[1], 100), k);
+            }
+        }
+    }
+
+    @Test
+    void withinRadiusFindsEveryPointAcrossTheAntimeridian() {
+        for (double[] q : new double[][] {{-16.5, 179.95}, {-16.5, -179.95}, {42.0, 21.4}}) {
+            List<GeoKdTree.Neighbor> expected = bruteForce(q[0], q[1], 150);
+            List<GeoKdTree.Neighbor> actual = tree.withinRadius(q[0], q[1], 150);
+            assertThat(actual).extracting(GeoKdTree.Neighbor::id)
+                    .containsExactlyInAnyOrderElementsOf(expected.stream().map(GeoKdTree.Neighbor::id).toList());
+            assertSameDistances(actual, expected, expected.size());
+        }
+        List<GeoKdTree.Neighbor> across = tree.withinRadius(-16.5, 180.0, 150);
+        assertThat(across).anyMatch(n -> lngs[(int) n.id() - 1] < 0).anyMatch(n -> lngs[(int) n.id() - 1] > 0);
+    }
+
+    @Test
+    void returnsEveryPointWhenKExceedsTheSize() {
+        GeoKdTree small = GeoKdTree.build(new long[] {1, 2, 3}, new double[] {42, 42, 42.1}, new double[] {21, 21, 21.1});
+        List<GeoKdTree.Neighbor> all = small.nearest(42, 21, 10, 20037);
+        assertThat(all).extracting(GeoKdTree.Neighbor::id).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(all.get(0).distanceKm()).isZero();
+        assertThat(all.get(1).distanceKm()).isZero();
+        assertThat(GeoKdTree.empty().nearest(42, 21, 10, 100)).isEmpty();
+    }
+
+    @Test
+    void wrapsLongitudes() {
+        assertThat(GeoUtils.normalizeLongitude(-180.05)).isCloseTo(179.95, within(1e-9));
+        assertThat(GeoUtils.normalizeLongitude(540)).isCloseTo(-180, within(1e-9));
+        assertThat(GeoUtils.normalizeLongitude(21.43)).isCloseTo(21.43, within(1e-9));
+    }
+
+    private List<GeoKdTree.Neighbor> bruteForce(double lat, double lng, double radiusKm) {
+        List<GeoKdTree.Neighbor> hits = new ArrayList<>();
+        for (int i = 0; i < POINTS; i++) {
+            double d = GeoUtils.haversineKm(lat, lng, lats[i], lngs[i]);
+            if (d <= radiusKm) hits.add(new GeoKdTree.Neighbor(ids[i], d));
+        }
+        hits.sort(Comparator.comparingDouble(GeoKdTree.Neighbor::distanceKm));
+        return hits;
+    }
+
+    /** Same distances in the same order; ids may differ only where points tie. */
+    private static void assertSameDistances(List<GeoKdTree.Neighbor> actual, List<GeoKdTree.Neighbor> expected, int k) {
+        List<GeoKdTree.Neighbor> top = expected.subList(0, Math.min(k, expected.size()));
+        assertThat(actual).hasSameSizeAs(top);
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(actual.get(i).distanceKm()).isCloseTo(top.get(i).distanceKm(), within(1e-6));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.timskimilenici.services.search;
+
+import com.example.timskimilenici.entities.Business;
+import com.example.timskimilenici.entities.PetService;
+import com.example.timskimilenici.entities.Product;
+import com.example.timskimilenici.entities.Role;
+import com.example.timskimilenici.entities.User;
+import com.example.timskimilenici.repositories.BusinessRepository;
+import com.example.timskimilenici.repositories.PetServiceRepository;
+import com.example.timskimilenici.repositories.ProductRepository;
+import com.example.timskimilenici.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Postgres path of {@code /api/search}: {@link FullTextSearchSchema}'s
+ * DDL and {@code CatalogueSearchRepository}'s ranked query, against a real
+ * PostgreSQL 14. The default build runs on H2, where search always falls
+ * back to {@link CatalogueIndex}, so this is the only test of that SQL.
+ *
+ * <p>Needs Docker; skipped when it is not available. Run with
+ * {@code mvn -Ppostgres test}.
+ */
+@Tag("postgres")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogueSearchPostgresTest {
+
+    private static final Set<SearchHit.Kind> ALL = EnumSet.allOf(SearchHit.Kind.class);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @Autowired private FullTextSearchSchema schema;
+    @Autowired private CatalogueSearchService searchService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PetServiceRepository petServiceRepository;
+
+    private Business groomer;
+    private Business petShop;
+
+    @BeforeAll
+    void seed() {
+        User owner = userRepository.save(new User("pg-owner@example.com", "x", Role.OWNER, "Owner", "pg-owner"));
+        groomer = new Business("Happy Paws Grooming", "Salon for dogs and cats", "Grooming", owner);
+        groomer.setAddress("Partizanska 5, Skopje");
+        groomer = businessRepository.save(groomer);
+        petShop = new Business("Bark Avenue", "Pet shop that also offers grooming on weekends", "Pet shop", owner);
+        petShop.setAddress("Ilindenska 12, Tetovo");
+        petShop = businessRepository.save(petShop);
+        productRepository.save(new Product("Oatmeal Dog Shampoo", "Gentle shampoo", new BigDecimal("9.99"), 10, petShop));
+        petServiceRepository.save(new PetService("Full Groom", "Bath, cut and nails", new BigDecimal("25.00"), 5, groomer));
+    }
+
+    @Test
+    void schemaIsCreatedOnPostgres() {
+        assertThat(schema.isFullTextAvailable()).isTrue();
+        assertThat(schema.isTrigramAvailable()).isTrue();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        SearchPage page = searchService.search("grooming", ALL, 0, 10);
+
+        assertThat(page.results()).extracting(SearchHit::name)
+                .contains("Happy Paws Grooming", "Bark Avenue", "Full Groom");
+        assertThat(page.results().get(0).name()).isEqualTo("Happy Paws Grooming");
+        assertThat(indexOf(page, "Happy Paws Grooming")).isLessThan(indexOf(page, "Bark Avenue"));
+        assertThat(page.total()).isEqualTo(page.results().size());
+    }
+
+    @Test
+    void kindsAndAddressesFilterTheResults() {
+        SearchPage products = searchService.search("shampoo", EnumSet.of(SearchHit.Kind.PRODUCT), 0, 10);
+        assertThat(products.results()).singleElement()
+                .satisfies(hit -> assertThat(hit.storeId()).isEqualTo(petShop.getId()));
+
+        SearchPage byAddress = searchService.search("partizanska", EnumSet.of(SearchHit.Kind.STORE), 0, 10);
+        assertThat(byAddress.results()).extracting(SearchHit::id).containsExactly(groomer.getId());
+    }
+
+    @Test
+    void pagesShareOneTotal() {
+        SearchPage first = searchService.search("grooming", ALL, 0, 1);
+        SearchPage second = searchService.search("grooming", ALL, 1, 1);
+        SearchPage pastTheEnd = searchService.search("grooming", ALL, 50, 1);
+
+        assertThat(first.total()).isGreaterThanOrEqualTo(2);
+        assertThat(second.total()).isEqualTo(first.total());
+        assertThat(second.results()).doesNotContainAnyElementsOf(first.results());
+        assertThat(pastTheEnd.results()).isEmpty();
+        assertThat(pastTheEnd.total()).isEqualTo(first.total());
+    }
+
+    private static int indexOf(SearchPage page, String name) {
+        for (int i = 0; i < page.results().size(); i++) {
+            if (page.results().get(i).name().equals(name)) return i;
+        }
+        return -1;
+    }
+}
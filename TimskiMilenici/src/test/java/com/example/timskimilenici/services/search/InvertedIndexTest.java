@@ -0,0 +1,66 @@
+package com.example.timskimilenici.services.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * How a query token reaches documents in {@link InvertedIndex}: directly or
+ * by prefix, through its {@link SynonymTable} group, and through typo
+ * correction only when nothing matched it directly.
+ */
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void expandsSynonymsAtALowerWeightThanDirectHits() {
+        assertThat(SynonymTable.of("bath")).contains("groom", "shampoo");
+        assertThat(SynonymTable.of("vet")).contains("clinic", "veterinary");
+
+        doc(1, "Fluffy Cuts grooming salon");
+        doc(2, "Downtown veterinary clinic");
+        doc(3, "Bath and brush station");
+
+        assertThat(index.search(tokens("bath"), 10)).containsExactly(3L, 1L);
+        assertThat(index.search(tokens("vet"), 10)).containsExactly(2L);
+    }
+
+    @Test
+    void matchesIndexedWordsByPrefix() {
+        doc(1, "Grooming for long coats");
+        assertThat(index.search(tokens("groo"), 10)).containsExactly(1L);
+    }
+
+    @Test
+    void correctsTyposOnlyWhenTheTokenHitsNothingDirectly() {
+        doc(1, "Groom");
+        doc(2, "Broom");
+
+        assertThat(index.search(tokens("broom"), 10)).containsExactly(2L);
+        assertThat(index.search(tokens("grooom"), 10)).containsExactly(1L);
+        assertThat(index.search(tokens("brooom"), 10)).containsExactly(2L);
+    }
+
+    @Test
+    void dropsRemovedDocumentsAndTheirVocabulary() {
+        doc(1, "Shampoo");
+        index.remove(1L);
+        assertThat(index.search(tokens("shampo"), 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    private void doc(long id, String name) {
+        Map<String, Integer> terms = new HashMap<>();
+        InvertedIndex.addField(terms, name, 1);
+        index.put(id, terms);
+    }
+
+    private static List<String> tokens(String query) {
+        return SearchTokenizer.queryTokens(query);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.timskimilenici.services.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Word forms {@link Stemmer} folds together, and the ones it must leave
+ * alone so unrelated words do not collide.
+ */
+class StemmerTest {
+
+    @Test
+    void foldsPluralsOntoTheSingular() {
+        assertThat(Stemmer.stem("puppies")).isEqualTo("puppy");
+        assertThat(Stemmer.stem("brushes")).isEqualTo("brush");
+        assertThat(Stemmer.stem("boxes")).isEqualTo("box");
+        assertThat(Stemmer.stem("collars")).isEqualTo("collar");
+        assertThat(Stemmer.stem("glasses")).isEqualTo("glass");
+    }
+
+    @Test
+    void stripsVerbEndingsAndUndoublesTheConsonant() {
+        assertThat(Stemmer.stem("grooming")).isEqualTo("groom");
+        assertThat(Stemmer.stem("trimmed")).isEqualTo("trim");
+        assertThat(Stemmer.stem("walking")).isEqualTo(Stemmer.stem("walked"));
+        assertThat(Stemmer.stem("dressing")).isEqualTo("dress");
+    }
+
+    @Test
+    void leavesShortAndUnsuffixedWordsAlone() {
+        assertThat(Stemmer.stem("cat")).isEqualTo("cat");
+        assertThat(Stemmer.stem("grass")).isEqualTo("grass");
+        assertThat(Stemmer.stem("cactus")).isEqualTo("cactus");
+        assertThat(Stemmer.stem("string")).isEqualTo("string");
+        assertThat(Stemmer.stem("seed")).isEqualTo("seed");
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.timskimilenici.services.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Edit budgets of {@link TermGramIndex#near}: one edit for short words, two
+ * from eight letters on, a short unstemmed tail on top, and nothing for
+ * words under four letters.
+ */
+class TermGramIndexTest {
+
+    private final TermGramIndex index = index("groom", "shampoo", "conditioner", "cat", "leash");
+
+    @Test
+    void matchesAStemFollowedByAShortTail() {
+        assertThat(index.near("groomng")).containsExactly("groom");
+    }
+
+    @Test
+    void allowsOneEditBelowEightLetters() {
+        assertThat(index.near("shampo")).containsExactly("shampoo");
+        assertThat(index.near("lesah")).containsExactly("leash");
+        assertThat(index.near("shampuu")).isEmpty();
+    }
+
+    @Test
+    void allowsTwoEditsFromEightLetters() {
+        assertThat(index.near("condtioner")).containsExactly("conditioner");
+        assertThat(index.near("cndtioner")).containsExactly("conditioner");
+        assertThat(index.near("cndtionr")).isEmpty();
+    }
+
+    @Test
+    void doesNotCorrectShortWords() {
+        assertThat(index.near("cap")).isEmpty();
+    }
+
+    @Test
+    void forgetsRemovedTerms() {
+        index.remove("shampoo");
+        assertThat(index.near("shampo")).isEmpty();
+    }
+
+    @Test
+    void distanceCountsAnAdjacentSwapAsOneEditAndStopsPastTheBound() {
+        assertThat(TermGramIndex.distance("leash", "lesah", 2)).isEqualTo(1);
+        assertThat(TermGramIndex.distance("groom", "broom", 2)).isEqualTo(1);
+        assertThat(TermGramIndex.distance("kitten", "sitting", 1)).isEqualTo(2);
+    }
+
+    private static TermGramIndex index(String... terms) {
+        TermGramIndex index = new TermGramIndex();
+        for (String term : terms) index.add(term);
+        return index;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.timskimilenici.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered through {@code hibernate.session_factory.statement_inspector}
+ * in the test profile. Counting per thread rather than through the global
+ * {@code Statistics} keeps the scheduled index reloads and other background
+ * work out of a test's numbers; MockMvc requests run on the test thread.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) recorded.add(sql);
+        return sql;
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /** Run {@code action} and return every statement it prepared on this thread, in order. */
+    public static List<String> record(Action action) throws Exception {
+        List<String> recorded = new ArrayList<>();
+        RECORDED.set(recorded);
+        try {
+            action.run();
+        } finally {
+            RECORDED.remove();
+        }
+        return recorded;
+    }
+
+    /** Number of statements {@code action} prepared on this thread. */
+    public static int count(Action action) throws Exception {
+        return record(action).size();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.timskimilenici.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cursor encoding round trips, rejection of cursors {@link CursorPage} did
+ * not produce, and how a page is cut from the probe query's extra row.
+ */
+class CursorPageTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2026, 3, 4, 10, 30);
+        String cursor = CursorPage.encode(time, 42L);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(CursorPage.decode(cursor, 2)).containsExactly(time.toString(), "42");
+        assertThat(CursorPage.decodeId(CursorPage.encode(7L))).isEqualTo(7L);
+    }
+
+    @Test
+    void missingCursorStartsBeforeEveryId() {
+        assertThat(CursorPage.decodeId(null)).isZero();
+        assertThat(CursorPage.decodeId(" ")).isZero();
+    }
+
+    @Test
+    void foreignCursorsAreBadRequests() {
+        for (String cursor : List.of("not a cursor!", CursorPage.encode("abc"), CursorPage.encode(1, 2))) {
+            assertThatThrownBy(() -> CursorPage.decodeId(cursor))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode().value()).isEqualTo(400));
+        }
+        assertThatThrownBy(() -> CursorPage.decode(CursorPage.encode(1), 2))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void theProbeRowDecidesWhetherThereIsANextPage() {
+        CursorPage<Integer> full = CursorPage.of(List.of(1, 2, 3), 2, i -> CursorPage.encode(i));
+        assertThat(full.items()).containsExactly(1, 2);
+        assertThat(CursorPage.decodeId(full.nextCursor())).isEqualTo(2L);
+
+        CursorPage<Integer> last = CursorPage.of(List.of(1, 2), 2, i -> CursorPage.encode(i));
+        assertThat(last.items()).containsExactly(1, 2);
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void sizeIsClamped() {
+        assertThat(CursorPage.clampSize(null)).isEqualTo(CursorPage.DEFAULT_SIZE);
+        assertThat(CursorPage.clampSize(0)).isEqualTo(CursorPage.DEFAULT_SIZE);
+        assertThat(CursorPage.clampSize(5)).isEqualTo(5);
+        assertThat(CursorPage.clampSize(10_000)).isEqualTo(CursorPage.MAX_SIZE);
+    }
+}
@@ -1,6 +1,6 @@
 import React, { useState, useRef, useEffect } from 'react';
 import { usePawPal } from '../../context/PawPalContext';
-import { pawpalService } from '../../services/pawpalService';
+import { PawPalBusyError, pawpalService } from '../../services/pawpalService';
 import { ChatMessage, PawPalMode } from '../../types';
 import styles from './PawPalWidget.module.css';
 
@@ -44,18 +44,33 @@ const PawPalWidget: React.FC<PawPalWidgetProps> = ({ variant = 'fab', mode = 'cu
     setInputValue('');
     setIsLoading(true);
 
+    let started = false;
+    const appendChunk = (text: string) => {
+      if (!started) {
+        started = true;
+        setMessages((prev) => [...prev, { role: 'assistant', content: text }]);
+        setIsLoading(false);
+        return;
+      }
+      setMessages((prev) => {
+        const last = prev[prev.length - 1];
+        return [...prev.slice(0, -1), { ...last, content: last.content + text }];
+      });
+    };
+
     try {
-      const reply = await pawpalService.sendMessage(
+      await pawpalService.streamMessage(
         trimmed,
         [...messages, userMessage],
+        appendChunk,
         mode === 'owner' ? { mode } : { mode, storeContext },
       );
-      setMessages((prev) => [...prev, { role: 'assistant', content: reply }]);
-    } catch {
-      setMessages((prev) => [
-        ...prev,
-        { role: 'assistant', content: 'Sorry, I had trouble responding. Please try again.' },
-      ]);
+    } catch (error) {
+      const content =
+        error instanceof PawPalBusyError ? error.message : 'Sorry, I had trouble responding. Please try again.';
+      const apology: ChatMessage = { role: 'assistant', content };
+      // Replace a half-streamed reply rather than leaving it cut off.
+      setMessages((prev) => (started ? [...prev.slice(0, -1), apology] : [...prev, apology]));
     } finally {
       setIsLoading(false);
     }
@@ -8,29 +8,85 @@ interface SendOptions {
   storeContext?: StoreContext | null;
 }
 
+const buildRequest = (message: string, history: ChatMessage[], options: SendOptions): RequestInit => {
+  const mode: PawPalMode = options.mode ?? 'customer';
+  const headers: Record<string, string> = { 'Content-Type': 'application/json' };
+  const token = getStoredToken();
+  if (token) headers.Authorization = `Bearer ${token}`;
+
+  const payload: Record<string, unknown> = { message, history, mode };
+  if (mode === 'customer') {
+    payload.storeContext = options.storeContext ?? null;
+  }
+  return { method: 'POST', headers, body: JSON.stringify(payload) };
+};
+
+const BUSY_REPLY = 'PawPal is busy right now. Please try again in a moment.';
+
+/** The server turned the message away (HTTP 429); the message is safe to show as the reply. */
+export class PawPalBusyError extends Error {}
+
 export const pawpalService = {
   sendMessage: async (
     message: string,
     history: ChatMessage[],
     options: SendOptions = {}
   ): Promise<string> => {
-    const mode: PawPalMode = options.mode ?? 'customer';
-    const headers: Record<string, string> = { 'Content-Type': 'application/json' };
-    const token = getStoredToken();
-    if (token) headers.Authorization = `Bearer ${token}`;
-
-    const payload: Record<string, unknown> = { message, history, mode };
-    if (mode === 'customer') {
-      payload.storeContext = options.storeContext ?? null;
+    const response = await fetch(`${API_URL}/chat`, buildRequest(message, history, options));
+    if (response.status === 429) {
+      const data = await response.json().catch(() => ({}));
+      throw new PawPalBusyError(data.reply ?? BUSY_REPLY);
     }
-
-    const response = await fetch(`${API_URL}/chat`, {
-      method: 'POST',
-      headers,
-      body: JSON.stringify(payload),
-    });
     if (!response.ok) throw new Error('Failed to get response');
     const data = await response.json();
     return data.reply;
   },
+
+  /**
+   * Streams the reply from `/chat/stream` (Server-Sent Events), calling
+   * `onChunk` with each piece of text as it arrives. Resolves with the full
+   * reply once the server sends `done`; rejects on an `error` event, with a
+   * `PawPalBusyError` when the server is at capacity.
+   */
+  streamMessage: async (
+    message: string,
+    history: ChatMessage[],
+    onChunk: (text: string) => void,
+    options: SendOptions = {}
+  ): Promise<string> => {
+    const response = await fetch(`${API_URL}/chat/stream`, buildRequest(message, history, options));
+    if (response.status === 429) throw new PawPalBusyError(BUSY_REPLY);
+    if (!response.ok || !response.body) throw new Error('Failed to get response');
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    let reply = '';
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+      // Events are separated by a blank line; keep any trailing partial event.
+      const events = buffer.split(/\r?\n\r?\n/);
+      buffer = events.pop() ?? '';
+      for (const raw of events) {
+        let event = 'message';
+        const data: string[] = [];
+        for (const line of raw.split(/\r?\n/)) {
+          if (line.startsWith('event:')) event = line.slice(6).trim();
+          else if (line.startsWith('data:')) data.push(line.slice(5));
+        }
+        const body = data.length ? JSON.parse(data.join('\n')) : {};
+        if (event === 'token') {
+          reply += body.text;
+          onChunk(body.text);
+        } else if (event === 'error') {
+          throw new Error(body.reply ?? 'Failed to get response');
+        } else if (event === 'done') {
+          return reply;
+        }
+      }
+    }
+    return reply;
+  },
 };